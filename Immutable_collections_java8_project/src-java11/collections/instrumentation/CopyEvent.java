@@ -0,0 +1,33 @@
+package collections.instrumentation;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * The Flight Recorder event of an operation which copied a list.
+ */
+@Name("collections.Copy")
+@Label("List Copy")
+@Category("Immutable Collections")
+@Description("An operation which copied the elements of an immutable list")
+@StackTrace(true)
+@Threshold("1 ms")
+final class CopyEvent extends jdk.jfr.Event {
+
+	@Label("Implementation")
+	Class<?> implementation;
+
+	@Label("Operation")
+	String operation;
+
+	@Label("Input Size")
+	@Description("The number of elements of the list the operation was called on")
+	int size;
+
+	@Label("Elements Copied")
+	long copied;
+}
@@ -0,0 +1,73 @@
+package collections.instrumentation;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Emits a JDK Flight Recorder event for each operation which copies a
+ * list, with the list class, the operation, the size of the list, the
+ * elements copied and the duration.
+ *
+ * The events are named collections.Copy. By default, they are recorded
+ * when the operation takes more than their threshold (1 ms). When the
+ * system property collections.events.sampling is set to N, only one in N
+ * of those is recorded: for example, a threshold of 0 ms and a sampling of
+ * 1000 record one in a thousand of all the copies. The property is read
+ * for each event exceeding the threshold, so it can be changed while
+ * recording.
+ *
+ * This is the Java 11 version, stored under META-INF/versions/11 in the
+ * library jar.
+ */
+public final class Events {
+
+	/** Tells whether the events are enabled, as CopyEvent.isEnabled() is
+	 * the same for all the instances */
+	private static final CopyEvent probe = new CopyEvent();
+
+	/** Number of events which exceeded the threshold */
+	private static final AtomicLong sampled = new AtomicLong();
+
+	private Events() {
+	}
+
+	/**
+	 * Marks the start of an operation, to be given to end() when it ends.
+	 *
+	 * @return the event of the operation, or null if it is not recorded
+	 */
+	public static Object begin() {
+		if (!probe.isEnabled())
+			return null;
+		CopyEvent event = new CopyEvent();
+		event.begin();
+		return event;
+	}
+
+	/**
+	 * Records the end of an operation.
+	 *
+	 * @param event the value begin() returned when the operation began
+	 * @param list the list the operation was called on
+	 * @param operation the name of the operation
+	 * @param size the size of the list
+	 * @param copied the number of elements copied
+	 */
+	public static void end(Object event, Object list, String operation, int size, long copied) {
+		if (event == null)
+			return;
+		CopyEvent copy = (CopyEvent) event;
+		copy.end();
+		if (copy.shouldCommit() && sample()) {
+			copy.implementation = list.getClass();
+			copy.operation      = operation;
+			copy.size           = size;
+			copy.copied         = copied;
+			copy.commit();
+		}
+	}
+
+	private static boolean sample() {
+		long sampling = Long.getLong("collections.events.sampling", 1);
+		return sampling <= 1 || sampled.getAndIncrement() % sampling == 0;
+	}
+}
@@ -1,9 +1,47 @@
 package collections.implementations;
 
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
 import java.util.function.Function;
 import java.util.function.UnaryOperator;
 
-public class DoubleLinkedListProxy<E> /* implements List<E> */ {
+import collections.implementations.VersionedDoubleLinkedList.Version;
+import collections.instrumentation.Counters;
+import collections.instrumentation.Events;
+import collections.instrumentation.MemoryLayout;
+import collections.instrumentation.MemoryStats;
+import collections.instrumentation.MemoryStats.Representation;
+import collections.interfaces.ImmutableCoreList;
+import collections.interfaces.ImmutableList;
+import collections.interfaces.IterativeList;
+
+/**
+ * Version of a VersionedDoubleLinkedList: a view of its cells from a given
+ * one, as they were at a given version of the list.
+ *
+ * A proxy of the current version modifies the list in place. Older proxies
+ * remain usable: they read their view through the values the list saved
+ * when overwriting it, and return the result of their modifications on a
+ * copy of their view. Proxies of a concurrent list may be used from several
+ * threads; when two of them modify the same version, the first one to claim
+ * it does so in place, and the others work on a copy.
+ *
+ * reverse() and endoMap() are lazy: they return in O(1) a proxy of the same
+ * cells, which reads them backwards and through the operator. The proxy
+ * applies them to the cells, in one pass, the first time it needs its
+ * tail (when reversed) or is modified. Reading the proxy does not apply
+ * them: the cells it would write are shared with the other proxies of
+ * its version, which would then read them as stale.
+ *
+ * Proxies know the size of their view, and iterate over it without checking
+ * the version of each cell they read.
+ */
+public class DoubleLinkedListProxy<E> implements ImmutableList<E> {
+
+	/** Maximum number of operators composed in pending, before they are applied */
+	private static final int MAX_PENDING = 32;
 
 	/** The list we keep track of */
 	private VersionedDoubleLinkedList<E> versionedList;
@@ -12,16 +50,75 @@ public class DoubleLinkedListProxy<E> /* implements List<E> */ {
 	private ListCell<E> cell;
 
 	/** Version of the list this proxy should be wrapping */
-	private int version;
+	private Version<E> version;
+
+	/** Number of cells of the view */
+	private int size;
+
+	/** Whether this proxy reads its cells backwards */
+	private boolean reversed;
+
+	/** Operator to apply to the items read, null if there is none */
+	private UnaryOperator<E> pending;
+
+	/** Number of operators composed in pending */
+	private int pendingCount;
+
+	/** This proxy once its pending operations are applied to the cells */
+	private volatile DoubleLinkedListProxy<E> materialized;
 
 	public DoubleLinkedListProxy() {
-		this(new VersionedDoubleLinkedList<E>());
+		this(false);
+	}
+
+	/**
+	 * Creates an empty list.
+	 *
+	 * @param concurrent whether the list and the proxies derived from it
+	 * may be used from several threads
+	 */
+	public DoubleLinkedListProxy(boolean concurrent) {
+		this(new VersionedDoubleLinkedList<E>(concurrent));
+	}
+
+	/**
+	 * Returns a new non concurrent list holding the given elements, built
+	 * in one pass.
+	 *
+	 * @param elems the elements of the list
+	 * @return a new list holding the given elements
+	 */
+	public static <E> DoubleLinkedListProxy<E> fromArray(E[] elems) {
+		return fromArray(elems, false);
+	}
+
+	/**
+	 * Returns a new list holding the given elements, built in one pass.
+	 *
+	 * @param elems the elements of the list
+	 * @param concurrent whether the list and the proxies derived from it
+	 * may be used from several threads
+	 * @return a new list holding the given elements
+	 */
+	public static <E> DoubleLinkedListProxy<E> fromArray(E[] elems, boolean concurrent) {
+		return new DoubleLinkedListProxy<E>(concurrent).consAll(elems);
 	}
 
 	public DoubleLinkedListProxy(VersionedDoubleLinkedList<E> versionedList) {
+		Version<E>  version;
+		ListCell<E> cell;
+		int         size;
+		do {
+			version = versionedList.getStableVersion();
+			cell    = versionedList.getFirstCell();
+			size    = versionedList.size();
+		} while (!cell.isIntact(version.getNumber()) || versionedList.getStableVersion() != version);
+
 		this.versionedList = versionedList;
-		this.cell          = versionedList.getFirstCell();
-		this.version       = versionedList.getVersion();
+		this.version       = version;
+		this.cell          = cell;
+		this.size          = size;
+		observe();
 	}
 
 	public DoubleLinkedListProxy(VersionedDoubleLinkedList<E> versionedList,
@@ -29,78 +126,416 @@ public class DoubleLinkedListProxy<E> /* implements List<E> */ {
 		this.versionedList = versionedList;
 		this.cell          = cell;
 		this.version       = versionedList.getVersion();
+		this.size          = versionedList.size(cell, version);
+		observe();
+	}
+
+	DoubleLinkedListProxy(VersionedDoubleLinkedList<E> versionedList,
+			      ListCell<E> cell,
+			      Version<E> version,
+			      int size) {
+		this.versionedList = versionedList;
+		this.cell          = cell;
+		this.version       = version;
+		this.size          = size;
+		observe();
+	}
+
+	DoubleLinkedListProxy(VersionedDoubleLinkedList<E> versionedList,
+			      ListCell<E> cell,
+			      Version<E> version,
+			      int size,
+			      boolean reversed,
+			      UnaryOperator<E> pending,
+			      int pendingCount) {
+		this(versionedList, cell, version, size);
+		this.reversed     = reversed;
+		this.pending      = pending;
+		this.pendingCount = pendingCount;
+	}
+
+	private void observe() {
+		if (!cell.isEmpty())
+			version.observe();
 	}
 
-	public DoubleLinkedListProxy<E> nil() { // List
-		return new DoubleLinkedListProxy<E>();
+	/**
+	 * Returns an empty list, in the same mode and with the same kind of
+	 * cells as the list of this proxy.
+	 *
+	 * @return an empty list
+	 */
+	@SuppressWarnings("unchecked")
+	public DoubleLinkedListProxy<E> nil() {
+		return create((E[]) new Object[0]);
+	}
+
+	public DoubleLinkedListProxy<E> create(E[] elems) {
+		return new DoubleLinkedListProxy<E>(versionedList.create(elems));
+	}
+
+	@SuppressWarnings("unchecked")
+	public <F> DoubleLinkedListProxy<F> create(Collection<F> elems) {
+		F[] array = (F[]) elems.toArray();
+		return new DoubleLinkedListProxy<F>(versionedList.create(array));
+	}
+
+	/**
+	 * Returns a proxy of a new list holding the view of this proxy, which
+	 * the modifications of this list do not affect.
+	 *
+	 * @return a proxy of a copy of this list
+	 */
+	public DoubleLinkedListProxy<E> copy() {
+		long start = Counters.start();
+		Object event = Events.begin();
+		DoubleLinkedListProxy<E> result;
+		if (!isLazy())
+			result = new DoubleLinkedListProxy<E>(versionedList.copy(cell, version));
+		else
+			result = new DoubleLinkedListProxy<E>(versionedList.map(cell, version, reversed, pending()));
+		Counters.operation(this, "copy", size, start);
+		Events.end(event, this, "copy", size, size);
+		return result;
+	}
+
+	/**
+	 * Returns the memory of this proxy, which retains all the cells of its
+	 * list, whatever the size of its view. The cells are shared when other
+	 * proxies view the same version, or when this proxy views part of the
+	 * list or an older version of it.
+	 */
+	@Override
+	public MemoryStats explain() {
+		long shallow  = MemoryLayout.shallowSize(getClass());
+		long retained = shallow + versionedList.retainedBytes(version);
+		if (cell instanceof PackedCell<?> && cell != versionedList.getFirstCell())
+			retained += MemoryLayout.shallowSize(cell.getClass());
+
+		DoubleLinkedListProxy<E> materialized = this.materialized;
+		if (materialized != null && materialized != this) {
+			if (materialized.versionedList == versionedList)
+				retained += MemoryLayout.shallowSize(materialized.getClass());
+			else
+				retained += materialized.explain().getRetainedBytes();
+		}
+
+		Representation representation = reversed ? Representation.REVERSED
+			: pending != null ? Representation.VIEW
+			: Representation.CELLS;
+		boolean shared = version.isShared() || version != versionedList.getVersion() || size != versionedList.size();
+		return new MemoryStats(representation,
+				       shallow,
+				       retained,
+				       shared ? size : 0,
+				       (reversed ? 1 : 0) + pendingCount);
+	}
+
+	private boolean isLazy() {
+		return reversed || pending != null;
+	}
+
+	private UnaryOperator<E> pending() {
+		return pending == null ? UnaryOperator.identity() : pending;
+	}
+
+	private static <E, F> Function<? super E, ? extends F> compose(UnaryOperator<E> first,
+									Function<? super E, ? extends F> then) {
+		if (first == null)
+			return then;
+		return (E x) -> then.apply(first.apply(x));
+	}
+
+	/**
+	 * Returns a proxy of the view of this one, whose cells hold it as it
+	 * is read: reversed and mapped, in place if this proxy is the current
+	 * version of the list.
+	 */
+	private DoubleLinkedListProxy<E> materialized() {
+		if (!isLazy())
+			return this;
+
+		DoubleLinkedListProxy<E> result = materialized;
+		if (result == null) {
+			Version<E> newVersion = versionedList.transform(cell, version, reversed, pending());
+			if (newVersion == null)
+				result = copy();
+			else
+				result = new DoubleLinkedListProxy<E>(versionedList, cell, newVersion, size);
+			materialized = result;
+		}
+		return result;
 	}
 
 	public boolean isEmpty() {
 		return versionedList.isEmpty(cell, version);
 	}
 
-	public DoubleLinkedListProxy<E> cons(E head) { // List
-		this.versionedList.addFirst(head, cell, version);
-		return new DoubleLinkedListProxy<E>(versionedList, cell.getPrevious());
+	public int size() {
+		return size;
 	}
 
-	public DoubleLinkedListProxy<E> tail() { // List
-		ListCell<E> tailCell = versionedList.tail(cell, version);
-		return new DoubleLinkedListProxy<E>(versionedList, tailCell);
+	public E get(int index) throws IndexOutOfBoundsException {
+		if (index < 0 || index >= size)
+			throw new IndexOutOfBoundsException();
+
+		int position = reversed ? size - 1 - index : index;
+		E item = versionedList.head(versionedList.cellAt(cell, version, size, position), version);
+		return pending == null ? item : pending.apply(item);
+	}
+
+	/**
+	 * Returns an iterator over the view of this proxy. The version of the
+	 * cells is checked once per chunk of them, rather than once per cell.
+	 * A reversed proxy reads its view into an array first, and returns it
+	 * backwards.
+	 */
+	@SuppressWarnings("unchecked")
+	public Iterator<E> iterator() {
+		Iterator<E> it = versionedList.iterator(cell, version, pending());
+		if (!reversed)
+			return it;
+
+		E[] items = (E[]) new Object[size];
+		for (int i = size - 1 ; i >= 0 ; --i)
+			items[i] = it.next();
+		Counters.copied(size);
+		return Arrays.asList(items).iterator();
+	}
+
+	@SuppressWarnings("unchecked")
+	public DoubleLinkedListProxy<E> subList(int fromIndex, int toIndex)
+			throws IndexOutOfBoundsException, IllegalArgumentException {
+		if (fromIndex < 0 || toIndex > size)
+			throw new IndexOutOfBoundsException();
+		if (fromIndex > toIndex)
+			throw new IllegalArgumentException();
+
+		if (toIndex == size && !reversed) {
+			// A suffix is a view of the same cells
+			ListCell<E> fromCell = versionedList.cellAt(cell, version, size, fromIndex);
+			return new DoubleLinkedListProxy<E>(versionedList, fromCell, version, size - fromIndex, false, pending, pendingCount);
+		}
+
+		// One pass: get() would walk the cells again for every index
+		E[] elems = (E[]) new Object[toIndex - fromIndex];
+		Iterator<E> it = iterator();
+		for (int i = 0 ; i < toIndex ; ++i) {
+			E elem = it.next();
+			if (i >= fromIndex)
+				elems[i - fromIndex] = elem;
+		}
+		Counters.copied(elems.length);
+		return create(elems);
+	}
+
+	@SuppressWarnings("unchecked")
+	public DoubleLinkedListProxy<E> remove(int index) throws ArrayIndexOutOfBoundsException {
+		if (index >= size || index < 0)
+			throw new ArrayIndexOutOfBoundsException();
+		if (index == 0)
+			return tail();
+
+		E[] elems = (E[]) new Object[size - 1];
+		int i = 0, j = 0;
+		for (E elem : this)
+			if (i++ != index)
+				elems[j++] = elem;
+		Counters.copied(elems.length);
+		return create(elems);
+	}
+
+	public DoubleLinkedListProxy<E> cons(E head) {
+		if (isLazy())
+			return materialized().cons(head);
+
+		Version<E> newVersion = this.versionedList.addFirst(head, cell, version);
+		if (newVersion == null)
+			return copy().cons(head);
+		return new DoubleLinkedListProxy<E>(versionedList, cell.getPrevious(), newVersion, size + 1);
+	}
+
+	/**
+	 * Returns the list holding the given elements, in order, followed by
+	 * the elements of this list. The elements are linked in one pass, with
+	 * at most one new version of the list, as cons() would one by one.
+	 *
+	 * @param elems the elements to add in front of this list
+	 * @return the list holding the given elements followed by this list
+	 */
+	@SuppressWarnings("unchecked")
+	public DoubleLinkedListProxy<E> consAll(E... elems) {
+		if (elems.length == 0)
+			return this;
+		if (isLazy())
+			return materialized().consAll(elems);
+
+		Version<E> newVersion = versionedList.addAllFirst(elems, cell, version);
+		if (newVersion == null)
+			return copy().consAll(elems);
+
+		ListCell<E> first = cell;
+		for (int i = 0 ; i < elems.length ; ++i)
+			first = first.getPrevious();
+		return new DoubleLinkedListProxy<E>(versionedList, first, newVersion, size + elems.length);
 	}
 
-	public E head() {
-		return this.versionedList.head(this.cell, this.version);
+	/**
+	 * Returns the list holding the given elements, in order, followed by
+	 * the elements of this list, as consAll(E...) does.
+	 *
+	 * @param elems the elements to add in front of this list, for instance
+	 * an ImmutableArrayList or an ImmutableLinkedList
+	 * @return the list holding the given elements followed by this list
+	 */
+	public DoubleLinkedListProxy<E> consAll(Iterable<? extends E> elems) {
+		return consAll(ImmutableCoreList.<E>arrayOf(elems));
 	}
 
-	public DoubleLinkedListProxy<E> concat(DoubleLinkedListProxy<E> that) { // List list
-		if (!(that instanceof DoubleLinkedListProxy<?>))
+	public DoubleLinkedListProxy<E> tail() throws UnsupportedOperationException {
+		if (isEmpty())
 			throw new UnsupportedOperationException();
+		if (reversed)
+			return materialized().tail();
+
+		ListCell<E> tailCell = versionedList.tail(cell, version);
+		return new DoubleLinkedListProxy<E>(versionedList, tailCell, version, size - 1, false, pending, pendingCount);
+	}
+
+	public E head() throws NoSuchElementException {
+		if (isEmpty())
+			throw new NoSuchElementException();
+		ListCell<E> headCell = reversed ? versionedList.lastCell(cell, version) : cell;
+		E head = this.versionedList.head(headCell, this.version);
+		return pending == null ? head : pending.apply(head);
+	}
+
+	public E last() throws NoSuchElementException {
+		return reverse().head();
+	}
+
+	public DoubleLinkedListProxy<E> concat(DoubleLinkedListProxy<E> that) {
+		return concat(that, false);
+	}
+
+	/**
+	 * Returns the concatenation of this list and the given one: a proxy is
+	 * appended as by concat(DoubleLinkedListProxy), the elements of other
+	 * lists are moved in O(1) from a new list holding them.
+	 */
+	public DoubleLinkedListProxy<E> concat(ImmutableList<E> elems) {
+		if (elems instanceof DoubleLinkedListProxy<?>)
+			return concat((DoubleLinkedListProxy<E>) elems, false);
+		return splice(create(ImmutableCoreList.<E>arrayOf(elems)));
+	}
+
+	public DoubleLinkedListProxy<E> concat(Collection<E> elems) {
+		return splice(create(ImmutableCoreList.<E>arrayOf(elems)));
+	}
+
+	@SuppressWarnings("unchecked")
+	public DoubleLinkedListProxy<E> concat(E... elems) {
+		return splice(create(elems.clone()));
+	}
+
+	public DoubleLinkedListProxy<E> concat(E elem) {
+		return splice(nil().cons(elem));
+	}
+
+	/**
+	 * Returns the concatenation of this list and that, consuming that: its
+	 * cells are moved after the ones of this list in O(1) when that is the
+	 * current version of its whole list. The proxies of the list of that,
+	 * that included, can still be read, but they are no longer the current
+	 * version of their list.
+	 *
+	 * @param that the list to append, which the caller gives up
+	 * @return the concatenation of this list and that
+	 */
+	public DoubleLinkedListProxy<E> splice(DoubleLinkedListProxy<E> that) {
+		return concat(that, true);
+	}
+
+	private DoubleLinkedListProxy<E> concat(DoubleLinkedListProxy<E> that, boolean consume) {
+		DoubleLinkedListProxy<E> thatList = that;
+		if (thatList.isEmpty())
+			return this;
+		if (this.isEmpty())
+			return thatList;
+		if (this.isLazy())
+			return materialized().concat(that, consume);
+		thatList = thatList.materialized();
+
+		Version<E> newVersion = versionedList.concatenate(cell,
+								  version,
+								  thatList.versionedList,
+								  thatList.cell,
+								  thatList.version,
+								  consume);
+		if (newVersion == null)
+			return copy().concat(that, consume);
+		return new DoubleLinkedListProxy<E>(versionedList, cell, newVersion, size + thatList.size);
+	}
 
-		DoubleLinkedListProxy<E> thatList = (DoubleLinkedListProxy<E>) that;
-		ListCell<E> newCell = versionedList.concatenate(cell,
-								version,
-								thatList.versionedList,
-								thatList.cell,
-								thatList.version);
-		return new DoubleLinkedListProxy<E>(versionedList, newCell);
+	public DoubleLinkedListProxy<E> reverse() {
+		return new DoubleLinkedListProxy<E>(versionedList, cell, version, size, !reversed, pending, pendingCount);
 	}
 
-	public DoubleLinkedListProxy<E> reverse() { // List
-		this.versionedList.reverse(cell, version);
-		return new DoubleLinkedListProxy<E>(versionedList, cell);
+	/**
+	 * Returns a new list holding the images of this one, computed in one
+	 * pass with the pending operator, if any.
+	 */
+	public <F> DoubleLinkedListProxy<F> map(Function<? super E, ? extends F> mapper) {
+		VersionedDoubleLinkedList<F> newVersionedList = versionedList.map(cell, version, reversed, compose(pending, mapper));
+		return new DoubleLinkedListProxy<F>(newVersionedList);
 	}
 
-	public <R> DoubleLinkedListProxy<R> map(Function<E, R> fctn) { // List
-		VersionedDoubleLinkedList<R> newVersionedList = versionedList.map(cell, version, fctn);
-		return new DoubleLinkedListProxy<R>(newVersionedList, newVersionedList.getFirstCell());
+	public DoubleLinkedListProxy<E> endoMap(UnaryOperator<E> op) {
+		if (pendingCount == MAX_PENDING)
+			return materialized().endoMap(op);
+
+		UnaryOperator<E> first    = pending;
+		UnaryOperator<E> composed = first == null ? op : (E x) -> op.apply(first.apply(x));
+		return new DoubleLinkedListProxy<E>(versionedList, cell, version, size, reversed, composed, pendingCount + 1);
 	}
 
-	public DoubleLinkedListProxy<E> endoMap(UnaryOperator<E> op) { // List
-		versionedList.applyMap(cell, version, op);
-		return new DoubleLinkedListProxy<E>(versionedList, cell);
+	@Override
+	public DoubleLinkedListProxy<E> clone() {
+		return this;
 	}
 
 	public String toString() {
-		return this.versionedList.toString(cell, version);
+		if (!isLazy())
+			return this.versionedList.toString(cell, version);
+
+		StringBuilder result = new StringBuilder("[");
+		String sep = "";
+		for (E item : this) {
+			result.append(sep).append(item);
+			sep = ", ";
+		}
+		return result.append("]").toString();
 	}
 
+	@Override
 	public boolean equals(Object obj) {
-		if (!(obj instanceof DoubleLinkedListProxy<?>)) { // List
+		if (!(obj instanceof DoubleLinkedListProxy<?>))
+			return IterativeList.equals(this, obj);
+
+		DoubleLinkedListProxy<?> thatList = (DoubleLinkedListProxy<?>) obj;
+		if (size != thatList.size)
 			return false;
-		}
-		if (obj instanceof DoubleLinkedListProxy<?>) {
-			DoubleLinkedListProxy<?> thatList = (DoubleLinkedListProxy<?>) obj;
-			return versionedList.isEqual(cell,
-						     version,
-						     thatList.versionedList,
-						     thatList.cell,
-						     thatList.version);
-		}
-		// else {
-			// List<?> thatList = (List<?>) obj; // List list
-			// return versionedList.isEqual(cell, version, thatList);
-		// }
-		return false; // to suppr
+		if (isLazy() || thatList.isLazy())
+			return ImmutableCoreList.equals(this, thatList);
+		return versionedList.isEqual(cell,
+					     version,
+					     thatList.versionedList,
+					     thatList.cell,
+					     thatList.version);
+	}
+
+	@Override
+	public int hashCode() {
+		return ImmutableCoreList.hashCode(this);
 	}
 }
@@ -1,12 +1,30 @@
 package collections.implementations;
 
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.function.Function;
+import java.util.function.Predicate;
 
+import collections.instrumentation.Counters;
+import collections.instrumentation.Events;
+import collections.interfaces.ImmutableCoreList;
 import collections.interfaces.ImmutableList;
 
+/**
+ * An immutable list backed by an array.
+ *
+ * The operations returning a list of another size (create, cons, concat,
+ * remove, subList, map and filter) build it through of(): the shared empty
+ * list, a small list of up to four elements held in fields, or an
+ * ImmutableArrayList. They are thus typed ImmutableList rather than
+ * ImmutableArrayList.
+ */
 public class ImmutableArrayList<E> extends ImmutableBaseIterativeList<E> implements ImmutableList<E>
 {
 
+	/** The empty list shared by all element types */
+	private static final ImmutableArrayList<Object> EMPTY = new ImmutableArrayList<Object>();
+
 	/**
 	 * Constructs an empty list with an initial capacity of 0.
 	 */
@@ -44,29 +62,114 @@ public class ImmutableArrayList<E> extends ImmutableBaseIterativeList<E> impleme
 	}
 
 	
-	
+	/**
+	 * Returns the empty array list.
+	 *
+	 * @return the empty array list, shared by all element types
+	 */
+	@SuppressWarnings("unchecked")
+	public static <E> ImmutableArrayList<E> empty() {
+		return (ImmutableArrayList<E>) EMPTY;
+	}
+
+	/**
+	 * Returns a list containing one element, which grows into an
+	 * ImmutableArrayList.
+	 *
+	 * @param e1 the element
+	 * @return a list containing the given element
+	 */
+	public static <E> ImmutableList<E> of(E e1) {
+		return new List1<E>(false, e1);
+	}
+
+	/**
+	 * Returns a list containing two elements, which grows into an
+	 * ImmutableArrayList.
+	 *
+	 * @return a list containing the given elements
+	 */
+	public static <E> ImmutableList<E> of(E e1, E e2) {
+		return new List2<E>(false, e1, e2);
+	}
+
+	/**
+	 * Returns a list containing three elements, which grows into an
+	 * ImmutableArrayList.
+	 *
+	 * @return a list containing the given elements
+	 */
+	public static <E> ImmutableList<E> of(E e1, E e2, E e3) {
+		return new List3<E>(false, e1, e2, e3);
+	}
+
+	/**
+	 * Returns a list containing four elements, which grows into an
+	 * ImmutableArrayList.
+	 *
+	 * @return a list containing the given elements
+	 */
+	public static <E> ImmutableList<E> of(E e1, E e2, E e3, E e4) {
+		return new List4<E>(false, e1, e2, e3, e4);
+	}
 
-	public ImmutableArrayList<E> create(E[] elems) {
-		return new ImmutableArrayList<E>(elems);
+	/**
+	 * Returns a list containing the given elements: the shared empty list,
+	 * a small list holding them in fields, or an ImmutableArrayList backed
+	 * by the given array.
+	 *
+	 * @param elems the elements of the list
+	 * @return a list containing the given elements
+	 * @throws NullPointerException if elems is null
+	 */
+	@SuppressWarnings("unchecked")
+	public static <E> ImmutableList<E> of(E... elems) {
+		return SmallImmutableList.of(false, elems);
 	}
 
-	public <F> ImmutableArrayList<F> create(Collection<F> elems) {
-		return new ImmutableArrayList<F>(elems);
+	/**
+	 * Returns an array list containing the given elements, in order.
+	 *
+	 * @param elems the elements of the list
+	 * @return elems itself if it is already an ImmutableArrayList, a new
+	 * list copied from it in a single pass otherwise
+	 * @throws NullPointerException if elems is null
+	 */
+	@SuppressWarnings("unchecked")
+	public static <E> ImmutableArrayList<E> copyOf(Iterable<? extends E> elems) {
+		if (elems instanceof ImmutableArrayList)
+			return (ImmutableArrayList<E>) elems;
+
+		E[] array = ImmutableCoreList.arrayOf(elems);
+		if (array.length == 0)
+			return empty();
+		return new ImmutableArrayList<E>(array);
+	}
+
+	public ImmutableList<E> create(E[] elems) {
+		return of(elems);
+	}
+
+	@SuppressWarnings("unchecked")
+	public <F> ImmutableList<F> create(Collection<F> elems) {
+		return of((F[]) elems.toArray());
 	}
 
 
 
 
 	@Override
-	public ImmutableArrayList<E> subList(int fromIndex, int toIndex)
+	public ImmutableList<E> subList(int fromIndex, int toIndex)
 			throws IndexOutOfBoundsException, IllegalArgumentException {
 		if (fromIndex < 0 || toIndex > size())
 			throw new IndexOutOfBoundsException();
 		if (fromIndex > toIndex)
 			throw new IllegalArgumentException();
 		if (fromIndex == toIndex)
-			return new ImmutableArrayList<E>();
+			return empty();
 
+		long start = Counters.start();
+		Object event = Events.begin();
 		int j = 0;
 		@SuppressWarnings("unchecked")
 		E[] res = (E[]) new Object[toIndex - fromIndex];
@@ -75,16 +178,52 @@ public class ImmutableArrayList<E> extends ImmutableBaseIterativeList<E> impleme
 			res[j] = get(i);
 			++j;
 		}
-		return new ImmutableArrayList<E>(res);
+		Counters.copied(res.length);
+		ImmutableList<E> result = of(res);
+		Counters.operation(this, "subList", res.length, start);
+		Events.end(event, this, "subList", size(), res.length);
+		return result;
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public <F> ImmutableList<F> map(Function<? super E, ? extends F> mapper) {
+		final E[] array = _array;
+		F[] elems = (F[]) new Object[_length];
+		for (int i = 0 ; i < _length ; ++i)
+			elems[i] = mapper.apply(array[i]);
+		Counters.traversed(_length);
+		Counters.copied(_length);
+		return of(elems);
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public ImmutableList<E> filter(Predicate<? super E> predicate) {
+		final E[] array = _array;
+		E[] elems = (E[]) new Object[_length];
+		int size = 0;
+		for (int i = 0 ; i < _length ; ++i)
+			if (predicate.test(array[i]))
+				elems[size++] = array[i];
+		Counters.traversed(_length);
+		Counters.copied(size);
+
+		if (size == _length)
+			return this;
+		Counters.copied(size);
+		return of(Arrays.copyOf(elems, size));
 	}
 
 	@Override
 	public ImmutableArrayList<E> reverse() {
+		if (isEmpty())
+			return this;
 		return new ImmutableReversedArrayList<E>(this);
 	}
 
 	@SuppressWarnings("unchecked")
-	public ImmutableArrayList<E> remove(int index) {
+	public ImmutableList<E> remove(int index) {
 		E[] newElems;
 		int i;
 		boolean remove;
@@ -92,6 +231,8 @@ public class ImmutableArrayList<E> extends ImmutableBaseIterativeList<E> impleme
 		if (index >= size() || index < 0)
 			throw new ArrayIndexOutOfBoundsException();
 
+		long start = Counters.start();
+		Object event = Events.begin();
 		newElems = (E[]) new Object[size() -1];
 		i = 0;
 		remove = false;
@@ -103,11 +244,17 @@ public class ImmutableArrayList<E> extends ImmutableBaseIterativeList<E> impleme
 				++i;
 			}
 		}
-		return new ImmutableArrayList<E>(newElems);
+		Counters.copied(newElems.length);
+		ImmutableList<E> result = of(newElems);
+		Counters.operation(this, "remove", newElems.length, start);
+		Events.end(event, this, "remove", size(), newElems.length);
+		return result;
 	}
 
 	
-	public ImmutableArrayList<E> cons(E elem) {
+	public ImmutableList<E> cons(E elem) {
+		long start = Counters.start();
+		Object event = Events.begin();
 		@SuppressWarnings("unchecked")
 		E[] elems = (E[]) new Object[size()+1];
 		elems[0] = elem;
@@ -117,8 +264,12 @@ public class ImmutableArrayList<E> extends ImmutableBaseIterativeList<E> impleme
 			elems[i] = e;
 			++i;
 		}
+		Counters.copied(elems.length);
 
-		return new ImmutableArrayList<E>(elems);
+		ImmutableList<E> result = of(elems);
+		Counters.operation(this, "cons", elems.length, start);
+		Events.end(event, this, "cons", size(), elems.length);
+		return result;
 	}
 
 
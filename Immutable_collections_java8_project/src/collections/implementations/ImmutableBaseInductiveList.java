@@ -4,6 +4,10 @@ import java.util.Collection;
 import java.util.Iterator;
 import java.util.NoSuchElementException;
 
+import collections.instrumentation.Counters;
+import collections.instrumentation.MemoryLayout;
+import collections.instrumentation.MemoryStats;
+import collections.instrumentation.MemoryStats.Representation;
 import collections.interfaces.ImmutableCoreList;
 import collections.interfaces.InductiveList;
 
@@ -18,6 +22,7 @@ class Node<E> {
 	private final Node<E> next;
 
 	public Node(E element, Node<E> next) {
+		Counters.copied(1);
 		this.element=element;
 		this.next=next;
 	}
@@ -40,6 +45,7 @@ class Node<E> {
 	 * @returns the next list node, null if this is last
 	 */
 	public Node<E> getNext() {
+		Counters.traversed(1);
 		return next;
 	}
 
@@ -151,11 +157,50 @@ public abstract class ImmutableBaseInductiveList <E> implements InductiveList<E>
 
 	@Override
 	public InductiveList<E> clone() { 
-		return (InductiveList<E>) ImmutableCoreList.clone(this); 
+		return this; 
+	}
+
+	/**
+	 * Returns the memory of this list, which retains its nodes and the
+	 * ones after its last node. The nodes of a prefix of a longer chain
+	 * are all shared with the lists of the chain; otherwise, only interned
+	 * nodes are known to be shared.
+	 */
+	@Override
+	public MemoryStats explain() {
+		long shallow  = MemoryLayout.shallowSize(getClass());
+		long retained = shallow;
+		int interned  = 0;
+		int index     = 0;
+		for (Node<E> node = head ; node != null ; node = node.getNext(), ++index) {
+			retained += MemoryLayout.shallowSize(node.getClass());
+			if (index < size && node instanceof InternedNode)
+				++interned;
+		}
+		int shared = last != null && last.hasNext() ? size : interned;
+		return new MemoryStats(Representation.NODES, shallow, retained, shared, 0);
+	}
+
+	/**
+	 * Returns whether this list is a whole chain of interned nodes, in which
+	 * case it is equal to another such list if and only if both start with
+	 * the same node.
+	 *
+	 * @returns true if this list is made of interned nodes only
+	 */
+	protected boolean isInterned() {
+		return head instanceof InternedNode && !last.hasNext();
 	}
 
 	@Override
 	public boolean equals(Object o) {
+		if (o instanceof ImmutableBaseInductiveList) {
+			ImmutableBaseInductiveList<?> other = (ImmutableBaseInductiveList<?>) o;
+			if (head == other.head && size == other.size)
+				return true;
+			if (isInterned() && other.isInterned())
+				return false;
+		}
 		return ImmutableCoreList.equals(this, o);
 	}
 
@@ -193,7 +238,7 @@ public abstract class ImmutableBaseInductiveList <E> implements InductiveList<E>
 				if (fromIndex > toIndex)
 				throw new IllegalArgumentException();
 				if (fromIndex == toIndex)
-				return new ImmutableLinkedList<E>();
+				return ImmutableLinkedList.empty();
 
 				int i = 0;
 				Node<E> node = headNode();
@@ -203,14 +248,8 @@ public abstract class ImmutableBaseInductiveList <E> implements InductiveList<E>
 				}
 				Node<E> subListHead = node;
 
-				while (i != toIndex-1) {
-				node = node.getNext();
-				++i;
-				}
-				Node<E> subListLast = node;
-
 				return create(subListHead,
-				subListLast,
+				lastNode(),
 				toIndex - fromIndex);
 		}
 	}
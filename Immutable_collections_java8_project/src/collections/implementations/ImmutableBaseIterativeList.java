@@ -1,16 +1,31 @@
 package collections.implementations;
 
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Iterator;
 import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.RandomAccess;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.BinaryOperator;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
 
+import collections.instrumentation.Counters;
+import collections.instrumentation.MemoryLayout;
+import collections.instrumentation.MemoryStats;
+import collections.instrumentation.MemoryStats.Representation;
 import collections.interfaces.ImmutableCoreList;
 import collections.interfaces.IterativeList;
 
 
-public  abstract class ImmutableBaseIterativeList<E> implements IterativeList<E> 
+public  abstract class ImmutableBaseIterativeList<E> implements IterativeList<E>, RandomAccess
 {
 
+	/** The backing array shared by all empty lists */
+	private static final Object[] EMPTY_ARRAY = {};
+
 	protected final E[] _array;
 	protected final int _length;
 	
@@ -22,7 +37,7 @@ public  abstract class ImmutableBaseIterativeList<E> implements IterativeList<E>
 	@SuppressWarnings("unchecked")
 	public ImmutableBaseIterativeList()
 	{
-		_array = (E[]) new Object[0];
+		_array = (E[]) EMPTY_ARRAY;
 		_length = 0;
 	}
 	
@@ -37,7 +52,7 @@ public  abstract class ImmutableBaseIterativeList<E> implements IterativeList<E>
 		if (elems == null)
 			throw new NullPointerException();
 		else if (elems.length == 0) {
-			this._array  = (E[]) new Object[0];
+			this._array  = (E[]) EMPTY_ARRAY;
 			this._length = 0;
 		}
 		else
@@ -66,6 +81,7 @@ public  abstract class ImmutableBaseIterativeList<E> implements IterativeList<E>
 		{
 			_array =  (E[])elems.toArray();
 			_length = _array.length;
+			Counters.copied(_length);
 		}
 	}
 	
@@ -97,7 +113,7 @@ public  abstract class ImmutableBaseIterativeList<E> implements IterativeList<E>
 
 	@Override
 	public ImmutableCoreList<E> clone() { 
-		return ImmutableCoreList.clone(this); 
+		return this; 
 	}
 	
 	@Override
@@ -110,6 +126,103 @@ public  abstract class ImmutableBaseIterativeList<E> implements IterativeList<E>
 		return new ImmutableArrayListIterator();
 	}
 
+	@Override
+	public MemoryStats explain() {
+		long shallow = MemoryLayout.shallowSize(getClass());
+		return new MemoryStats(Representation.ARRAY, shallow, shallow + MemoryLayout.referenceArraySize(_array.length), 0, 0);
+	}
+
+	// Internal iteration: tight loops over the backing array
+
+	@Override
+	public boolean any(Predicate<? super E> predicate) {
+		final E[] array = _array;
+		for (int i = 0 ; i < _length ; ++i)
+			if (predicate.test(array[i])) {
+				Counters.traversed(i + 1);
+				return true;
+			}
+		Counters.traversed(_length);
+		return false;
+	}
+
+	@Override
+	public boolean all(Predicate<? super E> predicate) {
+		final E[] array = _array;
+		for (int i = 0 ; i < _length ; ++i)
+			if (!predicate.test(array[i])) {
+				Counters.traversed(i + 1);
+				return false;
+			}
+		Counters.traversed(_length);
+		return true;
+	}
+
+	@Override
+	public int indexOf(E elem) {
+		final E[] array = _array;
+		for (int i = 0 ; i < _length ; ++i)
+			if (ImmutableCoreList.equals(elem, array[i])) {
+				Counters.traversed(i + 1);
+				return i;
+			}
+		Counters.traversed(_length);
+		return -1;
+	}
+
+	@Override
+	public boolean contains(E elem) {
+		return indexOf(elem) >= 0;
+	}
+
+	@Override
+	public Optional<E> reduce(BinaryOperator<E> accumulator) {
+		if (_length == 0)
+			return Optional.empty();
+
+		final E[] array = _array;
+		E result = array[0];
+		for (int i = 1 ; i < _length ; ++i)
+			result = accumulator.apply(result, array[i]);
+		Counters.traversed(_length);
+		return Optional.of(result);
+	}
+
+	@Override
+	public void forEach(Consumer<? super E> action) {
+		final E[] array = _array;
+		for (int i = 0 ; i < _length ; ++i)
+			action.accept(array[i]);
+		Counters.traversed(_length);
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public E[] toArray() {
+		Counters.copied(_length);
+		return (E[]) Arrays.copyOf(_array, _length, Object[].class);
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public E[] toArray(E[] a) {
+		Counters.copied(_length);
+		if (a.length < _length)
+			return (E[]) Arrays.copyOf(_array, _length, a.getClass());
+
+		System.arraycopy(_array, 0, a, 0, _length);
+		if (a.length > _length)
+			a[_length] = null;
+		return a;
+	}
+
+	@Override
+	public Spliterator<E> spliterator() {
+		return Spliterators.spliterator(_array, 0, _length,
+				Spliterator.IMMUTABLE |
+				Spliterator.ORDERED);
+	}
+
 	@Override
 	public int size() {
 		return _length;
@@ -139,6 +252,7 @@ public  abstract class ImmutableBaseIterativeList<E> implements IterativeList<E>
 
 			E elem = _array[index];
 			++index;
+			Counters.traversed(1);
 			return elem;
 		}
 
@@ -0,0 +1,171 @@
+package collections.implementations;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collector;
+
+import collections.instrumentation.Counters;
+
+/**
+ * Collectors building immutable lists from streams, without collecting
+ * them into a List first.
+ *
+ * The elements are buffered in chunks, which the combiners of parallel
+ * streams link together instead of copying them. The finisher then copies
+ * every element once, into the array or the nodes of the list.
+ */
+public final class ImmutableCollectors {
+
+	private ImmutableCollectors() {
+	}
+
+	/**
+	 * Returns a collector building an ImmutableArrayList of the elements of
+	 * a stream, in encounter order.
+	 *
+	 * @return the collector
+	 */
+	public static <E> Collector<E, ?, ImmutableArrayList<E>> toImmutableArrayList() {
+		return Collector.of(Chunks<E>::new, Chunks::add, Chunks::append, Chunks::toArrayList);
+	}
+
+	/**
+	 * Returns a collector building an ImmutableArrayList of the elements of
+	 * a stream expected to hold the given number of them. The first buffer
+	 * the collector creates has room for all of them: a sequential stream of
+	 * the expected size is collected without any copy. The other buffers,
+	 * which parallel streams create, grow from a small size.
+	 *
+	 * @param expectedSize the expected number of elements
+	 * @return the collector
+	 * @throws IllegalArgumentException if expectedSize is negative
+	 */
+	public static <E> Collector<E, ?, ImmutableArrayList<E>> toImmutableArrayList(int expectedSize) {
+		if (expectedSize < 0)
+			throw new IllegalArgumentException("Negative expected size: " + expectedSize);
+		AtomicBoolean presized = new AtomicBoolean();
+		return Collector.of(() -> presized.compareAndSet(false, true) ? new Chunks<E>(expectedSize) : new Chunks<E>(),
+				    Chunks::add, Chunks::append,
+				    chunks -> {
+					    // Let the next stream use the large buffer
+					    presized.set(false);
+					    return chunks.toArrayList();
+				    });
+	}
+
+	/**
+	 * Returns a collector building an ImmutableLinkedList of the elements of
+	 * a stream, in encounter order.
+	 *
+	 * @return the collector
+	 */
+	public static <E> Collector<E, ?, ImmutableLinkedList<E>> toImmutableLinkedList() {
+		return Collector.of(Chunks<E>::new, Chunks::add, Chunks::append, Chunks::toLinkedList);
+	}
+}
+
+/**
+ * A buffer of elements in chunks, which double in size up to a bound. Two
+ * buffers are appended by linking their chunks: no element is copied.
+ */
+final class Chunks<E> {
+
+	private static final int FIRST_CHUNK = 16;
+	private static final int LARGEST_CHUNK = 1 << 14;
+
+	/** The chunks, and the number of elements in each */
+	private Object[][] chunks;
+	private int[] lengths;
+	private int count;
+	private int size;
+
+	Chunks() {
+		this(FIRST_CHUNK);
+	}
+
+	Chunks(int capacity) {
+		chunks  = new Object[][] {new Object[Math.max(capacity, 1)]};
+		lengths = new int[1];
+		count   = 1;
+	}
+
+	void add(E elem) {
+		int last = count - 1;
+		if (lengths[last] == chunks[last].length) {
+			if (size == Integer.MAX_VALUE)
+				throw new OutOfMemoryError("Too many elements for a list");
+			link(new Object[Math.min(Math.max(chunks[last].length * 2, FIRST_CHUNK), LARGEST_CHUNK)], 0);
+			++last;
+		}
+		chunks[last][lengths[last]++] = elem;
+		++size;
+	}
+
+	private void link(Object[] chunk, int length) {
+		if (count == chunks.length) {
+			chunks  = Arrays.copyOf(chunks, count * 2);
+			lengths = Arrays.copyOf(lengths, count * 2);
+		}
+		chunks[count]  = chunk;
+		lengths[count] = length;
+		++count;
+	}
+
+	/**
+	 * Appends the elements of another buffer to the ones of this one.
+	 *
+	 * @return this buffer, or the other one if this one is empty
+	 */
+	Chunks<E> append(Chunks<E> other) {
+		if (size == 0)
+			return other;
+		if (other.size == 0)
+			return this;
+		if ((long) size + other.size > Integer.MAX_VALUE)
+			throw new OutOfMemoryError("Too many elements for a list");
+
+		for (int i = 0 ; i < other.count ; ++i)
+			if (other.lengths[i] > 0)
+				link(other.chunks[i], other.lengths[i]);
+		size += other.size;
+		return this;
+	}
+
+	@SuppressWarnings("unchecked")
+	ImmutableArrayList<E> toArrayList() {
+		if (size == 0)
+			return ImmutableArrayList.empty();
+
+		Object[] array;
+		if (count == 1 && lengths[0] == chunks[0].length)
+			// Full, the only chunk is the array
+			array = chunks[0];
+		else {
+			array = new Object[size];
+			int copied = 0;
+			for (int i = 0 ; i < count ; ++i) {
+				System.arraycopy(chunks[i], 0, array, copied, lengths[i]);
+				copied += lengths[i];
+			}
+			Counters.copied(size);
+		}
+		return new ImmutableArrayList<E>((E[]) array);
+	}
+
+	@SuppressWarnings("unchecked")
+	ImmutableLinkedList<E> toLinkedList() {
+		if (size == 0)
+			return ImmutableLinkedList.empty();
+
+		// From the end, each node is built onto the next one
+		Node<E> head = null;
+		Node<E> last = null;
+		for (int i = count - 1 ; i >= 0 ; --i)
+			for (int j = lengths[i] - 1 ; j >= 0 ; --j) {
+				head = new Node<E>((E) chunks[i][j], head);
+				if (last == null)
+					last = head;
+			}
+		return ImmutableLinkedList.<E>empty().create(head, last, size);
+	}
+}
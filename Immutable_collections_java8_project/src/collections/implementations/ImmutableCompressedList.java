@@ -0,0 +1,475 @@
+package collections.implementations;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.RandomAccess;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+import collections.instrumentation.MemoryLayout;
+import collections.instrumentation.MemoryStats;
+import collections.instrumentation.MemoryStats.Representation;
+import collections.interfaces.ImmutableCoreList;
+import collections.interfaces.IterativeList;
+
+/**
+ * An immutable list of repetitive elements, such as enum-like strings or
+ * status codes, stored in less memory than a reference per element. The
+ * list is encoded one of two ways:
+ *
+ * DICTIONARY: the distinct elements in an array, and the index of each
+ * element in this array, its code, packed on as few bits as the number of
+ * distinct elements needs. get is O(1).
+ *
+ * RUN_LENGTH: each run of equal consecutive elements once, with the index
+ * where the run ends. get is a binary search of the runs, O(log runs).
+ *
+ * copyOf estimates the memory each encoding would take from a sample of
+ * the elements, and picks the smaller one.
+ *
+ * indexOf, contains and filter work on the codes or on the runs: they
+ * compare or test each distinct element, or each run, once. The predicate
+ * of filter must thus only depend on the element it tests.
+ *
+ * Elements are compared with equals, and may be null.
+ */
+public abstract class ImmutableCompressedList<E> implements IterativeList<E> {
+
+	/** How a compressed list stores its elements */
+	public enum Encoding {
+		/** Bit-packed codes of the elements in an array of the distinct ones */
+		DICTIONARY,
+		/** The element and the end of each run of equal elements */
+		RUN_LENGTH
+	}
+
+	/** Number of elements sampled to pick the encoding */
+	private static final int SAMPLE = 1024;
+
+	ImmutableCompressedList() {
+	}
+
+	/**
+	 * Returns a compressed list of the given elements, in the encoding
+	 * estimated to take the least memory.
+	 *
+	 * @param elems the elements of the list
+	 * @return the compressed list of the elements
+	 * @throws NullPointerException if elems is null
+	 */
+	public static <E> ImmutableCompressedList<E> copyOf(Iterable<? extends E> elems) {
+		Object[] array = ImmutableCoreList.arrayOf(elems);
+		return encode(array, choose(array));
+	}
+
+	/**
+	 * Returns a compressed list of the given elements, in the given
+	 * encoding.
+	 *
+	 * @param elems the elements of the list
+	 * @param encoding the encoding of the list
+	 * @return the compressed list of the elements
+	 * @throws NullPointerException if elems or encoding is null
+	 */
+	public static <E> ImmutableCompressedList<E> copyOf(Iterable<? extends E> elems, Encoding encoding) {
+		Objects.requireNonNull(encoding);
+		return encode(ImmutableCoreList.arrayOf(elems), encoding);
+	}
+
+	private static <E> ImmutableCompressedList<E> encode(Object[] elems, Encoding encoding) {
+		return encoding == Encoding.DICTIONARY ? DictionaryList.<E>encode(elems) : RunLengthList.<E>encode(elems);
+	}
+
+	/**
+	 * Picks the encoding of some elements, from the distinct elements and
+	 * the ends of runs found at positions spread over all of them.
+	 */
+	static Encoding choose(Object[] elems) {
+		int size = elems.length;
+		if (size < 2)
+			return Encoding.DICTIONARY;
+
+		int samples = Math.min(SAMPLE, size - 1);
+		Set<Object> distinct = new HashSet<Object>();
+		int ends = 0;
+		for (int s = 0 ; s < samples ; ++s) {
+			int i = (int) ((long) s * (size - 1) / samples);
+			distinct.add(elems[i]);
+			if (!Objects.equals(elems[i], elems[i + 1]))
+				++ends;
+		}
+
+		// A sample with few distinct elements likely holds all of them;
+		// one with many holds a part of them, in proportion
+		long values = distinct.size() <= samples / 2 ? distinct.size() : (long) distinct.size() * size / samples;
+		long runs   = 1 + (long) ends * (size - 1) / samples;
+		return RunLengthList.bytes((int) Math.min(runs, size)) < DictionaryList.bytes(size, (int) Math.min(values, size))
+			? Encoding.RUN_LENGTH : Encoding.DICTIONARY;
+	}
+
+	/**
+	 * Returns how this list stores its elements.
+	 *
+	 * @return the encoding of this list
+	 */
+	public abstract Encoding encoding();
+
+	@Override
+	public abstract ImmutableCompressedList<E> filter(Predicate<? super E> predicate);
+
+	@Override
+	public boolean contains(E elem) {
+		return indexOf(elem) >= 0;
+	}
+
+	@Override
+	public ImmutableCompressedList<E> create(E[] elems) {
+		return copyOf(Arrays.asList(elems));
+	}
+
+	@Override
+	public <F> ImmutableCompressedList<F> create(Collection<F> elems) {
+		return copyOf(elems);
+	}
+
+	@Override
+	public ImmutableCompressedList<E> clone() {
+		return this;
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		return IterativeList.equals(this, o);
+	}
+
+	@Override
+	public int hashCode() {
+		return ImmutableCoreList.hashCode(this);
+	}
+
+	@Override
+	public String toString() {
+		return asList().toString();
+	}
+}
+
+/** A compressed list of the codes of its elements in a dictionary */
+final class DictionaryList<E> extends ImmutableCompressedList<E> implements RandomAccess {
+
+	/** The distinct elements, each of them in the list */
+	private final Object[] values;
+
+	/** The codes of the elements, bits bits each, the first ones in the lowest bits */
+	private final long[] codes;
+	private final int bits;
+	private final int size;
+
+	private DictionaryList(Object[] values, long[] codes, int bits, int size) {
+		this.values = values;
+		this.codes  = codes;
+		this.bits   = bits;
+		this.size   = size;
+	}
+
+	static <E> DictionaryList<E> encode(Object[] elems) {
+		Map<Object, Integer> dictionary = new HashMap<Object, Integer>();
+		List<Object> values = new ArrayList<Object>();
+		int[] indices = new int[elems.length];
+		for (int i = 0 ; i < elems.length ; ++i) {
+			Integer code = dictionary.get(elems[i]);
+			if (code == null) {
+				code = values.size();
+				dictionary.put(elems[i], code);
+				values.add(elems[i]);
+			}
+			indices[i] = code;
+		}
+		return pack(values.toArray(), indices, elems.length);
+	}
+
+	/** Packs the codes of the elements, in an array of the given values */
+	private static <E> DictionaryList<E> pack(Object[] values, int[] indices, int count) {
+		int bits = bits(values.length);
+		long[] codes = new long[words(count, bits)];
+		for (int i = 0 ; i < count ; ++i)
+			write(codes, bits, i, indices[i]);
+		return new DictionaryList<E>(values, codes, bits, count);
+	}
+
+	private static void write(long[] codes, int bits, int index, int code) {
+		long bit  = (long) index * bits;
+		int word  = (int) (bit >>> 6);
+		int shift = (int) bit & 63;
+		codes[word] |= (long) code << shift;
+		if (shift + bits > 64)
+			codes[word + 1] |= (long) code >>> (64 - shift);
+	}
+
+	/** The bits of the codes of the given number of values */
+	private static int bits(int values) {
+		return Math.max(1, 32 - Integer.numberOfLeadingZeros(values - 1));
+	}
+
+	private static int words(int size, int bits) {
+		return (int) (((long) size * bits + 63) >>> 6);
+	}
+
+	/** The bytes of the arrays of a list of the given size and number of values */
+	static long bytes(int size, int values) {
+		return MemoryLayout.longArraySize(words(size, bits(values))) + MemoryLayout.referenceArraySize(values);
+	}
+
+	private int code(int index) {
+		long bit  = (long) index * bits;
+		int word  = (int) (bit >>> 6);
+		int shift = (int) bit & 63;
+		long code = codes[word] >>> shift;
+		if (shift + bits > 64)
+			code |= codes[word + 1] << (64 - shift);
+		return (int) (code & ((1L << bits) - 1));
+	}
+
+	/** The code of an element, -1 if it is not in the list */
+	private int codeOf(E elem) {
+		for (int i = 0 ; i < values.length ; ++i)
+			if (Objects.equals(values[i], elem))
+				return i;
+		return -1;
+	}
+
+	@Override
+	public Encoding encoding() {
+		return Encoding.DICTIONARY;
+	}
+
+	@Override
+	public int size() {
+		return size;
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public E get(int index) throws IndexOutOfBoundsException {
+		if (index < 0 || index >= size)
+			throw new IndexOutOfBoundsException();
+		return (E) values[code(index)];
+	}
+
+	/**
+	 * Returns the index of the first occurrence of an element: finds its
+	 * code in the dictionary, then the first element with this code.
+	 */
+	@Override
+	public int indexOf(E elem) {
+		int code = codeOf(elem);
+		if (code >= 0)
+			for (int i = 0 ; i < size ; ++i)
+				if (code(i) == code)
+					return i;
+		return -1;
+	}
+
+	/** Every element of the dictionary is in the list */
+	@Override
+	public boolean contains(E elem) {
+		return codeOf(elem) >= 0;
+	}
+
+	/**
+	 * Returns the list of the elements which match the predicate, which is
+	 * tested once per distinct element. The kept elements get new codes,
+	 * on fewer bits if there are fewer of them.
+	 */
+	@Override
+	public DictionaryList<E> filter(Predicate<? super E> predicate) {
+		int[] recoded = new int[values.length];
+		Object[] kept = new Object[values.length];
+		int count = 0;
+		for (int i = 0 ; i < values.length ; ++i) {
+			@SuppressWarnings("unchecked")
+			E value = (E) values[i];
+			recoded[i] = predicate.test(value) ? count : -1;
+			if (recoded[i] >= 0)
+				kept[count++] = value;
+		}
+		if (count == values.length)
+			return this;
+
+		int keptBits = bits(count);
+		int length = 0;
+		if (count == 1) {
+			// The codes of a single value are all 0: only count its elements
+			for (int i = 0 ; i < size ; ++i)
+				if (recoded[code(i)] >= 0)
+					++length;
+			return new DictionaryList<E>(Arrays.copyOf(kept, 1), new long[words(length, keptBits)], keptBits, length);
+		}
+
+		// Packed as they are read, in an array trimmed at the end
+		long[] keptCodes = new long[count == 0 ? 0 : words(size, keptBits)];
+		if (count > 0)
+			for (int i = 0 ; i < size ; ++i) {
+				int code = recoded[code(i)];
+				if (code >= 0)
+					write(keptCodes, keptBits, length++, code);
+			}
+		int words = words(length, keptBits);
+		return new DictionaryList<E>(Arrays.copyOf(kept, count),
+					     words == keptCodes.length ? keptCodes : Arrays.copyOf(keptCodes, words), keptBits, length);
+	}
+
+	@Override
+	public Iterator<E> iterator() {
+		return new IndexIterator<E>(this);
+	}
+
+	@Override
+	public MemoryStats explain() {
+		long shallow = MemoryLayout.shallowSize(getClass());
+		return new MemoryStats(Representation.ARRAY, shallow,
+				       shallow + MemoryLayout.longArraySize(codes.length) + MemoryLayout.referenceArraySize(values.length), 0, 0);
+	}
+}
+
+/** A compressed list of the runs of equal consecutive elements */
+final class RunLengthList<E> extends ImmutableCompressedList<E> {
+
+	/** The element of each run, and the index after its last element */
+	private final Object[] values;
+	private final int[] ends;
+
+	private RunLengthList(Object[] values, int[] ends) {
+		this.values = values;
+		this.ends   = ends;
+	}
+
+	static <E> RunLengthList<E> encode(Object[] elems) {
+		int runs = elems.length == 0 ? 0 : 1;
+		for (int i = 1 ; i < elems.length ; ++i)
+			if (!Objects.equals(elems[i - 1], elems[i]))
+				++runs;
+
+		Object[] values = new Object[runs];
+		int[] ends = new int[runs];
+		int run = -1;
+		for (int i = 0 ; i < elems.length ; ++i) {
+			if (i == 0 || !Objects.equals(elems[i - 1], elems[i]))
+				values[++run] = elems[i];
+			ends[run] = i + 1;
+		}
+		return new RunLengthList<E>(values, ends);
+	}
+
+	/** The bytes of the arrays of a list of the given number of runs */
+	static long bytes(int runs) {
+		return MemoryLayout.referenceArraySize(runs) + MemoryLayout.intArraySize(runs);
+	}
+
+	/** The run of the element at a valid index */
+	private int run(int index) {
+		// The ends are increasing: the run is the first one ending after index
+		int run = Arrays.binarySearch(ends, index);
+		return run >= 0 ? run + 1 : -run - 1;
+	}
+
+	@Override
+	public Encoding encoding() {
+		return Encoding.RUN_LENGTH;
+	}
+
+	@Override
+	public int size() {
+		return ends.length == 0 ? 0 : ends[ends.length - 1];
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public E get(int index) throws IndexOutOfBoundsException {
+		if (index < 0 || index >= size())
+			throw new IndexOutOfBoundsException();
+		return (E) values[run(index)];
+	}
+
+	/** Returns the start of the first run of an element */
+	@Override
+	public int indexOf(E elem) {
+		for (int i = 0 ; i < values.length ; ++i)
+			if (Objects.equals(values[i], elem))
+				return i == 0 ? 0 : ends[i - 1];
+		return -1;
+	}
+
+	/**
+	 * Returns the list of the elements which match the predicate, which is
+	 * tested once per run. Kept runs which become consecutive are merged
+	 * when they hold the same element.
+	 */
+	@Override
+	public RunLengthList<E> filter(Predicate<? super E> predicate) {
+		Object[] kept = new Object[values.length];
+		int[] keptEnds = new int[values.length];
+		int count = 0;
+		int size = 0;
+		for (int i = 0 ; i < values.length ; ++i) {
+			@SuppressWarnings("unchecked")
+			E value = (E) values[i];
+			if (!predicate.test(value))
+				continue;
+			size += ends[i] - (i == 0 ? 0 : ends[i - 1]);
+			if (count == 0 || !Objects.equals(kept[count - 1], value))
+				kept[count++] = value;
+			keptEnds[count - 1] = size;
+		}
+		if (count == values.length)
+			return this;
+		return new RunLengthList<E>(Arrays.copyOf(kept, count), Arrays.copyOf(keptEnds, count));
+	}
+
+	@Override
+	public Iterator<E> iterator() {
+		return new Iterator<E>() {
+
+			private int index;
+			private int run;
+
+			@Override
+			public boolean hasNext() {
+				return run < ends.length;
+			}
+
+			@Override
+			@SuppressWarnings("unchecked")
+			public E next() {
+				if (run >= ends.length)
+					throw new NoSuchElementException();
+				E elem = (E) values[run];
+				if (++index == ends[run])
+					++run;
+				return elem;
+			}
+		};
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public void forEach(Consumer<? super E> action) {
+		for (int run = 0, index = 0 ; run < ends.length ; ++run)
+			for ( ; index < ends[run] ; ++index)
+				action.accept((E) values[run]);
+	}
+
+	@Override
+	public MemoryStats explain() {
+		long shallow = MemoryLayout.shallowSize(getClass());
+		return new MemoryStats(Representation.ARRAY, shallow, shallow + bytes(ends.length), 0, 0);
+	}
+}
@@ -2,10 +2,24 @@ package collections.implementations;
 
 import java.util.Collection;
 
+import collections.instrumentation.Counters;
+import collections.instrumentation.Events;
+import collections.interfaces.ImmutableCoreList;
 import collections.interfaces.ImmutableList;
 
+/**
+ * An immutable list made of a chain of nodes.
+ *
+ * The operations copying elements into a list of another size (create,
+ * concat, remove, subList, map and filter) build it through of(): the
+ * shared empty list, a small list of up to four elements held in fields,
+ * or an ImmutableLinkedList. cons and tail share the nodes of this list
+ * instead, and keep returning an ImmutableLinkedList.
+ */
 public class ImmutableLinkedList<E>  extends ImmutableBaseInductiveList<E> implements ImmutableList<E>{
 
+	/** The empty list shared by all element types */
+	private static final ImmutableLinkedList<Object> EMPTY = new ImmutableLinkedList<Object>();
 
 
 	// Constructors
@@ -51,15 +65,157 @@ public class ImmutableLinkedList<E>  extends ImmutableBaseInductiveList<E> imple
 	}
 
 
+	/**
+	 * Create a linked list containing the given elements in order, whose
+	 * nodes are shared with every other interned list ending with the same
+	 * elements. Two interned lists are compared by pointer.
+	 *
+	 * @param elems the elements to populate the list from
+	 * @return the interned list
+	 * @throws NullPointerException if elems is null
+	 */
+	@SuppressWarnings({"unchecked"})
+	public static <E> ImmutableLinkedList<E> interned(E... elems) {
+		if (elems.length == 0)
+			return empty();
+
+		Node<E> last = NodeInterner.intern(elems[elems.length - 1], null);
+		Node<E> head = last;
+		for (int i = elems.length - 2 ; i >= 0 ; --i)
+			head = NodeInterner.intern(elems[i], head);
+		return new ImmutableLinkedList<E>(head, last, elems.length);
+	}
+
+	/**
+	 * Create a linked list containing the given elements in order, whose
+	 * nodes are shared with every other interned list ending with the same
+	 * elements.
+	 *
+	 * @param elems collection of elements to populate the list from
+	 * @return the interned list
+	 * @throws NullPointerException if elems is null
+	 */
+	@SuppressWarnings("unchecked")
+	public static <E> ImmutableLinkedList<E> interned(Collection<E> elems) {
+		return interned((E[])elems.toArray());
+	}
+
+	/**
+	 * Returns the interned list equal to this list.
+	 *
+	 * @return this list if it is already interned, an interned copy otherwise
+	 */
+	public ImmutableLinkedList<E> intern() {
+		if (isEmpty() || isInterned())
+			return this;
+		return interned(toArray());
+	}
+
+	/**
+	 * Returns the empty linked list.
+	 *
+	 * @return the empty linked list, shared by all element types
+	 */
+	@SuppressWarnings("unchecked")
+	public static <E> ImmutableLinkedList<E> empty() {
+		return (ImmutableLinkedList<E>) EMPTY;
+	}
+
+	/**
+	 * Returns a list containing one element, which grows into an
+	 * ImmutableLinkedList.
+	 *
+	 * @param e1 the element
+	 * @return a list containing the given element
+	 */
+	public static <E> ImmutableList<E> of(E e1) {
+		return new List1<E>(true, e1);
+	}
+
+	/**
+	 * Returns a list containing two elements, which grows into an
+	 * ImmutableLinkedList.
+	 *
+	 * @return a list containing the given elements
+	 */
+	public static <E> ImmutableList<E> of(E e1, E e2) {
+		return new List2<E>(true, e1, e2);
+	}
+
+	/**
+	 * Returns a list containing three elements, which grows into an
+	 * ImmutableLinkedList.
+	 *
+	 * @return a list containing the given elements
+	 */
+	public static <E> ImmutableList<E> of(E e1, E e2, E e3) {
+		return new List3<E>(true, e1, e2, e3);
+	}
+
+	/**
+	 * Returns a list containing four elements, which grows into an
+	 * ImmutableLinkedList.
+	 *
+	 * @return a list containing the given elements
+	 */
+	public static <E> ImmutableList<E> of(E e1, E e2, E e3, E e4) {
+		return new List4<E>(true, e1, e2, e3, e4);
+	}
+
+	/**
+	 * Returns a list containing the given elements: the shared empty list,
+	 * a small list holding them in fields, or an ImmutableLinkedList.
+	 *
+	 * @param elems the elements of the list
+	 * @return a list containing the given elements
+	 * @throws NullPointerException if elems is null
+	 */
+	@SuppressWarnings("unchecked")
+	public static <E> ImmutableList<E> of(E... elems) {
+		return SmallImmutableList.of(true, elems);
+	}
+
+	/**
+	 * Returns a linked list containing the given elements, in order.
+	 *
+	 * @param elems the elements of the list
+	 * @return elems itself if it is already an ImmutableLinkedList, a new
+	 * list copied from it in a single pass otherwise
+	 * @throws NullPointerException if elems is null
+	 */
+	@SuppressWarnings("unchecked")
+	public static <E> ImmutableLinkedList<E> copyOf(Iterable<? extends E> elems) {
+		if (elems instanceof ImmutableLinkedList)
+			return (ImmutableLinkedList<E>) elems;
+
+		if (elems instanceof ImmutableBaseIterativeList) {
+			// Random access: build the nodes from the end, without a buffer
+			ImmutableBaseIterativeList<E> list = (ImmutableBaseIterativeList<E>) elems;
+			if (list.isEmpty())
+				return empty();
+
+			Node<E> last = new Node<E>(list.get(list.size() - 1));
+			Node<E> head = last;
+			for (int i = list.size() - 2 ; i >= 0 ; --i)
+				head = new Node<E>(list.get(i), head);
+			return new ImmutableLinkedList<E>(head, last, list.size());
+		}
+
+		E[] array = ImmutableCoreList.arrayOf(elems);
+		if (array.length == 0)
+			return empty();
+		return new ImmutableLinkedList<E>(array);
+	}
 
 	@Override
-	public ImmutableLinkedList<E> create(E[] elems) {
-		return new ImmutableLinkedList<E>(elems);
+	public ImmutableList<E> create(E[] elems) {
+		return of(elems);
 	}
 
 	@Override
-	public <F> ImmutableLinkedList<F> create(Collection<F> elems) {
-		return new ImmutableLinkedList<F>(elems);
+	@SuppressWarnings("unchecked")
+	public <F> ImmutableList<F> create(Collection<F> elems) {
+		return of((F[]) elems.toArray());
 	}
 
 	@Override
@@ -71,7 +227,6 @@ public class ImmutableLinkedList<E>  extends ImmutableBaseInductiveList<E> imple
 
 	// Operations
 
-
 	public int size() {
 		return size;
 	}
@@ -91,7 +246,13 @@ public class ImmutableLinkedList<E>  extends ImmutableBaseInductiveList<E> imple
 		return null; // Never happens
 	}
 
-	public ImmutableLinkedList<E> subList(int fromIndex, int toIndex) throws
+	/**
+	 * Returns the elements from fromIndex, inclusive, to toIndex, exclusive:
+	 * in a small list if there are at most SmallImmutableList.MAX_SIZE of
+	 * them, in a list sharing the nodes of this one otherwise.
+	 */
+	@SuppressWarnings("unchecked")
+	public ImmutableList<E> subList(int fromIndex, int toIndex) throws
 	IndexOutOfBoundsException,
 	IllegalArgumentException {
 
@@ -99,8 +260,15 @@ public class ImmutableLinkedList<E>  extends ImmutableBaseInductiveList<E> imple
 			throw new IndexOutOfBoundsException();
 		if (fromIndex > toIndex)
 			throw new IllegalArgumentException();
-		if (fromIndex == toIndex)
-			return new ImmutableLinkedList<E>();
+		if (toIndex - fromIndex <= SmallImmutableList.MAX_SIZE) {
+			E[] elems = (E[]) new Object[toIndex - fromIndex];
+			Node<E> node = headNode();
+			for (int i = 0 ; i < toIndex ; ++i, node = node.getNext())
+				if (i >= fromIndex)
+					elems[i - fromIndex] = node.getElement();
+			Counters.copied(elems.length);
+			return of(elems);
+		}
 
 		int i = 0;
 		Node<E> node = headNode();
@@ -123,7 +291,7 @@ public class ImmutableLinkedList<E>  extends ImmutableBaseInductiveList<E> imple
 
 
 	@SuppressWarnings("unchecked")
-	public ImmutableLinkedList<E> remove(int index) {
+	public ImmutableList<E> remove(int index) {
 		E[] newElems;
 		int i;
 		boolean remove;
@@ -131,6 +299,8 @@ public class ImmutableLinkedList<E>  extends ImmutableBaseInductiveList<E> imple
 		if (index >= size() || index < 0)
 			throw new ArrayIndexOutOfBoundsException();
 
+		long start = Counters.start();
+		Object event = Events.begin();
 		newElems = (E[]) new Object[size() -1];
 		i = 0;
 		remove = false;
@@ -142,10 +312,45 @@ public class ImmutableLinkedList<E>  extends ImmutableBaseInductiveList<E> imple
 				++i;
 			}
 		}
-		return new ImmutableLinkedList<E>(newElems);
+		Counters.copied(newElems.length);
+		ImmutableList<E> result = of(newElems);
+		Counters.operation(this, "remove", newElems.length, start);
+		Events.end(event, this, "remove", size(), newElems.length);
+		return result;
 	}
 
 	
+	/**
+	 * Returns a new list with the elements of this list in reverse order,
+	 * built by consing them in a single pass.
+	 *
+	 * @return a new list with the elements of this list in reverse order
+	 */
+	@Override
+	public ImmutableLinkedList<E> reverse() {
+		if (size() < 2)
+			return this;
+
+		long start = Counters.start();
+		Object event = Events.begin();
+		Node<E> node = headNode();
+		Node<E> last = new Node<E>(node.getElement());
+		Node<E> head = last;
+		for (int i = 1 ; i < size() ; ++i) {
+			node = node.getNext();
+			head = new Node<E>(node.getElement(), head);
+		}
+		ImmutableLinkedList<E> result = new ImmutableLinkedList<E>(head, last, size());
+		Counters.operation(this, "reverse", size(), start);
+		Events.end(event, this, "reverse", size(), size());
+		return result;
+	}
+
+	/**
+	 * Returns the list of all the elements but the first one, which shares
+	 * the nodes of this list: InductiveList needs a linked list here, and
+	 * not a small one.
+	 */
 	@Override	
 	public ImmutableLinkedList<E> tail() {
 		return (ImmutableLinkedList<E>) super.tail();
@@ -153,6 +358,11 @@ public class ImmutableLinkedList<E>  extends ImmutableBaseInductiveList<E> imple
 
 	
 	
+	/**
+	 * Returns the list of the given element followed by the elements of
+	 * this list, in a new node pointing to the first one of this list. Like
+	 * tail, cons keeps sharing the nodes rather than going through of().
+	 */
 	@Override
 	public ImmutableLinkedList<E> cons(E elem) {
 		return (ImmutableLinkedList<E>) super.cons(elem);
@@ -0,0 +1,321 @@
+package collections.implementations;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Loaders of immutable lists from files.
+ *
+ * The lines of a file are read by mapping it in chunks which end at line
+ * boundaries, and decoding the chunks in parallel: each chunk gives an
+ * array of lines, and the arrays are copied once into the array of the
+ * list. Lines end with \n, \r or \r\n, like with BufferedReader.readLine.
+ *
+ * Only the charsets in which \n is the byte 10 and never part of another
+ * character can be split this way: UTF-8 and the single byte charsets.
+ * The files in other charsets are decoded by a single thread.
+ */
+public final class ImmutableLists {
+
+	/** Bounds of the size of a chunk, in bytes */
+	private static final long MIN_CHUNK = 1 << 16;
+	private static final long MAX_CHUNK = 1 << 26;
+
+	/** Chunks per thread, for threads with fast chunks to help the others */
+	private static final int CHUNKS_PER_THREAD = 4;
+
+	/** Bytes read at a time when looking for the end of a line */
+	private static final int SCAN = 1 << 13;
+
+	private ImmutableLists() {
+	}
+
+	/**
+	 * Returns the lines of a file.
+	 *
+	 * @param path the file
+	 * @param charset the charset of the file
+	 * @param parallelism the number of threads decoding the file
+	 * @return the lines of the file, without their line terminators
+	 * @throws IOException if the file cannot be read, or holds bytes which
+	 * are not valid in the charset
+	 * @throws IllegalArgumentException if parallelism is not positive
+	 */
+	public static ImmutableArrayList<String> readLines(Path path, Charset charset, int parallelism) throws IOException {
+		if (parallelism < 1)
+			throw new IllegalArgumentException("Parallelism must be positive: " + parallelism);
+		if (!isSplittable(charset))
+			return new ImmutableArrayList<String>(readSequentially(path, charset));
+
+		ForkJoinPool pool = new ForkJoinPool(parallelism);
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+			long[] bounds = chunks(channel, parallelism);
+			@SuppressWarnings("unchecked")
+			ForkJoinTask<String[]>[] tasks = new ForkJoinTask[bounds.length - 1];
+			for (int i = 0 ; i < tasks.length ; ++i)
+				tasks[i] = decode(pool, channel, bounds[i], bounds[i + 1], charset);
+
+			String[][] chunks = new String[tasks.length][];
+			long size = 0;
+			for (int i = 0 ; i < tasks.length ; ++i) {
+				chunks[i] = join(tasks[i]);
+				size += chunks[i].length;
+			}
+			if (chunks.length == 1)
+				return new ImmutableArrayList<String>(chunks[0]);
+			if (size > Integer.MAX_VALUE - 8)
+				throw new IOException("Too many lines for a list: " + size);
+
+			String[] lines = new String[(int) size];
+			int copied = 0;
+			for (String[] chunk : chunks) {
+				System.arraycopy(chunk, 0, lines, copied, chunk.length);
+				copied += chunk.length;
+			}
+			return new ImmutableArrayList<String>(lines);
+		} finally {
+			pool.shutdownNow();
+		}
+	}
+
+	/**
+	 * Returns the lines of a file, in lists of consecutive lines which are
+	 * returned while the next ones are still being decoded. At most two
+	 * chunks per thread are decoded ahead of the one read. The stream must
+	 * be closed, to close the file.
+	 *
+	 * @param path the file
+	 * @param charset the charset of the file
+	 * @param parallelism the number of threads decoding the file
+	 * @return the stream of the lists of lines, which throws an
+	 * UncheckedIOException if the file cannot be decoded
+	 * @throws IOException if the file cannot be opened
+	 * @throws IllegalArgumentException if parallelism is not positive
+	 */
+	public static Stream<ImmutableArrayList<String>> lineChunks(Path path, Charset charset, int parallelism) throws IOException {
+		if (parallelism < 1)
+			throw new IllegalArgumentException("Parallelism must be positive: " + parallelism);
+		if (!isSplittable(charset)) {
+			String[] lines = readSequentially(path, charset);
+			return lines.length == 0 ? Stream.empty() : Stream.of(new ImmutableArrayList<String>(lines));
+		}
+
+		FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+		ForkJoinPool pool;
+		long[] bounds;
+		try {
+			bounds = chunks(channel, parallelism);
+			pool = new ForkJoinPool(parallelism);
+		} catch (IOException | RuntimeException e) {
+			channel.close();
+			throw e;
+		}
+
+		Iterator<ImmutableArrayList<String>> chunks = new Iterator<ImmutableArrayList<String>>() {
+
+			private final Deque<ForkJoinTask<String[]>> pending = new ArrayDeque<ForkJoinTask<String[]>>();
+			private int submitted;
+
+			private void submit() {
+				while (pending.size() < 2 * parallelism && submitted < bounds.length - 1) {
+					pending.add(decode(pool, channel, bounds[submitted], bounds[submitted + 1], charset));
+					++submitted;
+				}
+			}
+
+			@Override
+			public boolean hasNext() {
+				submit();
+				return !pending.isEmpty();
+			}
+
+			@Override
+			public ImmutableArrayList<String> next() {
+				if (!hasNext())
+					throw new NoSuchElementException();
+				ForkJoinTask<String[]> task = pending.poll();
+				submit();
+				try {
+					return new ImmutableArrayList<String>(join(task));
+				} catch (IOException e) {
+					throw new UncheckedIOException(e);
+				}
+			}
+		};
+
+		return StreamSupport.stream(Spliterators.spliteratorUnknownSize(chunks,
+				Spliterator.ORDERED | Spliterator.NONNULL | Spliterator.IMMUTABLE), false)
+			.onClose(() -> {
+				pool.shutdownNow();
+				try {
+					channel.close();
+				} catch (IOException e) {
+					throw new UncheckedIOException(e);
+				}
+			});
+	}
+
+	/**
+	 * Returns whether \n is the byte 10 in the charset, and this byte is
+	 * never part of another character.
+	 */
+	private static boolean isSplittable(Charset charset) {
+		if (charset.equals(StandardCharsets.UTF_8))
+			return true;
+		try {
+			return charset.newEncoder().maxBytesPerChar() == 1
+				&& Arrays.equals("\n\r".getBytes(charset), new byte[] {'\n', '\r'});
+		} catch (UnsupportedOperationException e) {
+			// A charset which can only be decoded
+			return false;
+		}
+	}
+
+	/**
+	 * Splits a file in chunks of about the same size, which end after a \n
+	 * or at the end of the file.
+	 *
+	 * @return the offsets of the chunks, followed by the size of the file
+	 */
+	private static long[] chunks(FileChannel channel, int parallelism) throws IOException {
+		long size = channel.size();
+		long target = Math.min(Math.max(size / ((long) parallelism * CHUNKS_PER_THREAD), MIN_CHUNK), MAX_CHUNK);
+
+		long[] bounds = new long[(int) Math.min(size / target + 2, Integer.MAX_VALUE)];
+		int count = 0;
+		bounds[count++] = 0;
+		ByteBuffer buffer = ByteBuffer.allocate(SCAN);
+		for (long start = 0 ; start < size ; ) {
+			long end = start + target;
+			if (end >= size)
+				end = size;
+			else
+				end = lineEnd(channel, end, buffer);
+			if (end - start > Integer.MAX_VALUE)
+				throw new IOException("Line too long at offset " + start);
+			bounds[count++] = end;
+			start = end;
+		}
+		return Arrays.copyOf(bounds, count);
+	}
+
+	/**
+	 * Returns the offset following the first \n at or after the given
+	 * offset, or the size of the file if there is none.
+	 */
+	private static long lineEnd(FileChannel channel, long from, ByteBuffer buffer) throws IOException {
+		long position = from;
+		while (true) {
+			buffer.clear();
+			int read = channel.read(buffer, position);
+			if (read < 0)
+				return channel.size();
+			for (int i = 0 ; i < read ; ++i)
+				if (buffer.get(i) == '\n')
+					return position + i + 1;
+			position += read;
+		}
+	}
+
+	private static ForkJoinTask<String[]> decode(ForkJoinPool pool, FileChannel channel, long start, long end, Charset charset) {
+		return pool.submit(() -> {
+			CharBuffer chars;
+			try {
+				chars = charset.newDecoder()
+					.onMalformedInput(CodingErrorAction.REPORT)
+					.onUnmappableCharacter(CodingErrorAction.REPORT)
+					.decode(channel.map(FileChannel.MapMode.READ_ONLY, start, end - start));
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+			return split(chars.array(), chars.arrayOffset() + chars.position(), chars.remaining());
+		});
+	}
+
+	/**
+	 * Returns the lines of some characters: counts them first, for their
+	 * array to be allocated once.
+	 */
+	private static String[] split(char[] chars, int offset, int length) {
+		int end = offset + length;
+		int count = 0;
+		for (int i = offset ; i < end ; ++i)
+			if (chars[i] == '\n' || (chars[i] == '\r' && (i + 1 == end || chars[i + 1] != '\n')))
+				++count;
+		if (length > 0 && chars[end - 1] != '\n' && chars[end - 1] != '\r')
+			// The last line of the file, without a terminator
+			++count;
+
+		String[] lines = new String[count];
+		int line = 0;
+		int start = offset;
+		for (int i = offset ; i < end ; ++i)
+			if (chars[i] == '\n' || chars[i] == '\r') {
+				lines[line++] = new String(chars, start, i - start);
+				if (chars[i] == '\r' && i + 1 < end && chars[i + 1] == '\n')
+					++i;
+				start = i + 1;
+			}
+		if (start < end)
+			lines[line] = new String(chars, start, end - start);
+		return lines;
+	}
+
+	private static String[] readSequentially(Path path, Charset charset) throws IOException {
+		String[] lines = new String[16];
+		int count = 0;
+		try (BufferedReader reader = Files.newBufferedReader(path, charset)) {
+			for (String line = reader.readLine() ; line != null ; line = reader.readLine()) {
+				if (count == lines.length)
+					lines = Arrays.copyOf(lines, count * 2);
+				lines[count++] = line;
+			}
+		}
+		return Arrays.copyOf(lines, count);
+	}
+
+	/** Waits for a chunk, and rethrows what it threw */
+	private static String[] join(ForkJoinTask<String[]> task) throws IOException {
+		try {
+			return task.get();
+		} catch (InterruptedException e) {
+			task.cancel(true);
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("Interrupted while reading lines");
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			// The pool may have wrapped the exception of its thread
+			for (Throwable thrown = cause ; thrown != null ; thrown = thrown.getCause())
+				if (thrown instanceof UncheckedIOException)
+					throw ((UncheckedIOException) thrown).getCause();
+			if (cause instanceof RuntimeException)
+				throw (RuntimeException) cause;
+			if (cause instanceof Error)
+				throw (Error) cause;
+			throw new IllegalStateException(cause);
+		}
+	}
+}
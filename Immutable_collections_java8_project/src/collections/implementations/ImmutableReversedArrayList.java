@@ -1,9 +1,23 @@
 package collections.implementations;
 
-import java.util.List;
-import java.util.Collections;
+import java.lang.reflect.Array;
+import java.util.Arrays;
 import java.util.Iterator;
 import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.BinaryOperator;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+import collections.instrumentation.Counters;
+import collections.instrumentation.MemoryLayout;
+import collections.instrumentation.MemoryStats;
+import collections.instrumentation.MemoryStats.Representation;
+import collections.interfaces.ImmutableCoreList;
+import collections.interfaces.ImmutableList;
 
 public class ImmutableReversedArrayList<E> extends ImmutableArrayList<E> {
 
@@ -11,18 +25,39 @@ public class ImmutableReversedArrayList<E> extends ImmutableArrayList<E> {
 	private final ImmutableArrayList<E> list;
 
 	/**
-	 * Construct a reverse view of the given list.
+	 * Construct a reverse view of the given list. The loops of the view
+	 * read the array of the list: a list which is itself a reversed view,
+	 * and has no array of its own, is copied once into one. reverse()
+	 * returns the list it views instead, without copying.
 	 *
 	 * @param list the list to be reversed.
 	 */
+	@SuppressWarnings("unchecked")
 	public ImmutableReversedArrayList(ImmutableArrayList<E> list) {
-		this.list = list;
+		this.list = list instanceof ImmutableReversedArrayList
+			? new ImmutableArrayList<E>((E[]) list.toArray())
+			: list;
 	}
 
 	public int size() {
 		return list.size();
 	}
 
+	/**
+	 * Returns the memory of this view, which retains the list it reverses
+	 * and shares all its elements with it.
+	 */
+	@Override
+	public MemoryStats explain() {
+		MemoryStats reversed = list.explain();
+		long shallow = MemoryLayout.shallowSize(getClass());
+		return new MemoryStats(Representation.REVERSED,
+				       shallow,
+				       shallow + reversed.getRetainedBytes(),
+				       size(),
+				       reversed.getViewDepth() + 1);
+	}
+
 	/**
 	 * Return equivalent of index counting from the end to simulate the
 	 * reversed view of the list.
@@ -38,10 +73,14 @@ public class ImmutableReversedArrayList<E> extends ImmutableArrayList<E> {
 	}
 
 	public int indexOf(E elem) {
-		int index = list.indexOf(elem);
-		if (index != -1)
-			index = reverseIndex(index);
-		return index;
+		final E[] array = list._array;
+		for (int i = list._length - 1 ; i >= 0 ; --i)
+			if (ImmutableCoreList.equals(elem, array[i])) {
+				Counters.traversed(list._length - i);
+				return reverseIndex(i);
+			}
+		Counters.traversed(list._length);
+		return -1;
 	}
 
 	public E head() throws NoSuchElementException {
@@ -53,11 +92,11 @@ public class ImmutableReversedArrayList<E> extends ImmutableArrayList<E> {
 	}
 
 
-	public ImmutableArrayList<E> subList(int fromIndex, int toIndex) throws
+	public ImmutableList<E> subList(int fromIndex, int toIndex) throws
 		IndexOutOfBoundsException,
 		IllegalArgumentException {
 		if (fromIndex == toIndex)
-			return new ImmutableArrayList<E>();
+			return ImmutableArrayList.empty();
 
 		return list.subList(reverseIndex(toIndex  -1),
 				    reverseIndex(fromIndex-1)).reverse();
@@ -68,7 +107,7 @@ public class ImmutableReversedArrayList<E> extends ImmutableArrayList<E> {
 	}
 
 	
-	public ImmutableArrayList<E> remove(int index) {
+	public ImmutableList<E> remove(int index) {
 		return list.remove(reverseIndex(index)).reverse();
 	}
 
@@ -94,6 +133,7 @@ public class ImmutableReversedArrayList<E> extends ImmutableArrayList<E> {
 
 			E elem = list.get(index);
 			--index;
+			Counters.traversed(1);
 			return elem;
 		}
 
@@ -108,10 +148,104 @@ public class ImmutableReversedArrayList<E> extends ImmutableArrayList<E> {
 		return new ReversedListIterator();
 	}
 
+	public Spliterator<E> spliterator() {
+		return Spliterators.spliterator(iterator(),
+				size(),
+				Spliterator.IMMUTABLE |
+				Spliterator.ORDERED);
+	}
+
+	// Internal iteration: tight loops over the backing array, from its end
+
+	public boolean any(Predicate<? super E> predicate) {
+		final E[] array = list._array;
+		for (int i = list._length - 1 ; i >= 0 ; --i)
+			if (predicate.test(array[i])) {
+				Counters.traversed(list._length - i);
+				return true;
+			}
+		Counters.traversed(list._length);
+		return false;
+	}
+
+	public boolean all(Predicate<? super E> predicate) {
+		final E[] array = list._array;
+		for (int i = list._length - 1 ; i >= 0 ; --i)
+			if (!predicate.test(array[i])) {
+				Counters.traversed(list._length - i);
+				return false;
+			}
+		Counters.traversed(list._length);
+		return true;
+	}
+
+	public Optional<E> reduce(BinaryOperator<E> accumulator) {
+		final int length = list._length;
+		if (length == 0)
+			return Optional.empty();
+
+		final E[] array = list._array;
+		E result = array[length - 1];
+		for (int i = length - 2 ; i >= 0 ; --i)
+			result = accumulator.apply(result, array[i]);
+		Counters.traversed(length);
+		return Optional.of(result);
+	}
+
+	public void forEach(Consumer<? super E> action) {
+		final E[] array = list._array;
+		for (int i = list._length - 1 ; i >= 0 ; --i)
+			action.accept(array[i]);
+		Counters.traversed(list._length);
+	}
+
 	@SuppressWarnings("unchecked")
 	public E[] toArray() {
-		List<E> tmp = list.asList();
-		Collections.reverse(tmp);
-		return (E[]) tmp.toArray();
+		return toArray((E[]) new Object[list._length]);
+	}
+
+	@SuppressWarnings("unchecked")
+	public E[] toArray(E[] a) {
+		final E[] array = list._array;
+		final int length = list._length;
+		if (a.length < length)
+			a = (E[]) Array.newInstance(a.getClass().getComponentType(), length);
+		else if (a.length > length)
+			a[length] = null;
+
+		for (int i = 0 ; i < length ; ++i)
+			a[i] = array[length - 1 - i];
+		Counters.copied(length);
+		return a;
+	}
+
+	@SuppressWarnings("unchecked")
+	public <F> ImmutableList<F> map(Function<? super E, ? extends F> mapper) {
+		final E[] array = list._array;
+		final int length = list._length;
+		F[] elems = (F[]) new Object[length];
+		for (int i = 0 ; i < length ; ++i)
+			elems[i] = mapper.apply(array[length - 1 - i]);
+		Counters.traversed(length);
+		Counters.copied(length);
+		return of(elems);
+	}
+
+	@SuppressWarnings("unchecked")
+	public ImmutableList<E> filter(Predicate<? super E> predicate) {
+		final E[] array = list._array;
+		final int length = list._length;
+		E[] elems = (E[]) new Object[length];
+		int size = 0;
+		for (int i = length - 1 ; i >= 0 ; --i)
+			if (predicate.test(array[i]))
+				elems[size++] = array[i];
+		Counters.traversed(length);
+		Counters.copied(size);
+
+		if (size == length)
+			return this;
+		Counters.copied(size);
+		return of(Arrays.copyOf(elems, size));
 	}
 }
@@ -0,0 +1,517 @@
+package collections.implementations;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.RandomAccess;
+import java.util.function.Predicate;
+
+import collections.instrumentation.MemoryLayout;
+import collections.instrumentation.MemoryStats;
+import collections.instrumentation.MemoryStats.Representation;
+import collections.interfaces.ImmutableCoreList;
+import collections.interfaces.IterativeList;
+
+/**
+ * A list of the tokens of a text, which keeps the text and the offsets of
+ * the tokens instead of a String per token. The text is an array of
+ * chars, or of bytes holding ISO-8859-1 (Latin-1) characters.
+ *
+ * get returns a CharSequence reading the characters of the token in the
+ * text: no character is copied until toString is called. Two tokens are
+ * equal if they hold the same characters, and their hash code is the one
+ * of the String of their characters. A token is never equal to a String,
+ * as String.equals would not be symmetric; indexOf and contains compare
+ * the characters of any CharSequence, Strings included.
+ *
+ * asStrings returns the list of the Strings of the tokens, which creates
+ * each String the first time it is read, and keeps it.
+ *
+ * The text is shared: it must not be modified while the list is used.
+ */
+public final class ImmutableTextList implements IterativeList<CharSequence>, RandomAccess {
+
+	private static final ImmutableTextList EMPTY = new ImmutableTextList(new char[0], null, new int[0]);
+
+	/** The text, in exactly one of the two arrays */
+	private final char[] chars;
+	private final byte[] bytes;
+
+	/** The start and end of the tokens, in pairs */
+	private final int[] offsets;
+
+	/** The Strings of the tokens read through asStrings, allocated on its first use */
+	private String[] strings;
+
+	private ImmutableTextList(char[] chars, byte[] bytes, int[] offsets) {
+		this.chars   = chars;
+		this.bytes   = bytes;
+		this.offsets = offsets;
+	}
+
+	/**
+	 * Returns the list of the tokens of a text, separated by a delimiter.
+	 * n delimiters separate n + 1 tokens, which may be empty.
+	 *
+	 * @param text the text, kept by the list
+	 * @param delimiter the character separating the tokens
+	 * @return the list of the tokens
+	 * @throws NullPointerException if text is null
+	 */
+	public static ImmutableTextList split(char[] text, char delimiter) {
+		int count = 1;
+		for (char c : text)
+			if (c == delimiter)
+				++count;
+
+		int[] offsets = new int[2 * count];
+		int token = 0;
+		int start = 0;
+		for (int i = 0 ; i < text.length ; ++i)
+			if (text[i] == delimiter) {
+				offsets[token++] = start;
+				offsets[token++] = i;
+				start = i + 1;
+			}
+		offsets[token++] = start;
+		offsets[token]   = text.length;
+		return new ImmutableTextList(text, null, offsets);
+	}
+
+	/**
+	 * Returns the list of the tokens of a text, separated by a delimiter.
+	 * The characters of the text are copied once, in an array shared by the
+	 * tokens.
+	 *
+	 * @param text the text
+	 * @param delimiter the character separating the tokens
+	 * @return the list of the tokens
+	 * @throws NullPointerException if text is null
+	 */
+	public static ImmutableTextList split(CharSequence text, char delimiter) {
+		return split(text.toString().toCharArray(), delimiter);
+	}
+
+	/**
+	 * Returns the list of the tokens of a text in ISO-8859-1, separated by
+	 * a delimiter. n delimiters separate n + 1 tokens, which may be empty.
+	 *
+	 * @param latin1 the text, one byte per character, kept by the list
+	 * @param delimiter the character separating the tokens
+	 * @return the list of the tokens
+	 * @throws NullPointerException if latin1 is null
+	 * @throws IllegalArgumentException if the delimiter is not an
+	 * ISO-8859-1 character
+	 */
+	public static ImmutableTextList split(byte[] latin1, char delimiter) {
+		if (delimiter > 0xff)
+			throw new IllegalArgumentException("Not an ISO-8859-1 character: " + delimiter);
+		byte b = (byte) delimiter;
+		int count = 1;
+		for (byte c : latin1)
+			if (c == b)
+				++count;
+
+		int[] offsets = new int[2 * count];
+		int token = 0;
+		int start = 0;
+		for (int i = 0 ; i < latin1.length ; ++i)
+			if (latin1[i] == b) {
+				offsets[token++] = start;
+				offsets[token++] = i;
+				start = i + 1;
+			}
+		offsets[token++] = start;
+		offsets[token]   = latin1.length;
+		return new ImmutableTextList(null, latin1, offsets);
+	}
+
+	/**
+	 * Returns the list of the tokens of a text at the given offsets.
+	 *
+	 * @param text the text, kept by the list
+	 * @param offsets the start and end of each token, in pairs, kept by the
+	 * list
+	 * @return the list of the tokens
+	 * @throws IllegalArgumentException if offsets has an odd length, or a
+	 * token does not fit in the text
+	 */
+	public static ImmutableTextList fromOffsets(char[] text, int[] offsets) {
+		check(text.length, offsets);
+		return new ImmutableTextList(text, null, offsets);
+	}
+
+	/**
+	 * Returns the list of the tokens of a text in ISO-8859-1 at the given
+	 * offsets.
+	 *
+	 * @param latin1 the text, one byte per character, kept by the list
+	 * @param offsets the start and end of each token, in pairs, kept by the
+	 * list
+	 * @return the list of the tokens
+	 * @throws IllegalArgumentException if offsets has an odd length, or a
+	 * token does not fit in the text
+	 */
+	public static ImmutableTextList fromOffsets(byte[] latin1, int[] offsets) {
+		check(latin1.length, offsets);
+		return new ImmutableTextList(null, latin1, offsets);
+	}
+
+	private static void check(int length, int[] offsets) {
+		if (offsets.length % 2 != 0)
+			throw new IllegalArgumentException("Offsets must come in pairs");
+		for (int i = 0 ; i < offsets.length ; i += 2)
+			if (offsets[i] < 0 || offsets[i] > offsets[i + 1] || offsets[i + 1] > length)
+				throw new IllegalArgumentException("Token " + i / 2 + " does not fit in the text: ["
+								   + offsets[i] + ", " + offsets[i + 1] + ")");
+	}
+
+	/**
+	 * Returns the empty text list.
+	 *
+	 * @return the empty text list
+	 */
+	public static ImmutableTextList empty() {
+		return EMPTY;
+	}
+
+	@Override
+	public int size() {
+		return offsets.length / 2;
+	}
+
+	@Override
+	public CharSequence get(int index) throws IndexOutOfBoundsException {
+		if (index < 0 || index >= size())
+			throw new IndexOutOfBoundsException();
+		int start = offsets[2 * index];
+		int end   = offsets[2 * index + 1];
+		if (chars != null)
+			return new CharSlice(chars, start, end);
+		return new Latin1Slice(bytes, start, end);
+	}
+
+	/** The character at the given position of the text */
+	private char charAt(int position) {
+		return chars != null ? chars[position] : (char) (bytes[position] & 0xff);
+	}
+
+	/**
+	 * Returns the index of the first token holding the same characters as
+	 * the given CharSequence.
+	 *
+	 * @param elem the characters to look for
+	 * @return the index of the first token holding them, -1 if none does
+	 */
+	@Override
+	public int indexOf(CharSequence elem) {
+		if (elem == null)
+			return -1;
+		int length = elem.length();
+		next:
+		for (int i = 0 ; i < offsets.length ; i += 2) {
+			int start = offsets[i];
+			if (offsets[i + 1] - start != length)
+				continue;
+			for (int j = 0 ; j < length ; ++j)
+				if (charAt(start + j) != elem.charAt(j))
+					continue next;
+			return i / 2;
+		}
+		return -1;
+	}
+
+	@Override
+	public boolean contains(CharSequence elem) {
+		return indexOf(elem) >= 0;
+	}
+
+	/**
+	 * Returns the list of the tokens which match the predicate, which shares
+	 * the text of this list.
+	 *
+	 * @param predicate the predicate to be tested on the tokens
+	 * @return the list of the tokens which match it
+	 */
+	@Override
+	public ImmutableTextList filter(Predicate<? super CharSequence> predicate) {
+		int[] kept = new int[offsets.length];
+		int count = 0;
+		for (int i = 0 ; i < size() ; ++i)
+			if (predicate.test(get(i))) {
+				kept[count++] = offsets[2 * i];
+				kept[count++] = offsets[2 * i + 1];
+			}
+		return new ImmutableTextList(chars, bytes, Arrays.copyOf(kept, count));
+	}
+
+	/**
+	 * Returns the list of the tokens from fromIndex, inclusive, to toIndex,
+	 * exclusive, which shares the text of this list.
+	 *
+	 * @param fromIndex the index of the first token
+	 * @param toIndex the index after the last token
+	 * @return the list of the tokens between the indices
+	 * @throws IndexOutOfBoundsException if an index is out of range
+	 * @throws IllegalArgumentException if fromIndex is greater than toIndex
+	 */
+	public ImmutableTextList subList(int fromIndex, int toIndex) {
+		if (fromIndex < 0 || toIndex > size())
+			throw new IndexOutOfBoundsException();
+		if (fromIndex > toIndex)
+			throw new IllegalArgumentException();
+		return new ImmutableTextList(chars, bytes, Arrays.copyOfRange(offsets, 2 * fromIndex, 2 * toIndex));
+	}
+
+	/**
+	 * Returns the list of the Strings of the tokens. Each String is created
+	 * the first time it is read, and kept by this list for the next reads.
+	 *
+	 * @return the list of the Strings of the tokens
+	 */
+	public IterativeList<String> asStrings() {
+		return new StringList();
+	}
+
+	private String string(int index) {
+		String[] cache = strings;
+		if (cache == null)
+			// Threads racing here may each allocate an array: they only
+			// lose the Strings created in the others
+			strings = cache = new String[size()];
+		String string = cache[index];
+		if (string == null)
+			cache[index] = string = get(index).toString();
+		return string;
+	}
+
+	/** The list of the Strings of the tokens */
+	private final class StringList implements IterativeList<String>, RandomAccess {
+
+		@Override
+		public int size() {
+			return ImmutableTextList.this.size();
+		}
+
+		@Override
+		public String get(int index) throws IndexOutOfBoundsException {
+			if (index < 0 || index >= size())
+				throw new IndexOutOfBoundsException();
+			return string(index);
+		}
+
+		@Override
+		public Iterator<String> iterator() {
+			return new IndexIterator<String>(this);
+		}
+
+		@Override
+		public ImmutableArrayList<String> create(String[] elems) {
+			return new ImmutableArrayList<String>(elems);
+		}
+
+		@Override
+		public <F> ImmutableArrayList<F> create(Collection<F> elems) {
+			return new ImmutableArrayList<F>(elems);
+		}
+
+		@Override
+		public IterativeList<String> clone() {
+			return this;
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			return IterativeList.equals(this, o);
+		}
+
+		@Override
+		public int hashCode() {
+			return ImmutableCoreList.hashCode(this);
+		}
+
+		@Override
+		public String toString() {
+			return asList().toString();
+		}
+	}
+
+	@Override
+	public Iterator<CharSequence> iterator() {
+		return new IndexIterator<CharSequence>(this);
+	}
+
+	@Override
+	public ImmutableArrayList<CharSequence> create(CharSequence[] elems) {
+		return new ImmutableArrayList<CharSequence>(elems);
+	}
+
+	@Override
+	public <F> ImmutableArrayList<F> create(Collection<F> elems) {
+		return new ImmutableArrayList<F>(elems);
+	}
+
+	@Override
+	public ImmutableTextList clone() {
+		return this;
+	}
+
+	/**
+	 * Returns the memory of this list: its offsets and its text, which may
+	 * be shared with the lists split from the same text.
+	 */
+	@Override
+	public MemoryStats explain() {
+		long shallow = MemoryLayout.shallowSize(getClass());
+		long text    = chars != null ? MemoryLayout.charArraySize(chars.length) : MemoryLayout.byteArraySize(bytes.length);
+		return new MemoryStats(Representation.ARRAY, shallow, shallow + MemoryLayout.intArraySize(offsets.length) + text, 0, 0);
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		return IterativeList.equals(this, o);
+	}
+
+	@Override
+	public int hashCode() {
+		return ImmutableCoreList.hashCode(this);
+	}
+
+	@Override
+	public String toString() {
+		return asList().toString();
+	}
+}
+
+/** Iterator over a random access list, by index */
+final class IndexIterator<E> implements Iterator<E> {
+
+	private final IterativeList<E> list;
+	private int index;
+
+	IndexIterator(IterativeList<E> list) {
+		this.list = list;
+	}
+
+	@Override
+	public boolean hasNext() {
+		return index < list.size();
+	}
+
+	@Override
+	public E next() {
+		if (index >= list.size())
+			throw new NoSuchElementException();
+		return list.get(index++);
+	}
+}
+
+/**
+ * A token of an ImmutableTextList. Tokens are compared by their characters,
+ * and hashed like the String of them.
+ */
+abstract class TextSlice implements CharSequence {
+
+	protected final int start;
+	protected final int end;
+
+	/** The hash code, 0 until computed */
+	private int hash;
+
+	TextSlice(int start, int end) {
+		this.start = start;
+		this.end   = end;
+	}
+
+	@Override
+	public int length() {
+		return end - start;
+	}
+
+	@Override
+	public int hashCode() {
+		int h = hash;
+		if (h == 0) {
+			for (int i = 0, length = length() ; i < length ; ++i)
+				h = 31 * h + charAt(i);
+			hash = h;
+		}
+		return h;
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		if (o == this)
+			return true;
+		if (!(o instanceof TextSlice))
+			return false;
+		TextSlice other = (TextSlice) o;
+		int length = length();
+		if (other.length() != length)
+			return false;
+		for (int i = 0 ; i < length ; ++i)
+			if (charAt(i) != other.charAt(i))
+				return false;
+		return true;
+	}
+}
+
+final class CharSlice extends TextSlice {
+
+	private final char[] text;
+
+	CharSlice(char[] text, int start, int end) {
+		super(start, end);
+		this.text = text;
+	}
+
+	@Override
+	public char charAt(int index) {
+		if (index < 0 || index >= length())
+			throw new StringIndexOutOfBoundsException(index);
+		return text[start + index];
+	}
+
+	@Override
+	public CharSequence subSequence(int from, int to) {
+		if (from < 0 || from > to || to > length())
+			throw new StringIndexOutOfBoundsException("[" + from + ", " + to + ") out of " + length());
+		return new CharSlice(text, start + from, start + to);
+	}
+
+	@Override
+	public String toString() {
+		return new String(text, start, length());
+	}
+}
+
+final class Latin1Slice extends TextSlice {
+
+	private final byte[] text;
+
+	Latin1Slice(byte[] text, int start, int end) {
+		super(start, end);
+		this.text = text;
+	}
+
+	@Override
+	public char charAt(int index) {
+		if (index < 0 || index >= length())
+			throw new StringIndexOutOfBoundsException(index);
+		return (char) (text[start + index] & 0xff);
+	}
+
+	@Override
+	public CharSequence subSequence(int from, int to) {
+		if (from < 0 || from > to || to > length())
+			throw new StringIndexOutOfBoundsException("[" + from + ", " + to + ") out of " + length());
+		return new Latin1Slice(text, start + from, start + to);
+	}
+
+	@Override
+	public String toString() {
+		return new String(text, start, length(), StandardCharsets.ISO_8859_1);
+	}
+}
@@ -0,0 +1,426 @@
+package collections.implementations;
+
+import java.util.AbstractMap.SimpleImmutableEntry;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+
+import collections.interfaces.ImmutableCoreList;
+import collections.interfaces.InductiveList;
+
+/**
+ * A linked list whose nodes are computed when they are first needed, and
+ * remembered, like the LazyList of Scala. It may be infinite.
+ *
+ * Each list is a thunk computing its first element and the list of the
+ * others, or that it is empty. The thunk runs at most once, even when
+ * threads share the list: the first thread to need it runs it, the others
+ * wait for its result. A thunk which throws runs again the next time.
+ *
+ * map, filter, concat and take build new lazy lists without computing
+ * anything. The iterators only keep the rest of the list alive: walking
+ * a list nobody else refers to, as in
+ *
+ * for (Row row : LazyLinkedList.from(cursor).filter(Row::isValid))
+ *
+ * takes constant memory. Keeping a reference to the list keeps all the
+ * nodes computed since then.
+ *
+ * Operations which need every element, such as last, equals, hashCode or
+ * toArray, do not return on an infinite list.
+ */
+public final class LazyLinkedList<E> implements InductiveList<E> {
+
+	/** The state of the empty lists */
+	private static final Object END = new Object();
+
+	private static final LazyLinkedList<Object> EMPTY = new LazyLinkedList<Object>(END);
+
+	/**
+	 * A Supplier of the cell of the list until it is computed, then the
+	 * Cell, or END if the list is empty
+	 */
+	private volatile Object state;
+
+	private LazyLinkedList(Object state) {
+		this.state = state;
+	}
+
+	private LazyLinkedList(Supplier<Cell<E>> thunk) {
+		this((Object) thunk);
+	}
+
+	private LazyLinkedList(E head, LazyLinkedList<E> tail) {
+		this(new Cell<E>(head, tail));
+	}
+
+	/** The first element of a list, and the list of the others */
+	private static final class Cell<E> {
+
+		final E head;
+		final LazyLinkedList<E> tail;
+
+		Cell(E head, LazyLinkedList<E> tail) {
+			this.head = head;
+			this.tail = tail;
+		}
+	}
+
+	/**
+	 * Returns the empty lazy list.
+	 *
+	 * @return the empty lazy list, shared by all element types
+	 */
+	@SuppressWarnings("unchecked")
+	public static <E> LazyLinkedList<E> empty() {
+		return (LazyLinkedList<E>) EMPTY;
+	}
+
+	/**
+	 * Returns the infinite list of seed, next(seed), next(next(seed)), and
+	 * so on.
+	 *
+	 * @param seed the first element
+	 * @param next the function computing an element from the previous one
+	 * @return the infinite list
+	 * @throws NullPointerException if next is null
+	 */
+	public static <E> LazyLinkedList<E> iterate(E seed, UnaryOperator<E> next) {
+		Objects.requireNonNull(next);
+		return new LazyLinkedList<E>(seed, new LazyLinkedList<E>(() -> iterate(next.apply(seed), next).force()));
+	}
+
+	/**
+	 * Returns the infinite list of the elements the supplier returns, one
+	 * call per element, in order.
+	 *
+	 * @param supplier the supplier of the elements
+	 * @return the infinite list
+	 * @throws NullPointerException if supplier is null
+	 */
+	public static <E> LazyLinkedList<E> generate(Supplier<? extends E> supplier) {
+		Objects.requireNonNull(supplier);
+		return new LazyLinkedList<E>(() -> new Cell<E>(supplier.get(), generate(supplier)));
+	}
+
+	/**
+	 * Returns the list of the elements computed from a state: next returns
+	 * the first element and the state the rest of the list is computed
+	 * from, or nothing when the list ends. A list of pages can be built
+	 * from their tokens this way:
+	 *
+	 * LazyLinkedList.unfold(firstToken, token -> token == null ? Optional.empty()
+	 *     : Optional.of(LazyLinkedList.entry(fetch(token), nextToken(token))))
+	 *
+	 * @param state the state of the first element
+	 * @param next the function computing an element and the next state
+	 * @return the list, infinite unless next returns an empty Optional
+	 * @throws NullPointerException if next is null
+	 */
+	public static <E, S> LazyLinkedList<E> unfold(S state,
+			Function<? super S, ? extends Optional<? extends Map.Entry<? extends E, ? extends S>>> next) {
+		Objects.requireNonNull(next);
+		return new LazyLinkedList<E>(() -> {
+			Optional<? extends Map.Entry<? extends E, ? extends S>> entry = next.apply(state);
+			if (!entry.isPresent())
+				return null;
+			return new Cell<E>(entry.get().getKey(), unfold(entry.get().getValue(), next));
+		});
+	}
+
+	/**
+	 * Returns an entry of an element and of a state, to be returned by the
+	 * function of unfold.
+	 *
+	 * @param elem the element
+	 * @param state the state of the next element
+	 * @return the entry
+	 */
+	public static <E, S> Map.Entry<E, S> entry(E elem, S state) {
+		return new SimpleImmutableEntry<E, S>(elem, state);
+	}
+
+	/**
+	 * Returns the list of the elements an iterator returns. The iterator is
+	 * only advanced when the elements are needed, and must not be used by
+	 * anything else afterwards.
+	 *
+	 * @param iterator the iterator
+	 * @return the list of its remaining elements
+	 * @throws NullPointerException if iterator is null
+	 */
+	public static <E> LazyLinkedList<E> from(Iterator<? extends E> iterator) {
+		Objects.requireNonNull(iterator);
+		return new LazyLinkedList<E>(() -> iterator.hasNext() ? new Cell<E>(iterator.next(), from(iterator)) : null);
+	}
+
+	/**
+	 * Runs the thunk of this list, unless it was already run.
+	 *
+	 * @return the first cell of the list, null if it is empty
+	 */
+	@SuppressWarnings("unchecked")
+	private Cell<E> force() {
+		Object current = state;
+		if (current instanceof Supplier) {
+			synchronized (this) {
+				current = state;
+				if (current instanceof Supplier) {
+					Cell<E> cell = ((Supplier<Cell<E>>) current).get();
+					// Drops the thunk, and what it refers to
+					current = cell == null ? END : cell;
+					state = current;
+				}
+			}
+		}
+		return current == END ? null : (Cell<E>) current;
+	}
+
+	/**
+	 * Returns whether the first element of this list is computed, or that
+	 * the list is empty.
+	 *
+	 * @return false if computing the first element is still to be done
+	 */
+	public boolean isEvaluated() {
+		return !(state instanceof Supplier);
+	}
+
+	@Override
+	public LazyLinkedList<E> create(E[] elems) {
+		return from(Arrays.asList(elems).iterator());
+	}
+
+	@Override
+	public <F> LazyLinkedList<F> create(Collection<F> elems) {
+		return from(elems.iterator());
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return force() == null;
+	}
+
+	@Override
+	public LazyLinkedList<E> cons(E elem) {
+		return new LazyLinkedList<E>(elem, this);
+	}
+
+	@Override
+	public E head() throws NoSuchElementException {
+		Cell<E> cell = force();
+		if (cell == null)
+			throw new NoSuchElementException();
+		return cell.head;
+	}
+
+	@Override
+	public LazyLinkedList<E> tail() throws UnsupportedOperationException {
+		Cell<E> cell = force();
+		if (cell == null)
+			throw new UnsupportedOperationException();
+		return cell.tail;
+	}
+
+	@Override
+	public E last() throws NoSuchElementException {
+		Cell<E> cell = force();
+		if (cell == null)
+			throw new NoSuchElementException();
+		for (Cell<E> next = cell.tail.force() ; next != null ; next = next.tail.force())
+			cell = next;
+		return cell.head;
+	}
+
+	/**
+	 * Returns the lazy list of the results of the mapper on the elements of
+	 * this list. The mapper is called once per element, when the element
+	 * is first needed.
+	 *
+	 * @param mapper a function to apply to each element
+	 * @return the new lazy list
+	 */
+	@Override
+	public <F> LazyLinkedList<F> map(Function<? super E, ? extends F> mapper) {
+		Objects.requireNonNull(mapper);
+		return new LazyLinkedList<F>(() -> {
+			Cell<E> cell = force();
+			return cell == null ? null : new Cell<F>(mapper.apply(cell.head), cell.tail.map(mapper));
+		});
+	}
+
+	/**
+	 * Returns the lazy list of the elements of this list which match the
+	 * predicate. Finding the next one computes the elements up to it.
+	 *
+	 * @param predicate the predicate to be tested on elements of the list
+	 * @return the new lazy list
+	 */
+	@Override
+	public LazyLinkedList<E> filter(Predicate<? super E> predicate) {
+		Objects.requireNonNull(predicate);
+		return filter(new Rest<E>(this), predicate);
+	}
+
+	/**
+	 * Returns the lazy list of the elements of rest which match the
+	 * predicate. The thunk refers to rest, and not to the list it starts
+	 * with: it advances rest over the rejected elements, so that they can
+	 * be collected while it looks for the next match.
+	 */
+	private static <E> LazyLinkedList<E> filter(Rest<E> rest, Predicate<? super E> predicate) {
+		return new LazyLinkedList<E>(() -> {
+			// A loop rather than a recursion, for long runs of rejected elements
+			Cell<E> cell = rest.list.force();
+			while (cell != null && !predicate.test(cell.head)) {
+				rest.list = cell.tail;
+				cell = rest.list.force();
+			}
+			rest.list = null;
+			return cell == null ? null : new Cell<E>(cell.head, filter(new Rest<E>(cell.tail), predicate));
+		});
+	}
+
+	/** The rest of the list a thunk reads, which it advances as it goes */
+	private static final class Rest<E> {
+
+		LazyLinkedList<E> list;
+
+		Rest(LazyLinkedList<E> list) {
+			this.list = list;
+		}
+	}
+
+	/**
+	 * Returns the lazy list of the elements of this list followed by the
+	 * ones of the given list, which is only read once this list is read to
+	 * its end.
+	 *
+	 * @param other the elements to append
+	 * @return the new lazy list
+	 */
+	public LazyLinkedList<E> concat(LazyLinkedList<? extends E> other) {
+		Objects.requireNonNull(other);
+		return new LazyLinkedList<E>(() -> {
+			Cell<E> cell = force();
+			if (cell == null)
+				return LazyLinkedList.<E>upcast(other).force();
+			return new Cell<E>(cell.head, cell.tail.concat(other));
+		});
+	}
+
+	/**
+	 * Returns the lazy list of the elements of this list followed by the
+	 * ones of the given iterable, whose iterator is only created once this
+	 * list is read to its end.
+	 *
+	 * @param other the elements to append
+	 * @return the new lazy list
+	 */
+	public LazyLinkedList<E> concat(Iterable<? extends E> other) {
+		Objects.requireNonNull(other);
+		if (other instanceof LazyLinkedList)
+			return concat((LazyLinkedList<? extends E>) other);
+		return concat(new LazyLinkedList<E>(() -> LazyLinkedList.<E>from(other.iterator()).force()));
+	}
+
+	/**
+	 * Returns the lazy list of the first elements of this list, or of all
+	 * of them if there are fewer.
+	 *
+	 * @param count the number of elements to keep
+	 * @return the new lazy list
+	 * @throws IllegalArgumentException if count is negative
+	 */
+	public LazyLinkedList<E> take(int count) {
+		if (count < 0)
+			throw new IllegalArgumentException("Negative count: " + count);
+		if (count == 0)
+			return empty();
+		return new LazyLinkedList<E>(() -> {
+			Cell<E> cell = force();
+			return cell == null ? null : new Cell<E>(cell.head, cell.tail.take(count - 1));
+		});
+	}
+
+	// The list is immutable, its elements can be read as any supertype
+	@SuppressWarnings("unchecked")
+	private static <E> LazyLinkedList<E> upcast(LazyLinkedList<? extends E> list) {
+		return (LazyLinkedList<E>) list;
+	}
+
+	@Override
+	public Iterator<E> iterator() {
+		return new LazyIterator<E>(this);
+	}
+
+	/**
+	 * Iterator which only refers to the rest of the list, so that the
+	 * elements it has returned can be collected.
+	 */
+	private static final class LazyIterator<E> implements Iterator<E> {
+
+		private LazyLinkedList<E> rest;
+
+		LazyIterator(LazyLinkedList<E> list) {
+			rest = list;
+		}
+
+		@Override
+		public boolean hasNext() {
+			return rest.force() != null;
+		}
+
+		@Override
+		public E next() {
+			Cell<E> cell = rest.force();
+			if (cell == null)
+				throw new NoSuchElementException();
+			rest = cell.tail;
+			return cell.head;
+		}
+	}
+
+	@Override
+	public LazyLinkedList<E> clone() {
+		return this;
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		return o == this || ImmutableCoreList.equals(this, o);
+	}
+
+	@Override
+	public int hashCode() {
+		return ImmutableCoreList.hashCode(this);
+	}
+
+	/**
+	 * Returns the elements computed so far, without computing any, followed
+	 * by "..." if the list goes on: [1, 2, ...].
+	 */
+	@Override
+	public String toString() {
+		StringBuilder result = new StringBuilder("[");
+		String sep = "";
+		Object current = state;
+		while (current instanceof Cell) {
+			Cell<?> cell = (Cell<?>) current;
+			result.append(sep).append(cell.head);
+			sep = ", ";
+			current = cell.tail.state;
+		}
+		if (current != END)
+			result.append(sep).append("...");
+		return result.append("]").toString();
+	}
+}
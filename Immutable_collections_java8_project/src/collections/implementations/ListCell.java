@@ -3,6 +3,8 @@ package collections.implementations;
 import java.util.function.Function;
 import java.util.function.UnaryOperator;
 
+import collections.instrumentation.Counters;
+
 // import collections.interfaces.InductiveIterativeList;
 // import collections.interfaces.IterativeList;
 // import collections.interfaces.ImmutableList;
@@ -13,21 +15,26 @@ public abstract class ListCell<E> {
 	protected ListCell<E> previous;
 
 	/** The cell after this one in the linked list */
-	protected ListCell<E> next;
+	protected volatile ListCell<E> next;
+
+	/** Version of the list at which the fields of this cell were last written */
+	private volatile int stamp;
 
-	final public ListCell<E> getPrevious() {
+	public ListCell<E> getPrevious() {
+		Counters.traversed(1);
 		return previous;
 	}
 
-	final public void setPrevious(ListCell<E> l) {
+	public void setPrevious(ListCell<E> l) {
 		this.previous = l;
 	}
 
 	public ListCell<E> getNext() {
+		Counters.traversed(1);
 		return this.next;
 	}
 
-	final public void setNext(ListCell<E> l) {
+	public void setNext(ListCell<E> l) {
 		this.next = l;
 	}
 
@@ -35,22 +42,69 @@ public abstract class ListCell<E> {
 		return this.getPrevious().isEmpty();
 	}
 
+	public int getStamp() {
+		return stamp;
+	}
+
+	/**
+	 * Records that the fields of this cell are about to be written at the
+	 * given version of the list. Must be called before writing them, so
+	 * that readers checking isIntact() after reading notice the change.
+	 *
+	 * @param version the version of the list being written
+	 */
+	public void touch(int version) {
+		this.stamp = version;
+	}
+
+	/**
+	 * Returns whether the fields of this cell still hold what they held
+	 * at the given version of the list.
+	 *
+	 * @param version the version the cell was read for
+	 * @return true if the cell was not written after that version
+	 */
+	public boolean isIntact(int version) {
+		return stamp <= version;
+	}
+
+	/**
+	 * Creates a cell holding item, and links it before this one.
+	 *
+	 * @param version the version of the list the cell is created at
+	 * @return the new cell
+	 */
+	public ListCell<E> insertBefore(E item, int version) {
+		return new ConsCell<E>(item, this, version);
+	}
+
+	/**
+	 * Returns the sentinel of a new empty list, whose cells are stored
+	 * like the ones of the list of this cell.
+	 *
+	 * @param capacity the expected number of cells of the new list
+	 * @return the sentinel of the new list
+	 */
+	public <R> ListCell<R> newList(int capacity) {
+		return new NilCell<R>();
+	}
+
 	abstract public boolean isEmpty();
 	abstract public E       getItem();
 	abstract public void    setItem(E item);
 
-	abstract public void concat(ListCell<E> cell);
-	abstract public void reverse(ListCell<E> nilCell);
+	abstract public void concat(ListCell<E> cell, int version);
+	abstract public void reverse(ListCell<E> nilCell, UnaryOperator<E> mapper, int version);
 	abstract public ListCell<E> clone();
 	abstract public <R> ListCell<R> map(Function<E, R> mapper);
-	abstract public void applyMap(UnaryOperator<E> mapper);
+	abstract public void applyMap(UnaryOperator<E> mapper, int version);
 
 	abstract public boolean isEqual(ListCell<?> cell);
 	// abstract public boolean isEqual(List<?> list);
 
 	static <E> void linkCells(ListCell<E> first, ListCell<E> second) {
-		first.next = second;
-		second.previous = first;
+		first.setNext(second);
+		second.setPrevious(first);
 	}
 }
 
@@ -73,13 +127,13 @@ final class NilCell<E> extends ListCell<E> {
 		throw new UnsupportedOperationException();
 	}
 
-	public void concat(ListCell<E> cell) {
+	public void concat(ListCell<E> cell, int version) {
 		throw new UnsupportedOperationException();
 	}
 
-	public void reverse(ListCell<E> nilCell) { }
+	public void reverse(ListCell<E> nilCell, UnaryOperator<E> mapper, int version) { }
 
-	public void applyMap(UnaryOperator<E> mapper) { }
+	public void applyMap(UnaryOperator<E> mapper, int version) { }
 
 	public <F> ListCell<F> map(Function<E, F> mapper) {
 		return new NilCell<F>();
@@ -105,9 +159,22 @@ final class NilCell<E> extends ListCell<E> {
 class ConsCell<E> extends ListCell<E> {
 
 	/** The element of this cell */
-	private E item;
+	private volatile E item;
 
 	public ConsCell(E head, ListCell<E> tail) {
+		this(head, tail, 0);
+	}
+
+	/**
+	 * Creates a cell holding head, and links it before tail.
+	 *
+	 * @param head the element of the cell
+	 * @param tail the cell to insert this one before
+	 * @param version the version of the list the cell is created at
+	 */
+	public ConsCell(E head, ListCell<E> tail, int version) {
+		Counters.copied(1);
+		touch(version);
 		setItem(head);
 		this.next = tail;
 		this.previous = tail.previous;
@@ -116,6 +183,7 @@ class ConsCell<E> extends ListCell<E> {
 	}
 
 	private ConsCell(E item) {
+		Counters.copied(1);
 		this.item = item;
 	}
 
@@ -131,22 +199,44 @@ class ConsCell<E> extends ListCell<E> {
 		this.item = item;
 	}
 
-	// TODO: do not copy & ++version
-	public void concat(ListCell<E> _cell) {
-		ListCell<E> cell = _cell.clone();
+	/**
+	 * Appends the given cells, which must not belong to any list, after the
+	 * last cell of the list this cell is the first of. Their sentinel
+	 * becomes the sentinel of the list.
+	 *
+	 * @param cell the first of the cells to append
+	 * @param version the version of the list being written
+	 */
+	public void concat(ListCell<E> cell, int version) {
 		ListCell<E> lastButOne = this.previous.previous;
-		this.previous = cell.previous;
+		ListCell<E> nilCell    = cell.previous;
+		lastButOne.touch(version);
+		linkCells(nilCell, this);
 		linkCells(lastButOne, cell);
 	}
 
+	/**
+	 * Reverses the cells from this one to the last one before nilCell, and
+	 * applies mapper to their items in the same pass.
+	 */
 	// ++version
-	public void reverse(ListCell<E> nilCell) {
+	public void reverse(ListCell<E> nilCell, UnaryOperator<E> mapper, int version) {
 		ListCell<E> rightCell = nilCell.previous;
 		ListCell<E> leftCell  = this;
 
-		while (leftCell != rightCell) {
-			E rightItem = rightCell.getItem();
-			rightCell.setItem(leftCell.getItem());
+		while (true) {
+			if (leftCell == rightCell) {
+				E item = mapper.apply(leftCell.getItem());
+				leftCell.touch(version);
+				leftCell.setItem(item);
+				break;
+			}
+
+			E leftItem  = mapper.apply(leftCell.getItem());
+			E rightItem = mapper.apply(rightCell.getItem());
+			rightCell.touch(version);
+			leftCell.touch(version);
+			rightCell.setItem(leftItem);
 			leftCell.setItem(rightItem);
 
 			if(leftCell.next == rightCell) {
@@ -155,6 +245,7 @@ class ConsCell<E> extends ListCell<E> {
 
 			leftCell  = leftCell.next;
 			rightCell = rightCell.previous;
+			Counters.traversed(2);
 		}
 	}
 
@@ -200,12 +291,12 @@ class ConsCell<E> extends ListCell<E> {
 	}
 
 	// ++version
-	public void applyMap(UnaryOperator<E> mapper) {
+	public void applyMap(UnaryOperator<E> mapper, int version) {
 		ListCell<E> cell = this;
-		cell.setItem(mapper.apply(cell.getItem()));
-		cell = cell.getNext();
 		while (!cell.isEmpty()) {
-			cell.setItem(mapper.apply(cell.getItem()));
+			E item = mapper.apply(cell.getItem());
+			cell.touch(version);
+			cell.setItem(item);
 			cell = cell.getNext();
 		}
 	}
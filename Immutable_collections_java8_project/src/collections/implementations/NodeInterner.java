@@ -0,0 +1,241 @@
+package collections.implementations;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import collections.interfaces.ImmutableCoreList;
+
+/**
+ * Marker for the nodes handed out by the interner. A chain made of interned
+ * nodes only is canonical: two such chains hold equal elements if and only
+ * if they start with the same node.
+ */
+final class InternedNode<E> extends Node<E> {
+
+	public InternedNode(E element, Node<E> next) {
+		super(element, next);
+	}
+}
+
+/**
+ * Hash-conses the nodes of linked lists so that lists built independently
+ * share a single copy of their equal suffixes.
+ *
+ * Nodes are canonicalized through a concurrent table keyed on their element
+ * (compared with equals) and on the identity of their next node. The table
+ * only holds weak references to the nodes: a suffix no list uses anymore is
+ * garbage collected as usual.
+ *
+ * Elements of interned lists are expected to be immutable, with consistent
+ * equals and hashCode methods.
+ */
+public final class NodeInterner {
+
+	/** Estimated size in bytes of a node: header, element and next */
+	static final long NODE_BYTES = 24;
+
+	/** Estimated size in bytes of a table entry: key, weak references to the node and to the next one, and map node */
+	static final long ENTRY_BYTES = 32 + 32 + 32 + 32;
+
+	/** Canonical nodes, indexed by element and next node */
+	private static final ConcurrentHashMap<Key, Ref> table =
+		new ConcurrentHashMap<Key, Ref>();
+
+	/** Where the garbage collector enqueues the references of dead nodes */
+	private static final ReferenceQueue<Node<?>> queue =
+		new ReferenceQueue<Node<?>>();
+
+	/** Number of nodes asked to the interner */
+	private static final LongAdder requested = new LongAdder();
+
+	/** Number of requests answered with an already existing node */
+	private static final LongAdder shared = new LongAdder();
+
+	private NodeInterner() {
+	}
+
+	/**
+	 * Returns the canonical node holding the given element followed by the
+	 * given (canonical) next node, creating it if needed.
+	 *
+	 * @param element the element of the node
+	 * @param next the next node, which must be interned or null
+	 * @return the canonical node
+	 */
+	@SuppressWarnings("unchecked")
+	static <E> Node<E> intern(E element, Node<E> next) {
+		expungeStaleEntries();
+		requested.increment();
+
+		Key key = new Key(element, next);
+		for (;;) {
+			Ref ref = table.get(key);
+			if (ref != null) {
+				Node<?> node = ref.get();
+				if (node != null) {
+					shared.increment();
+					return (Node<E>) node;
+				}
+				table.remove(key, ref);
+			}
+
+			Node<E> node = new InternedNode<E>(element, next);
+			Key stored = key.weak();
+			if (table.putIfAbsent(stored, new Ref(stored, node, queue)) == null)
+				return node;
+		}
+	}
+
+	/**
+	 * Removes from the table the entries whose node has been collected.
+	 */
+	private static void expungeStaleEntries() {
+		for (Object ref; (ref = queue.poll()) != null; )
+			table.remove(((Ref) ref).key, ref);
+	}
+
+	/**
+	 * Returns a snapshot of the interner activity since the program started.
+	 *
+	 * @return the interner statistics
+	 */
+	public static Statistics statistics() {
+		expungeStaleEntries();
+		return new Statistics(requested.sum(), shared.sum(), table.size());
+	}
+
+	/**
+	 * Snapshot of the interner activity, with an estimate of the memory it
+	 * saved.
+	 */
+	public static final class Statistics {
+
+		private final long requested;
+		private final long shared;
+		private final long live;
+
+		private Statistics(long requested, long shared, long live) {
+			this.requested = requested;
+			this.shared    = shared;
+			this.live      = live;
+		}
+
+		/**
+		 * Returns the number of nodes the interned lists asked for.
+		 *
+		 * @return the number of nodes asked for
+		 */
+		public long nodesRequested() {
+			return requested;
+		}
+
+		/**
+		 * Returns the number of nodes which were not allocated because an
+		 * equal one already existed.
+		 *
+		 * @return the number of shared nodes
+		 */
+		public long nodesShared() {
+			return shared;
+		}
+
+		/**
+		 * Returns the number of canonical nodes currently alive.
+		 *
+		 * @return the number of live canonical nodes
+		 */
+		public long liveNodes() {
+			return live;
+		}
+
+		/**
+		 * Returns an estimate of the bytes saved by interning: the size of
+		 * the nodes which were shared, minus the size of the table entries
+		 * of the live nodes. It may be negative when few suffixes are shared.
+		 *
+		 * @return the estimated number of bytes saved
+		 */
+		public long estimatedBytesSaved() {
+			return shared * NODE_BYTES - live * ENTRY_BYTES;
+		}
+
+		public String toString() {
+			return "NodeInterner: " + requested + " nodes requested, " +
+				shared + " shared, " + live + " live, ~" +
+				estimatedBytesSaved() + " bytes saved";
+		}
+	}
+
+	/**
+	 * Key of a node: its element and the identity of its next node. The keys
+	 * in the table only refer weakly to the next node, so that the nodes of
+	 * a dead chain are all collected in the same cycle, instead of each key
+	 * keeping the next node alive until the previous one is expunged.
+	 */
+	private static final class Key {
+
+		private final Object element;
+		private final int hash;
+
+		/** The next node, for a lookup key, or null */
+		private final Node<?> next;
+
+		/** A reference to the next node, for a key of the table, or null */
+		private final WeakReference<Node<?>> ref;
+
+		/** Returns a lookup key */
+		Key(Object element, Node<?> next) {
+			this(element, next, null, 31 * ImmutableCoreList.hashCode(element) + System.identityHashCode(next));
+		}
+
+		private Key(Object element, Node<?> next, WeakReference<Node<?>> ref, int hash) {
+			this.element = element;
+			this.next    = next;
+			this.ref     = ref;
+			this.hash    = hash;
+		}
+
+		/** Returns the key to store in the table, for the same node */
+		Key weak() {
+			return next == null ? this : new Key(element, null, new WeakReference<Node<?>>(next), hash);
+		}
+
+		/** The next node, null at the end of a list or once collected */
+		private Node<?> next() {
+			return ref != null ? ref.get() : next;
+		}
+
+		/** Whether the next node was collected */
+		private boolean isStale() {
+			return ref != null && ref.get() == null;
+		}
+
+		public int hashCode() {
+			return hash;
+		}
+
+		public boolean equals(Object o) {
+			if (o == this)
+				return true;
+			if (!(o instanceof Key))
+				return false;
+			Key other = (Key) o;
+			// A key whose next node was collected is only equal to itself
+			return !isStale() && !other.isStale() && next() == other.next() &&
+				ImmutableCoreList.equals(element, other.element);
+		}
+	}
+
+	/** Weak reference to a canonical node, which remembers its key */
+	private static final class Ref extends WeakReference<Node<?>> {
+
+		private final Key key;
+
+		Ref(Key key, Node<?> node, ReferenceQueue<Node<?>> queue) {
+			super(node, queue);
+			this.key = key;
+		}
+	}
+}
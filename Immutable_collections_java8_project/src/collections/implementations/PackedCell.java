@@ -0,0 +1,319 @@
+package collections.implementations;
+
+import java.util.Arrays;
+import java.util.function.Function;
+import java.util.function.UnaryOperator;
+
+import collections.instrumentation.Counters;
+import collections.instrumentation.MemoryLayout;
+
+/**
+ * Handle on a cell of a PackedCellStore: the store and the index of the
+ * cell in it. Handles are created on demand, and equal when they designate
+ * the same cell. The fields inherited from ListCell are not used.
+ */
+final class PackedCell<E> extends ListCell<E> {
+
+	private final PackedCellStore<E> store;
+	private final int index;
+
+	PackedCell(PackedCellStore<E> store, int index) {
+		this.store = store;
+		this.index = index;
+	}
+
+	PackedCellStore<E> store() {
+		return store;
+	}
+
+	private int indexOf(ListCell<E> cell) {
+		PackedCell<E> packedCell = (PackedCell<E>) cell;
+		if (packedCell.store != store)
+			throw new IllegalArgumentException("Cells of different stores cannot be linked");
+		return packedCell.index;
+	}
+
+	public ListCell<E> getPrevious() {
+		Counters.traversed(1);
+		return store.cell(store.previous[index]);
+	}
+
+	public void setPrevious(ListCell<E> l) {
+		store.previous[index] = indexOf(l);
+	}
+
+	public ListCell<E> getNext() {
+		Counters.traversed(1);
+		return store.cell(store.next[index]);
+	}
+
+	public void setNext(ListCell<E> l) {
+		store.next[index] = indexOf(l);
+	}
+
+	public int getStamp() {
+		return store.stamp(index);
+	}
+
+	public void touch(int version) {
+		store.touch(index, version);
+	}
+
+	public boolean isIntact(int version) {
+		return store.stamp(index) <= version;
+	}
+
+	public boolean isEmpty() {
+		return index == 0;
+	}
+
+	public E getItem() {
+		if (index == 0)
+			throw new UnsupportedOperationException();
+		return store.item(index);
+	}
+
+	public void setItem(E item) {
+		if (index == 0)
+			throw new UnsupportedOperationException();
+		store.items[index] = item;
+	}
+
+	public ListCell<E> insertBefore(E item, int version) {
+		return store.cell(store.insertBefore(index, item, version));
+	}
+
+	public <R> ListCell<R> newList(int capacity) {
+		return new PackedCellStore<R>(capacity).cell(0);
+	}
+
+	/**
+	 * Appends copies of the given cells, which must be the first ones of
+	 * another store, after the last cell of the list. The sentinel of the
+	 * list is kept.
+	 */
+	public void concat(ListCell<E> cell, int version) {
+		PackedCell<E> first = (PackedCell<E>) cell;
+		store.append(first.store, first.index, version);
+	}
+
+	public void reverse(ListCell<E> nilCell, UnaryOperator<E> mapper, int version) {
+		store.reverse(index, mapper, version);
+	}
+
+	public void applyMap(UnaryOperator<E> mapper, int version) {
+		for (int cell = index ; cell != 0 ; cell = store.next[cell]) {
+			E item = mapper.apply(store.item(cell));
+			store.touch(cell, version);
+			store.items[cell] = item;
+			Counters.traversed(1);
+		}
+	}
+
+	public ListCell<E> clone() {
+		return map(Function.identity());
+	}
+
+	public <R> ListCell<R> map(Function<E, R> mapper) {
+		PackedCellStore<R> copy = store.map(index, mapper);
+		return copy.cell(copy.next[0]);
+	}
+
+	public boolean isEqual(ListCell<?> cell) {
+		ListCell<E> thisCell = this;
+		while (!thisCell.isEmpty() && !cell.isEmpty()) {
+			if (!thisCell.getItem().equals(cell.getItem()))
+				return false;
+			thisCell = thisCell.getNext();
+			cell     = cell.getNext();
+		}
+		return thisCell.isEmpty() && cell.isEmpty();
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		if (!(o instanceof PackedCell<?>))
+			return false;
+		PackedCell<?> other = (PackedCell<?>) o;
+		return store == other.store && index == other.index;
+	}
+
+	@Override
+	public int hashCode() {
+		return 31 * System.identityHashCode(store) + index;
+	}
+}
+
+/**
+ * Cells of a list packed in parallel arrays: the items in an Object[], the
+ * links as indices in two int[]. Slot 0 is the sentinel. A cell costs 12
+ * bytes rather than the 32 of a ConsCell, and 4 more once cells are
+ * written after version 0, when the stamps are allocated.
+ *
+ * Slots are allocated at the end of the arrays, which grow by half. The
+ * lists never unlink a cell (the versions keep older views reachable), so
+ * every slot in use is a cell of the list. The store is not thread safe:
+ * it only backs non concurrent lists.
+ */
+final class PackedCellStore<E> {
+
+	/** Items of the cells, null for the sentinel */
+	Object[] items;
+
+	/** Indices of the cells before and after each cell */
+	int[] previous;
+	int[] next;
+
+	/** Versions at which the cells were last written, null while they all are 0 */
+	private int[] stamps;
+
+	/** Number of slots in use, the sentinel included */
+	private int used = 1;
+
+	PackedCellStore(int capacity) {
+		this.items    = new Object[capacity + 1];
+		this.previous = new int[capacity + 1];
+		this.next     = new int[capacity + 1];
+	}
+
+	PackedCell<E> cell(int index) {
+		return new PackedCell<E>(this, index);
+	}
+
+	/**
+	 * Returns the bytes taken by this store and its arrays.
+	 */
+	long retainedBytes() {
+		long bytes = MemoryLayout.shallowSize(getClass())
+			+ MemoryLayout.referenceArraySize(items.length)
+			+ MemoryLayout.intArraySize(previous.length)
+			+ MemoryLayout.intArraySize(next.length);
+		if (stamps != null)
+			bytes += MemoryLayout.intArraySize(stamps.length);
+		return bytes;
+	}
+
+	@SuppressWarnings("unchecked")
+	E item(int index) {
+		return (E) items[index];
+	}
+
+	int stamp(int index) {
+		return stamps == null ? 0 : stamps[index];
+	}
+
+	void touch(int index, int version) {
+		if (stamps == null) {
+			if (version == 0)
+				return;
+			stamps = new int[items.length];
+		}
+		stamps[index] = version;
+	}
+
+	private void link(int first, int second) {
+		next[first]      = second;
+		previous[second] = first;
+	}
+
+	private int allocate() {
+		if (used == items.length) {
+			int capacity = used + (used >> 1) + 1;
+			items    = Arrays.copyOf(items, capacity);
+			previous = Arrays.copyOf(previous, capacity);
+			next     = Arrays.copyOf(next, capacity);
+			if (stamps != null)
+				stamps = Arrays.copyOf(stamps, capacity);
+		}
+		Counters.copied(1);
+		return used++;
+	}
+
+	/**
+	 * Creates a cell holding item, and links it before the given one.
+	 *
+	 * @return the index of the new cell
+	 */
+	int insertBefore(int index, E item, int version) {
+		int cell = allocate();
+		touch(cell, version);
+		items[cell] = item;
+		link(previous[index], cell);
+		link(cell, index);
+		return cell;
+	}
+
+	/**
+	 * Appends copies of the cells of the other store, from the given one,
+	 * after the last cell of this store.
+	 */
+	void append(PackedCellStore<E> other, int first, int version) {
+		int last = previous[0];
+		touch(last, version);
+		for (int cell = first ; cell != 0 ; cell = other.next[cell]) {
+			int copy = allocate();
+			touch(copy, version);
+			items[copy] = other.items[cell];
+			link(last, copy);
+			last = copy;
+			Counters.traversed(1);
+		}
+		link(last, 0);
+	}
+
+	/**
+	 * Reverses the cells from the given one to the last one, and applies
+	 * mapper to their items in the same pass.
+	 */
+	void reverse(int index, UnaryOperator<E> mapper, int version) {
+		int left  = index;
+		int right = previous[0];
+		while (true) {
+			if (left == right) {
+				E item = mapper.apply(item(left));
+				touch(left, version);
+				items[left] = item;
+				break;
+			}
+
+			E leftItem  = mapper.apply(item(left));
+			E rightItem = mapper.apply(item(right));
+			touch(left, version);
+			touch(right, version);
+			items[right] = leftItem;
+			items[left]  = rightItem;
+
+			if (next[left] == right)
+				break;
+			left  = next[left];
+			right = previous[right];
+			Counters.traversed(2);
+		}
+	}
+
+	/**
+	 * Returns a new store holding the images of the cells from the given
+	 * one. When it is the first cell, the arrays are copied as they are,
+	 * and mapper is applied in the order of the slots.
+	 */
+	<R> PackedCellStore<R> map(int index, Function<E, R> mapper) {
+		if (previous[index] != 0) {
+			PackedCellStore<R> copy = new PackedCellStore<R>(0);
+			for (int cell = index ; cell != 0 ; cell = next[cell]) {
+				copy.insertBefore(0, mapper.apply(item(cell)), 0);
+				Counters.traversed(1);
+			}
+			return copy;
+		}
+
+		PackedCellStore<R> copy = new PackedCellStore<R>(used - 1);
+		for (int cell = 1 ; cell < used ; ++cell)
+			copy.items[cell] = mapper.apply(item(cell));
+		System.arraycopy(previous, 0, copy.previous, 0, used);
+		System.arraycopy(next, 0, copy.next, 0, used);
+		copy.used = used;
+		Counters.traversed(used - 1);
+		Counters.copied(used - 1);
+		return copy;
+	}
+}
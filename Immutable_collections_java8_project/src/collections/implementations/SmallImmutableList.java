@@ -0,0 +1,298 @@
+package collections.implementations;
+
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.RandomAccess;
+
+import collections.instrumentation.Counters;
+import collections.instrumentation.MemoryLayout;
+import collections.instrumentation.MemoryStats;
+import collections.instrumentation.MemoryStats.Representation;
+import collections.interfaces.ImmutableCoreList;
+import collections.interfaces.ImmutableList;
+import collections.interfaces.IterativeList;
+
+/**
+ * Lists of one to four elements, which hold them in fields rather than in
+ * an array or in nodes. They transparently grow into an ImmutableArrayList
+ * or an ImmutableLinkedList, depending on the factory which created them.
+ * Their get is O(1), whatever they grow into.
+ */
+abstract class SmallImmutableList<E> implements ImmutableList<E>, RandomAccess {
+
+	/** The most elements a small list holds */
+	static final int MAX_SIZE = 4;
+
+	/** Whether this list grows into an ImmutableLinkedList rather than an ImmutableArrayList */
+	protected final boolean linked;
+
+	SmallImmutableList(boolean linked) {
+		this.linked = linked;
+	}
+
+	/**
+	 * Returns a list containing the given elements, which is small enough
+	 * to hold them in fields, or grows into the requested implementation.
+	 *
+	 * @param linked whether the list grows into an ImmutableLinkedList
+	 * @param elems the elements of the list
+	 * @return a list containing the given elements
+	 * @throws NullPointerException if elems is null
+	 */
+	static <E> ImmutableList<E> of(boolean linked, E[] elems) {
+		switch (elems.length) {
+		case 0:
+			if (linked)
+				return ImmutableLinkedList.empty();
+			return ImmutableArrayList.empty();
+		case 1:
+			return new List1<E>(linked, elems[0]);
+		case 2:
+			return new List2<E>(linked, elems[0], elems[1]);
+		case 3:
+			return new List3<E>(linked, elems[0], elems[1], elems[2]);
+		case 4:
+			return new List4<E>(linked, elems[0], elems[1], elems[2], elems[3]);
+		default:
+			if (linked)
+				return new ImmutableLinkedList<E>(elems);
+			return new ImmutableArrayList<E>(elems);
+		}
+	}
+
+	/**
+	 * Returns a new array holding the elements of this list.
+	 *
+	 * @return a new array holding the elements of this list
+	 */
+	public abstract E[] toArray();
+
+	public ImmutableList<E> create(E[] elems) {
+		return of(linked, elems);
+	}
+
+	@SuppressWarnings("unchecked")
+	public <F> ImmutableList<F> create(Collection<F> elems) {
+		return of(linked, (F[]) elems.toArray());
+	}
+
+	@SuppressWarnings("unchecked")
+	public ImmutableList<E> subList(int fromIndex, int toIndex)
+			throws IndexOutOfBoundsException, IllegalArgumentException {
+		if (fromIndex < 0 || toIndex > size())
+			throw new IndexOutOfBoundsException();
+		if (fromIndex > toIndex)
+			throw new IllegalArgumentException();
+
+		E[] elems = (E[]) new Object[toIndex - fromIndex];
+		for (int i = fromIndex ; i < toIndex ; ++i)
+			elems[i - fromIndex] = get(i);
+		Counters.copied(elems.length);
+		return of(linked, elems);
+	}
+
+	@SuppressWarnings("unchecked")
+	public ImmutableList<E> remove(int index) throws ArrayIndexOutOfBoundsException {
+		if (index >= size() || index < 0)
+			throw new ArrayIndexOutOfBoundsException();
+
+		E[] elems = (E[]) new Object[size() - 1];
+		for (int i = 0, j = 0 ; i < size() ; ++i)
+			if (i != index)
+				elems[j++] = get(i);
+		Counters.copied(elems.length);
+		return of(linked, elems);
+	}
+
+	@SuppressWarnings("unchecked")
+	public ImmutableList<E> cons(E elem) {
+		E[] elems = (E[]) new Object[size() + 1];
+		elems[0] = elem;
+		for (int i = 0 ; i < size() ; ++i)
+			elems[i + 1] = get(i);
+		Counters.copied(elems.length);
+		return of(linked, elems);
+	}
+
+	@SuppressWarnings("unchecked")
+	public ImmutableList<E> concat(E elem) {
+		E[] elems = (E[]) new Object[size() + 1];
+		for (int i = 0 ; i < size() ; ++i)
+			elems[i] = get(i);
+		elems[size()] = elem;
+		Counters.copied(elems.length);
+		return of(linked, elems);
+	}
+
+	@SuppressWarnings("unchecked")
+	public ImmutableList<E> reverse() {
+		E[] elems = (E[]) new Object[size()];
+		for (int i = 0 ; i < size() ; ++i)
+			elems[size() - 1 - i] = get(i);
+		Counters.copied(elems.length);
+		return of(linked, elems);
+	}
+
+	public Iterator<E> iterator() {
+		return new SmallListIterator();
+	}
+
+	@Override
+	public MemoryStats explain() {
+		long shallow = MemoryLayout.shallowSize(getClass());
+		return new MemoryStats(Representation.FIELDS, shallow, shallow, 0, 0);
+	}
+
+	@Override
+	public ImmutableCoreList<E> clone() {
+		return this;
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		return IterativeList.equals(this, o);
+	}
+
+	@Override
+	public int hashCode() {
+		return ImmutableCoreList.hashCode(this);
+	}
+
+	class SmallListIterator implements Iterator<E> {
+
+		/** Index of the next element returned by the iterator */
+		private int index;
+
+		public boolean hasNext() {
+			return index < size();
+		}
+
+		public E next() throws NoSuchElementException {
+			if (!hasNext())
+				throw new NoSuchElementException();
+			return get(index++);
+		}
+	}
+}
+
+final class List1<E> extends SmallImmutableList<E> {
+
+	private final E e0;
+
+	List1(boolean linked, E e0) {
+		super(linked);
+		this.e0 = e0;
+	}
+
+	public int size() {
+		return 1;
+	}
+
+	public E get(int index) throws IndexOutOfBoundsException {
+		if (index != 0)
+			throw new IndexOutOfBoundsException();
+		return e0;
+	}
+
+	@SuppressWarnings("unchecked")
+	public E[] toArray() {
+		return (E[]) new Object[] { e0 };
+	}
+}
+
+final class List2<E> extends SmallImmutableList<E> {
+
+	private final E e0;
+	private final E e1;
+
+	List2(boolean linked, E e0, E e1) {
+		super(linked);
+		this.e0 = e0;
+		this.e1 = e1;
+	}
+
+	public int size() {
+		return 2;
+	}
+
+	public E get(int index) throws IndexOutOfBoundsException {
+		switch (index) {
+		case 0: return e0;
+		case 1: return e1;
+		default: throw new IndexOutOfBoundsException();
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	public E[] toArray() {
+		return (E[]) new Object[] { e0, e1 };
+	}
+}
+
+final class List3<E> extends SmallImmutableList<E> {
+
+	private final E e0;
+	private final E e1;
+	private final E e2;
+
+	List3(boolean linked, E e0, E e1, E e2) {
+		super(linked);
+		this.e0 = e0;
+		this.e1 = e1;
+		this.e2 = e2;
+	}
+
+	public int size() {
+		return 3;
+	}
+
+	public E get(int index) throws IndexOutOfBoundsException {
+		switch (index) {
+		case 0: return e0;
+		case 1: return e1;
+		case 2: return e2;
+		default: throw new IndexOutOfBoundsException();
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	public E[] toArray() {
+		return (E[]) new Object[] { e0, e1, e2 };
+	}
+}
+
+final class List4<E> extends SmallImmutableList<E> {
+
+	private final E e0;
+	private final E e1;
+	private final E e2;
+	private final E e3;
+
+	List4(boolean linked, E e0, E e1, E e2, E e3) {
+		super(linked);
+		this.e0 = e0;
+		this.e1 = e1;
+		this.e2 = e2;
+		this.e3 = e3;
+	}
+
+	public int size() {
+		return 4;
+	}
+
+	public E get(int index) throws IndexOutOfBoundsException {
+		switch (index) {
+		case 0: return e0;
+		case 1: return e1;
+		case 2: return e2;
+		case 3: return e3;
+		default: throw new IndexOutOfBoundsException();
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	public E[] toArray() {
+		return (E[]) new Object[] { e0, e1, e2, e3 };
+	}
+}
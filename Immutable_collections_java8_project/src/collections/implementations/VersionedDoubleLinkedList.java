@@ -1,115 +1,619 @@
 package collections.implementations;
 
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
 import java.util.function.Function;
 import java.util.function.UnaryOperator;
 
+import collections.instrumentation.Counters;
+import collections.instrumentation.Events;
+import collections.instrumentation.MemoryLayout;
+
+/**
+ * Doubly linked list shared by the proxies of its versions. A proxy of the
+ * current version modifies the cells in place, in O(1) for cons. Before
+ * doing so, it saves in the current version the values it overwrites: the
+ * proxies of older versions read their view through them, and work on a
+ * copy of it when they modify it. Versions no proxy refers to anymore are
+ * garbage collected, with the values they saved.
+ *
+ * Each version refers to the next one, so that a proxy of an old version
+ * keeps the newer ones reachable. Once the versions since the last
+ * checkpoint saved as many values as the list has cells, the next one
+ * saves all the cells of the list, and is not linked to the versions
+ * after it: a stale proxy retains, and walks, at most that many values.
+ *
+ * In concurrent mode, the list may be shared between threads. Writers claim
+ * the next version with a compare-and-set: only a proxy of the current
+ * version can win, and the first one to claim it does. Readers do not lock:
+ * they read a cell, then check with its stamp that it was not written after
+ * their version, and read the saved values if it was.
+ *
+ * The cells are either objects (ConsCell), or packed in the arrays of a
+ * PackedCellStore, which takes less than half the memory and copies a
+ * whole list as arrays. Packed lists are not concurrent, and their cells
+ * are copied rather than moved when they are concatenated.
+ */
 // TODO: double pointer
 public final class VersionedDoubleLinkedList<E> {
 
-	private ListCell<E> firstCell;
-	private int version;
+	/** Number of values saved by the versions between two checkpoints, at least */
+	private static final int MIN_CHECKPOINT = 256;
+
+	@SuppressWarnings("rawtypes")
+	private static final AtomicIntegerFieldUpdater<VersionedDoubleLinkedList> CLAIMED =
+		AtomicIntegerFieldUpdater.newUpdater(VersionedDoubleLinkedList.class, "claimed");
+
+	private volatile ListCell<E> firstCell;
+	private volatile Version<E> version;
+
+	/** Number of the version being written, equal to the current one when no writer is running */
+	private volatile int claimed;
+
+	/** Number of cells of the list, at its current version */
+	private volatile int size;
+
+	/** Number of values saved by the versions since the last checkpoint */
+	private int savedSinceCheckpoint;
+
+	/** Whether proxies of the list may be used from several threads */
+	private final boolean concurrent;
 
 	public VersionedDoubleLinkedList() {
-		this(new NilCell<E>(), 0);
+		this(false);
+	}
+
+	/**
+	 * Creates an empty list.
+	 *
+	 * @param concurrent whether proxies of the list may be used from several threads
+	 */
+	public VersionedDoubleLinkedList(boolean concurrent) {
+		this(new NilCell<E>(), 0, concurrent);
 	}
 
 	public VersionedDoubleLinkedList(ListCell<E> newFirstCell, int version) {
-		this.version   = version;
-		this.firstCell = newFirstCell;
+		this(newFirstCell, version, false);
+	}
+
+	public VersionedDoubleLinkedList(ListCell<E> newFirstCell, int version, boolean concurrent) {
+		this(newFirstCell, version, concurrent, count(newFirstCell));
+	}
+
+	VersionedDoubleLinkedList(ListCell<E> newFirstCell, int version, boolean concurrent, int size) {
+		if (concurrent && newFirstCell instanceof PackedCell<?>)
+			throw new IllegalArgumentException("Packed lists cannot be concurrent");
+		this.version    = new Version<E>(version);
+		this.claimed    = version;
+		this.firstCell  = newFirstCell;
+		this.size       = size;
+		this.concurrent = concurrent;
+	}
+
+	/**
+	 * Returns a new non concurrent list holding the given elements, whose
+	 * cells are packed in arrays.
+	 *
+	 * @param elems the elements of the list
+	 * @return a new packed list holding the given elements
+	 */
+	public static <E> VersionedDoubleLinkedList<E> packed(E[] elems) {
+		return create(new PackedCellStore<E>(elems.length).cell(0), elems, false);
+	}
+
+	/**
+	 * Returns a new list, at version 0, holding the given elements: in the
+	 * same mode as this list, and with the same kind of cells.
+	 *
+	 * @param elems the elements of the new list
+	 * @return a new list holding the given elements
+	 */
+	public <F> VersionedDoubleLinkedList<F> create(F[] elems) {
+		return create(firstCell.<F>newList(elems.length), elems, concurrent);
+	}
+
+	private static <E> VersionedDoubleLinkedList<E> create(ListCell<E> nilCell, E[] elems, boolean concurrent) {
+		for (E elem : elems)
+			nilCell.insertBefore(elem, 0);
+		return new VersionedDoubleLinkedList<E>(nilCell.getNext(), 0, concurrent, elems.length);
+	}
+
+	private static <E> int count(ListCell<E> firstCell) {
+		int size = 0;
+		for (ListCell<E> cell = firstCell ; !cell.isEmpty() ; cell = cell.getNext())
+			++size;
+		return size;
 	}
 
 	public ListCell<E> getFirstCell(){
 		return this.firstCell;
 	}
 
-	public int getVersion() {
+	public Version<E> getVersion() {
 		return this.version;
 	}
 
-	private void checkVersion(int clientVersion) {
-		if (clientVersion == this.version)
-			return;
-		throw new UnsupportedOperationException("Version is outdated. Found: " +
-							clientVersion                  +
-							" - Expected: "                +
-							this.version);
+	/**
+	 * Returns the current version of the list, once the writer modifying
+	 * it, if any, has published its changes.
+	 *
+	 * @return the current version of the list
+	 */
+	public Version<E> getStableVersion() {
+		Version<E> current = this.version;
+		while (concurrent && current.number != this.claimed) {
+			Thread.yield();
+			current = this.version;
+		}
+		return current;
+	}
+
+	public boolean isConcurrent() {
+		return concurrent;
+	}
+
+	/**
+	 * Returns the number of cells of the list, at its current version.
+	 *
+	 * @return the number of cells of the list
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Returns the number of cells of the view starting at the given cell:
+	 * in O(1) for the whole list at its current version, by walking the
+	 * view otherwise.
+	 *
+	 * @return the number of cells of the view
+	 */
+	public int size(ListCell<E> thisCell, Version<E> thisVersion) {
+		int size = this.size;
+		if (thisCell.equals(this.firstCell) && thisVersion == this.version && thisVersion.number == this.claimed)
+			return size;
+
+		size = 0;
+		for (ListCell<E> cell = thisCell ; !cell.isEmpty() ; cell = next(cell, thisVersion))
+			++size;
+		return size;
+	}
+
+	/**
+	 * Returns the bytes a proxy of the given version keeps reachable
+	 * through this list: the list, its cells at the current version, and
+	 * the versions from the given one with the values they saved. The
+	 * cells only older versions still refer to are not counted.
+	 *
+	 * @param from the version of the proxy
+	 * @return the bytes retained by a proxy of the version
+	 */
+	long retainedBytes(Version<E> from) {
+		long bytes = MemoryLayout.shallowSize(getClass());
+		ListCell<E> first = this.firstCell;
+		if (first instanceof PackedCell<?>)
+			bytes += MemoryLayout.shallowSize(first.getClass()) + ((PackedCell<E>) first).store().retainedBytes();
+		else
+			bytes += MemoryLayout.shallowSize(NilCell.class) + (long) size * MemoryLayout.shallowSize(ConsCell.class);
+
+		for (Version<E> version = from ; version != null ; version = version.next) {
+			Saved<E> overwritten = version.overwritten;
+			bytes += MemoryLayout.shallowSize(Version.class)
+				+ (overwritten == null ? 0 : overwritten.retainedBytes());
+		}
+		return bytes;
+	}
+
+	private E item(ListCell<E> cell, Version<E> clientVersion) {
+		E item = cell.getItem();
+		if (cell.isIntact(clientVersion.number))
+			return item;
+		Counters.event(this, "outdatedRead");
+		return clientVersion.saved(cell).item;
+	}
+
+	private ListCell<E> next(ListCell<E> cell, Version<E> clientVersion) {
+		ListCell<E> next = cell.getNext();
+		if (cell.isIntact(clientVersion.number))
+			return next;
+		Counters.event(this, "outdatedRead");
+		return clientVersion.saved(cell).next;
+	}
+
+	/**
+	 * Claims the right to modify the cells of the list in place, on behalf
+	 * of a proxy of the given version. Must be followed by save() and
+	 * publish().
+	 *
+	 * @return the version the modification produces, or null if the client
+	 * lost: it is not the current version, or another writer claimed it first
+	 */
+	private Version<E> claim(Version<E> clientVersion) {
+		return claim(clientVersion, clientVersion.number + 1);
 	}
 
-	public void addFirst(E head, ListCell<E> cell, int clientVersion) {
-		this.checkVersion(clientVersion);
+	private Version<E> claim(Version<E> clientVersion, int newNumber) {
+		if (concurrent) {
+			if (!CLAIMED.compareAndSet(this, clientVersion.number, newNumber))
+				return null;
+		} else if (clientVersion != this.version) {
+			return null;
+		}
+		return new Version<E>(newNumber);
+	}
+
+	/**
+	 * Gives up a claim, without modifying the list.
+	 */
+	private void release(Version<E> clientVersion) {
+		if (concurrent)
+			this.claimed = clientVersion.number;
+	}
+
+	/**
+	 * Saves in the current version the values of the count cells from the
+	 * given one, about to be written. Must be called before touching them.
+	 *
+	 * Once the versions since the last checkpoint saved as many values as
+	 * the list has cells, all of them are saved instead, and the current
+	 * version becomes a checkpoint: publish() does not link it to the next
+	 * one.
+	 */
+	private void save(ListCell<E> first, int count) {
+		Version<E> current = this.version;
+		if (savedSinceCheckpoint + count >= Math.max(MIN_CHECKPOINT, size)) {
+			current.overwritten  = new SavedView<E>(firstCell, size);
+			current.checkpoint   = true;
+			savedSinceCheckpoint = 0;
+		} else if (count > 0) {
+			current.overwritten   = count == 1 ? new Revision<E>(first) : new SavedView<E>(first, count);
+			savedSinceCheckpoint += count;
+		}
+	}
+
+	private void publish(Version<E> newVersion) {
+		if (!this.version.checkpoint)
+			this.version.next = newVersion;
+		this.version = newVersion;
+	}
+
+	/**
+	 * Adds head before the given cell, in a new cell if it is the first one,
+	 * or else in the cell before it.
+	 *
+	 * @return the version of the list holding head, or null if the client lost
+	 */
+	public Version<E> addFirst(E head, ListCell<E> cell, Version<E> clientVersion) {
+		if (cell.isFirst() && !concurrent && clientVersion == this.version) {
+			// No other proxy sees the new cell: the version is unchanged
+			this.firstCell = cell.insertBefore(head, clientVersion.number);
+			this.size++;
+			return clientVersion;
+		}
+
+		Version<E> newVersion = claim(clientVersion);
+		if (newVersion == null)
+			return null;
+
 		if (cell.isFirst()) {
-			this.firstCell = new ConsCell<E>(head, cell);
+			this.firstCell = cell.insertBefore(head, newVersion.number);
+			this.size++;
 		} else {
-			this.version++;
-			cell.getPrevious().setItem(head);
+			ListCell<E> previous = cell.getPrevious();
+			save(previous, 1);
+			previous.touch(newVersion.number);
+			previous.setItem(head);
 		}
+		publish(newVersion);
+		return newVersion;
 	}
 
-	public ListCell<E> tail(ListCell<E> thisCell, int thisVersion) {
-		this.checkVersion(thisVersion);
-		return thisCell.getNext();
+	/**
+	 * Adds the given elements, in order, before the given cell, in one
+	 * pass and with at most one new version. As for addFirst(), the cells
+	 * before the given one are reused first, and new cells are linked for
+	 * the other elements.
+	 *
+	 * @return the version of the list holding the elements, or null if the client lost
+	 */
+	public Version<E> addAllFirst(E[] elems, ListCell<E> cell, Version<E> clientVersion) {
+		if (elems.length == 0)
+			return clientVersion;
+		if (cell.isFirst() && !concurrent && clientVersion == this.version) {
+			// No other proxy sees the new cells: the version is unchanged
+			insertAll(elems, elems.length, cell, clientVersion.number);
+			return clientVersion;
+		}
+
+		Version<E> newVersion = claim(clientVersion);
+		if (newVersion == null)
+			return null;
+
+		int inserted = elems.length;
+		ListCell<E> first = cell;
+		for ( ; inserted > 0 && !first.isFirst() ; --inserted)
+			first = first.getPrevious();
+		save(first, elems.length - inserted);
+
+		ListCell<E> reused = first;
+		for (int i = inserted ; i < elems.length ; ++i) {
+			reused.touch(newVersion.number);
+			reused.setItem(elems[i]);
+			reused = reused.getNext();
+		}
+		if (inserted > 0)
+			insertAll(elems, inserted, first, newVersion.number);
+		publish(newVersion);
+		return newVersion;
 	}
 
-	public E head(ListCell<E> thisCell, int thisVersion) {
-		this.checkVersion(thisVersion);
-		return thisCell.getItem();
+	/**
+	 * Links new cells holding the first count elements before the given
+	 * first cell of the list.
+	 */
+	private void insertAll(E[] elems, int count, ListCell<E> cell, int version) {
+		for (int i = count - 1 ; i >= 0 ; --i)
+			cell = cell.insertBefore(elems[i], version);
+		this.firstCell = cell;
+		this.size += count;
 	}
 
-	public ListCell<E> concatenate(ListCell<E> thisCell,
-				       int thisVersion,
-				       VersionedDoubleLinkedList<E> other,
-				       ListCell<E> otherCell,
-				       int otherVersion) {
-		this.checkVersion(thisVersion);
-		other.checkVersion(otherVersion);
+	public ListCell<E> tail(ListCell<E> thisCell, Version<E> thisVersion) {
+		return next(thisCell, thisVersion);
+	}
 
-		if (otherCell.isEmpty())
-			return thisCell;
+	public E head(ListCell<E> thisCell, Version<E> thisVersion) {
+		return item(thisCell, thisVersion);
+	}
 
-		if (thisCell.isEmpty()) {
-			this.version++;
-			this.firstCell = otherCell.clone(); // TODO: do not copy
-			return this.firstCell;
-		} else {
-			this.version++;
-			this.firstCell.concat(otherCell);
+	/**
+	 * Appends the view of the other list after the last cell of this list.
+	 * Both views must be non empty.
+	 *
+	 * The cells of the other list are moved in O(1) if its view is the
+	 * whole list at its current version, and if it is consumed, or no other
+	 * proxy of its version exists. The proxies of the other list can still
+	 * read their view, but lose the in-place fast path. The view is copied
+	 * otherwise.
+	 *
+	 * @param consume whether the caller gives up the other list
+	 * @return the version of the list holding both views, or null if the client lost
+	 */
+	public Version<E> concatenate(ListCell<E> thisCell,
+				      Version<E> thisVersion,
+				      VersionedDoubleLinkedList<E> other,
+				      ListCell<E> otherCell,
+				      Version<E> otherVersion,
+				      boolean consume) {
+		if (other != this && otherCell.equals(other.firstCell) && (consume || !otherVersion.isShared())
+		    && !(firstCell instanceof PackedCell<?>) && !(otherCell instanceof PackedCell<?>)) {
+			Version<E> otherNewVersion = other.claim(otherVersion);
+			if (otherNewVersion != null)
+				return splice(thisVersion, other, otherCell, otherVersion, otherNewVersion);
+		}
+
+		long start = Counters.start();
+		Object event = Events.begin();
+		ListCell<E> nilCell = this.firstCell.newList(0);
+		int copied = other.copyCells(otherCell, otherVersion, false, Function.identity(), nilCell);
+		Counters.operation(this, "concatenate", copied, start);
+		Events.end(event, this, "concatenate", copied, copied);
+		Version<E> newVersion = claim(thisVersion);
+		if (newVersion == null)
+			return null;
+
+		save(this.firstCell.getPrevious().getPrevious(), 1);
+		this.firstCell.concat(nilCell.getNext(), newVersion.number);
+		this.size += copied;
+		publish(newVersion);
+		return newVersion;
+	}
+
+	/**
+	 * Moves the cells of the other list, claimed by the caller, after the
+	 * last cell of this list, by relinking the sentinels. The other list is
+	 * left empty.
+	 *
+	 * The new version is numbered after the versions of both lists, so that
+	 * the stamps of the cells moved remain consistent. The version of the
+	 * other list forwards its proxies to it.
+	 *
+	 * @return the version of the list holding both views, or null if the client lost
+	 */
+	private Version<E> splice(Version<E> thisVersion,
+				  VersionedDoubleLinkedList<E> other,
+				  ListCell<E> otherCell,
+				  Version<E> otherVersion,
+				  Version<E> otherNewVersion) {
+		Version<E> newVersion = claim(thisVersion, Math.max(thisVersion.number, otherVersion.number) + 1);
+		if (newVersion == null) {
+			other.release(otherVersion);
+			return null;
+		}
+
+		ListCell<E> nilCell   = this.firstCell.getPrevious();
+		ListCell<E> lastCell  = nilCell.getPrevious();
+		ListCell<E> otherNil  = otherCell.getPrevious();
+		ListCell<E> otherLast = otherNil.getPrevious();
+
+		save(lastCell, 1);
+		lastCell.touch(newVersion.number);
+		ListCell.linkCells(otherLast, nilCell);
+		ListCell.linkCells(lastCell, otherCell);
+		ListCell.linkCells(otherNil, otherNil);
+
+		this.size += other.size;
+		other.size = 0;
+		otherVersion.splicedAt = newVersion;
+		other.firstCell = otherNil;
+		other.publish(otherNewVersion);
+		publish(newVersion);
+		return newVersion;
+	}
+
+	/**
+	 * Returns the last cell of the view starting at the given cell: in O(1)
+	 * for the current version, by walking the view otherwise.
+	 *
+	 * @return the last cell of the view, or its sentinel if the view is empty
+	 */
+	public ListCell<E> lastCell(ListCell<E> thisCell, Version<E> thisVersion) {
+		if (thisCell.isEmpty())
 			return thisCell;
+
+		if (thisVersion == this.version) {
+			ListCell<E> lastCell = this.firstCell.getPrevious().getPrevious();
+			if (!lastCell.isEmpty() && next(lastCell, thisVersion).isEmpty() && thisVersion == this.version)
+				return lastCell;
+		}
+
+		ListCell<E> cell = thisCell;
+		for (ListCell<E> next = next(cell, thisVersion) ; !next.isEmpty() ; next = next(cell, thisVersion))
+			cell = next;
+		return cell;
+	}
+
+	/**
+	 * Returns the cell at the given position of the view starting at the
+	 * given cell. The position is reached from the end of the list when it
+	 * is closer to it, for the current version of a non concurrent list.
+	 *
+	 * @param size the number of cells of the view
+	 * @param index the position of the cell, at most size (the sentinel)
+	 * @return the cell at the given position
+	 */
+	public ListCell<E> cellAt(ListCell<E> thisCell, Version<E> thisVersion, int size, int index) {
+		if (!concurrent && thisVersion == this.version && index > size / 2 && index < size) {
+			ListCell<E> cell = this.firstCell.getPrevious().getPrevious();
+			for (int i = size - 1 ; i > index ; --i)
+				cell = cell.getPrevious();
+			return cell;
 		}
+
+		ListCell<E> cell = thisCell;
+		for (int i = 0 ; i < index ; ++i)
+			cell = next(cell, thisVersion);
+		return cell;
 	}
 
-	public void reverse(ListCell<E> thisCell, int thisVersion) {
-		this.checkVersion(thisVersion);
-		this.version++;
-		thisCell.reverse(firstCell.previous);
+	/**
+	 * Returns an iterator over the images by mapper of the view starting at
+	 * the given cell, as it was at the given version.
+	 *
+	 * @return an iterator over the view
+	 */
+	public Iterator<E> iterator(ListCell<E> thisCell, Version<E> thisVersion, UnaryOperator<E> mapper) {
+		return new CellIterator(thisCell, thisVersion, mapper);
 	}
 
-	public boolean isEmpty(ListCell<E> cell, int thisVersion) {
-		this.checkVersion(thisVersion);
+	public boolean isEmpty(ListCell<E> cell, Version<E> thisVersion) {
 		return cell.isEmpty();
 	}
 
-	public <R> VersionedDoubleLinkedList<R> map(ListCell<E> thisCell, int thisVersion, Function<E, R> mapper) {
-		this.checkVersion(thisVersion);
-		ListCell<R> newCell = thisCell.map(mapper);
-		return new VersionedDoubleLinkedList<R>(newCell, 0);
+	public <R> VersionedDoubleLinkedList<R> map(ListCell<E> thisCell, Version<E> thisVersion, Function<E, R> mapper) {
+		return map(thisCell, thisVersion, false, mapper);
 	}
 
-	public void applyMap(ListCell<E> thisCell, int thisVersion, UnaryOperator<E> op) {
-		this.checkVersion(thisVersion);
-		this.version++;
-		thisCell.applyMap(op);
+	/**
+	 * Returns a new list holding the images of the view starting at the
+	 * given cell, in one pass.
+	 *
+	 * @param reverse whether the new list holds them in reverse order
+	 * @return a new list, in the same mode as this list
+	 */
+	public <R> VersionedDoubleLinkedList<R> map(ListCell<E> thisCell,
+						     Version<E> thisVersion,
+						     boolean reverse,
+						     Function<? super E, ? extends R> mapper) {
+		if (!reverse && !concurrent && thisVersion == this.version && thisCell.equals(this.firstCell)) {
+			// The whole list as it is: copied as arrays when packed
+			return new VersionedDoubleLinkedList<R>(thisCell.map(mapper::apply), 0, false, this.size);
+		}
+
+		ListCell<R> nilCell = this.firstCell.newList(this.size);
+		int size = copyCells(thisCell, thisVersion, reverse, mapper, nilCell);
+		return new VersionedDoubleLinkedList<R>(nilCell.getNext(), 0, concurrent, size);
+	}
+
+	/**
+	 * Returns a new list holding the view starting at the given cell.
+	 *
+	 * @return a copy of the view, in the same mode as this list
+	 */
+	public VersionedDoubleLinkedList<E> copy(ListCell<E> thisCell, Version<E> thisVersion) {
+		return map(thisCell, thisVersion, Function.identity());
+	}
+
+	/**
+	 * Reverses the view starting at the given cell in place.
+	 *
+	 * @return the version of the list holding the reversed view, or null if the client lost
+	 */
+	public Version<E> reverse(ListCell<E> thisCell, Version<E> thisVersion) {
+		return transform(thisCell, thisVersion, true, UnaryOperator.identity());
+	}
+
+	/**
+	 * Applies op to the view starting at the given cell in place.
+	 *
+	 * @return the version of the list holding the new view, or null if the client lost
+	 */
+	public Version<E> applyMap(ListCell<E> thisCell, Version<E> thisVersion, UnaryOperator<E> op) {
+		return transform(thisCell, thisVersion, false, op);
+	}
+
+	/**
+	 * Applies op to the view starting at the given cell, and reverses it,
+	 * in place and in one pass.
+	 *
+	 * @param reverse whether to reverse the view
+	 * @return the version of the list holding the new view, or null if the client lost
+	 */
+	public Version<E> transform(ListCell<E> thisCell, Version<E> thisVersion, boolean reverse, UnaryOperator<E> op) {
+		Version<E> newVersion = claim(thisVersion);
+		if (newVersion == null)
+			return null;
+
+		save(thisCell, size(thisCell, thisVersion));
+		try {
+			if (reverse)
+				thisCell.reverse(firstCell.getPrevious(), op, newVersion.number);
+			else
+				thisCell.applyMap(op, newVersion.number);
+		} finally {
+			publish(newVersion);
+		}
+		return newVersion;
 	}
 
 	public boolean isEqual(ListCell<E> thisCell,
-			       int thisVersion,
+			       Version<E> thisVersion,
 			       VersionedDoubleLinkedList<?> that,
 			       ListCell<?> otherCell,
-			       int otherVersion) {
-
-		this.checkVersion(thisVersion);
-		that.checkVersion(otherVersion);
+			       Version<?> otherVersion) {
+		return isEqual(thisCell, thisVersion, that, otherCell, otherVersion, this);
+	}
 
-		return thisCell.isEqual(otherCell);
+	// Captures the element type of that
+	@SuppressWarnings("unchecked")
+	private static <E, F> boolean isEqual(ListCell<E> thisCell,
+					      Version<E> thisVersion,
+					      VersionedDoubleLinkedList<F> that,
+					      ListCell<?> otherCell,
+					      Version<?> otherVersion,
+					      VersionedDoubleLinkedList<E> list) {
+		ListCell<F> thatCell    = (ListCell<F>) otherCell;
+		Version<F>  thatVersion = (Version<F>) otherVersion;
+		while (!thisCell.isEmpty() && !thatCell.isEmpty()) {
+			E thisItem = list.item(thisCell, thisVersion);
+			F thatItem = that.item(thatCell, thatVersion);
+			if (thisItem == null ? thatItem != null : !thisItem.equals(thatItem))
+				return false;
+			thisCell = list.next(thisCell, thisVersion);
+			thatCell = that.next(thatCell, thatVersion);
+		}
+		return thisCell.isEmpty() && thatCell.isEmpty();
 	}
 
 	// public boolean isEqual(ListCell<E> thisCell, int thisVersion, List<?> thatList){
@@ -117,8 +621,281 @@ public final class VersionedDoubleLinkedList<E> {
 	// 	return thisCell.isEqual(thatList);
 	// }
 
-	public String toString(ListCell<E> thisCell, int thisVersion) {
-		this.checkVersion(thisVersion);
-		return thisCell.toString();
+	public String toString(ListCell<E> thisCell, Version<E> thisVersion) {
+		StringBuilder result = new StringBuilder("[");
+		String sep = "";
+		for (ListCell<E> cell = thisCell ; !cell.isEmpty() ; cell = next(cell, thisVersion)) {
+			result.append(sep).append(item(cell, thisVersion));
+			sep = ", ";
+		}
+		return result.append("]").toString();
+	}
+
+	/**
+	 * Links before the given sentinel new cells holding the images of the
+	 * view starting at the given cell, as it was at the given version.
+	 *
+	 * @param reverse whether the new cells hold them in reverse order
+	 * @return the number of cells created
+	 */
+	private <R> int copyCells(ListCell<E> thisCell,
+				  Version<E> thisVersion,
+				  boolean reverse,
+				  Function<? super E, ? extends R> mapper,
+				  ListCell<R> nilCell) {
+		ListCell<R> first = nilCell;
+		int count = 0;
+		for (ListCell<E> cell = thisCell ; !cell.isEmpty() ; cell = next(cell, thisVersion)) {
+			R item = mapper.apply(item(cell, thisVersion));
+			if (reverse)
+				first = first.insertBefore(item, 0);
+			else
+				nilCell.insertBefore(item, 0);
+			++count;
+		}
+		return count;
+	}
+
+	/**
+	 * Iterator over a view, which reads its cells by chunks. A chunk of the
+	 * current version is read straight from the cells, and the version is
+	 * only checked before and after it: no writer claimed the list in the
+	 * meantime if it did not change. The cells of older versions, or of a
+	 * chunk a writer modified while it was read, are read through the
+	 * values the list saved.
+	 */
+	private final class CellIterator implements Iterator<E> {
+
+		/** Maximum number of items read between two checks of the version */
+		private static final int CHUNK = 64;
+
+		private final Version<E> clientVersion;
+		private final UnaryOperator<E> mapper;
+
+		/** Items of the chunk being returned */
+		private final Object[] items = new Object[CHUNK];
+
+		/** Next cell to read, once the chunk is returned */
+		private ListCell<E> cell;
+
+		/** Index of the next item of the chunk, and number of items it holds */
+		private int index;
+		private int count;
+
+		CellIterator(ListCell<E> cell, Version<E> clientVersion, UnaryOperator<E> mapper) {
+			this.cell          = cell;
+			this.clientVersion = clientVersion;
+			this.mapper        = mapper;
+		}
+
+		public boolean hasNext() {
+			return index < count || !cell.isEmpty();
+		}
+
+		@SuppressWarnings("unchecked")
+		public E next() throws NoSuchElementException {
+			if (index == count) {
+				if (cell.isEmpty())
+					throw new NoSuchElementException();
+				fill();
+			}
+			E item = (E) items[index];
+			items[index++] = null;
+			return mapper.apply(item);
+		}
+
+		private boolean isCurrent() {
+			return clientVersion == version && (!concurrent || clientVersion.number == claimed);
+		}
+
+		private void fill() {
+			ListCell<E> cell = this.cell;
+			int count = 0;
+			if (isCurrent()) {
+				for ( ; count < CHUNK && !cell.isEmpty() ; cell = cell.getNext())
+					items[count++] = cell.getItem();
+				if (!isCurrent()) {
+					cell  = this.cell;
+					count = 0;
+				}
+			}
+			if (count == 0) {
+				for ( ; count < CHUNK && !cell.isEmpty() ; cell = VersionedDoubleLinkedList.this.next(cell, clientVersion))
+					items[count++] = item(cell, clientVersion);
+			}
+			this.cell  = cell;
+			this.index = 0;
+			this.count = count;
+		}
+	}
+
+	/**
+	 * Version of a VersionedDoubleLinkedList, which keeps the values of the
+	 * cells the next version overwrote. Proxies refer to their version, and
+	 * through it to the newer ones up to the next checkpoint: the values
+	 * saved are kept as long as a proxy of an older version may need them.
+	 */
+	public static final class Version<E> {
+
+		/** Number of the version, which the stamps of the cells refer to */
+		final int number;
+
+		/** Values at this version of the cells written by the next one, null if there are none */
+		private volatile Saved<E> overwritten;
+
+		/** Whether overwritten holds all the cells of the list, and next is not linked */
+		private volatile boolean checkpoint;
+
+		/** The next version, null for the current one and for a checkpoint */
+		private volatile Version<E> next;
+
+		/** Version of the list the cells were moved to, if they were */
+		private volatile Version<E> splicedAt;
+
+		/** Number of proxies of non empty views created at this version, up to 2 */
+		private int proxies;
+
+		Version(int number) {
+			this.number = number;
+		}
+
+		public int getNumber() {
+			return number;
+		}
+
+		/**
+		 * Records that a proxy of a non empty view of this version was
+		 * created. The count is a hint: it does not need to be exact.
+		 */
+		void observe() {
+			if (proxies < 2)
+				proxies++;
+		}
+
+		boolean isShared() {
+			return proxies > 1;
+		}
+
+		/**
+		 * Returns the values of a cell at this version.
+		 */
+		Revision<E> read(ListCell<E> cell) {
+			Revision<E> revision = new Revision<E>(cell);
+			if (cell.isIntact(number))
+				return revision;
+			return saved(cell);
+		}
+
+		/**
+		 * Returns the values of a cell written after this version, as they
+		 * were at this version: the ones saved by the first version which
+		 * wrote the cell since, up to the next checkpoint, or else the ones
+		 * of the list the cell was moved to.
+		 */
+		Revision<E> saved(ListCell<E> cell) {
+			for (Version<E> version = this ; version != null ; version = version.next) {
+				Saved<E> overwritten = version.overwritten;
+				Revision<E> revision = overwritten == null ? null : overwritten.get(cell);
+				if (revision != null)
+					return revision;
+				if (version.splicedAt != null)
+					return version.splicedAt.read(cell);
+			}
+			throw new IllegalStateException("Cell was not reachable at version " + number);
+		}
+	}
+
+	/** Values of cells saved by a version, before the next one wrote them */
+	abstract static class Saved<E> {
+
+		/**
+		 * Returns the values saved for the given cell.
+		 *
+		 * @return the values of the cell, or null if it was not saved
+		 */
+		abstract Revision<E> get(ListCell<E> cell);
+
+		abstract long retainedBytes();
+	}
+
+	/** Values of the fields of a cell that proxies read */
+	static final class Revision<E> extends Saved<E> {
+
+		final ListCell<E> cell;
+		final E item;
+		final ListCell<E> next;
+
+		Revision(ListCell<E> cell) {
+			this(cell, cell.getItem(), cell.getNext());
+		}
+
+		Revision(ListCell<E> cell, E item, ListCell<E> next) {
+			this.cell = cell;
+			this.item = item;
+			this.next = next;
+		}
+
+		Revision<E> get(ListCell<E> cell) {
+			return this.cell.equals(cell) ? this : null;
+		}
+
+		long retainedBytes() {
+			return MemoryLayout.shallowSize(Revision.class);
+		}
+	}
+
+	/**
+	 * Values of consecutive cells saved in one go: the cells in order and
+	 * their items, in arrays, and an open addressing table from the cells
+	 * to their position. The next cell of each one is the one after it.
+	 * It takes three arrays, rather than an entry and a Revision per cell.
+	 */
+	static final class SavedView<E> extends Saved<E> {
+
+		/** The cells saved, followed by the next cell of the last one */
+		private final ListCell<E>[] cells;
+		private final Object[] items;
+
+		/** Position of the cells, plus one, at their hash: 0 for a free slot */
+		private final int[] table;
+
+		@SuppressWarnings("unchecked")
+		SavedView(ListCell<E> first, int count) {
+			cells = new ListCell[count + 1];
+			items = new Object[count];
+			table = new int[Math.max(2, Integer.highestOneBit(count) * 4)];
+			ListCell<E> cell = first;
+			for (int i = 0 ; i < count ; ++i, cell = cell.getNext()) {
+				cells[i] = cell;
+				items[i] = cell.getItem();
+				int slot = slot(cell);
+				while (table[slot] != 0)
+					slot = (slot + 1) & (table.length - 1);
+				table[slot] = i + 1;
+			}
+			cells[count] = cell;
+		}
+
+		private int slot(ListCell<E> cell) {
+			int hash = cell.hashCode();
+			return (hash ^ (hash >>> 16)) & (table.length - 1);
+		}
+
+		@SuppressWarnings("unchecked")
+		Revision<E> get(ListCell<E> cell) {
+			for (int slot = slot(cell) ; table[slot] != 0 ; slot = (slot + 1) & (table.length - 1)) {
+				int i = table[slot] - 1;
+				if (cells[i].equals(cell))
+					return new Revision<E>(cell, (E) items[i], cells[i + 1]);
+			}
+			return null;
+		}
+
+		long retainedBytes() {
+			return MemoryLayout.shallowSize(SavedView.class)
+				+ MemoryLayout.referenceArraySize(cells.length)
+				+ MemoryLayout.referenceArraySize(items.length)
+				+ MemoryLayout.intArraySize(table.length);
+		}
 	}
 }
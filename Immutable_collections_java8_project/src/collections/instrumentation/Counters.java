@@ -0,0 +1,234 @@
+package collections.instrumentation;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+/**
+ * Counts the work done by the lists: the elements copied into new backing
+ * arrays, nodes or cells, and the steps taken from one element to the
+ * next while walking a list. The operations which copy a whole list are
+ * also counted per list class, with the elements they copied and the
+ * bytes they allocated.
+ *
+ * Counting is off unless the JVM runs with
+ * -Dcollections.instrumentation=true. The switch is a static final field,
+ * so when it is off the JIT removes the calls altogether. When it is on,
+ * the counters are published as the MXBean NAME, and read with
+ * snapshot().
+ */
+public final class Counters {
+
+	/** Whether the counters are updated */
+	public static final boolean ENABLED = Boolean.getBoolean("collections.instrumentation");
+
+	/** Name of the MXBean of the counters */
+	public static final String NAME = "collections.instrumentation:type=Counters";
+
+	private static final LongAdder copied    = new LongAdder();
+	private static final LongAdder traversed = new LongAdder();
+
+	/** Counters of the operations of each list class, by operation */
+	private static final ClassValue<Map<String, OperationCounters>> operations =
+		new ClassValue<Map<String, OperationCounters>>() {
+			protected Map<String, OperationCounters> computeValue(Class<?> type) {
+				return new ConcurrentHashMap<String, OperationCounters>();
+			}
+		};
+
+	/** The list classes counted so far, as ClassValue cannot be listed */
+	private static final Map<Class<?>, Boolean> classes = new ConcurrentHashMap<Class<?>, Boolean>();
+
+	/** Source of the allocated bytes, null if the JVM does not count them */
+	private static final com.sun.management.ThreadMXBean threads = ENABLED ? threads() : null;
+
+	static {
+		if (ENABLED) {
+			try {
+				ManagementFactory.getPlatformMBeanServer().registerMBean(new CountersBean(), new ObjectName(NAME));
+			} catch (JMException e) {
+				// Already registered by another copy of the library: the
+				// counters are still available through snapshot()
+			}
+		}
+	}
+
+	private Counters() {
+	}
+
+	private static com.sun.management.ThreadMXBean threads() {
+		java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+		if (!(bean instanceof com.sun.management.ThreadMXBean))
+			return null;
+		com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) bean;
+		if (!threads.isThreadAllocatedMemorySupported())
+			return null;
+		threads.setThreadAllocatedMemoryEnabled(true);
+		return threads;
+	}
+
+	private static long allocatedBytes() {
+		if (threads == null)
+			return 0;
+		return threads.getThreadAllocatedBytes(Thread.currentThread().getId());
+	}
+
+	/**
+	 * Records that elements were copied into a new array, node or cell. An
+	 * array handed to a list, which keeps it rather than copying it, is
+	 * counted where it was filled, and not again by the list.
+	 *
+	 * @param count the number of elements copied
+	 */
+	public static void copied(long count) {
+		if (ENABLED)
+			copied.add(count);
+	}
+
+	/**
+	 * Records that elements of a list were walked through.
+	 *
+	 * @param count the number of elements walked through
+	 */
+	public static void traversed(long count) {
+		if (ENABLED)
+			traversed.add(count);
+	}
+
+	/**
+	 * Marks the start of an operation, to be given to operation() at its
+	 * end.
+	 *
+	 * @return the bytes allocated so far by the current thread, or 0 if
+	 * counting is off
+	 */
+	public static long start() {
+		return ENABLED ? allocatedBytes() : 0;
+	}
+
+	/**
+	 * Records that an operation of the given list copied elements.
+	 *
+	 * @param list the list the operation was called on
+	 * @param operation the name of the operation
+	 * @param count the number of elements copied
+	 * @param start the value start() returned when the operation began
+	 */
+	public static void operation(Object list, String operation, long count, long start) {
+		if (ENABLED) {
+			OperationCounters counters = counters(list.getClass(), operation);
+			counters.calls.increment();
+			counters.copied.add(count);
+			if (start != 0)
+				counters.bytes.add(allocatedBytes() - start);
+		}
+	}
+
+	/**
+	 * Records that an event without copy happened to the given list.
+	 *
+	 * @param list the list the event happened to
+	 * @param event the name of the event
+	 */
+	public static void event(Object list, String event) {
+		if (ENABLED)
+			counters(list.getClass(), event).calls.increment();
+	}
+
+	private static OperationCounters counters(Class<?> type, String operation) {
+		Map<String, OperationCounters> counters = operations.get(type);
+		OperationCounters result = counters.get(operation);
+		if (result == null) {
+			classes.put(type, Boolean.TRUE);
+			result = counters.computeIfAbsent(operation, k -> new OperationCounters());
+		}
+		return result;
+	}
+
+	/**
+	 * Returns the number of elements copied since the last reset.
+	 *
+	 * @return the number of elements copied
+	 */
+	public static long copied() {
+		return copied.sum();
+	}
+
+	/**
+	 * Returns the number of elements walked through since the last reset.
+	 *
+	 * @return the number of elements walked through
+	 */
+	public static long traversed() {
+		return traversed.sum();
+	}
+
+	/**
+	 * Returns the values of all the counters. The counters are read one
+	 * after the other, while the lists may update them.
+	 *
+	 * @return the values of the counters
+	 */
+	public static CountersSnapshot snapshot() {
+		List<OperationStats> stats = new ArrayList<OperationStats>();
+		for (Class<?> type : classes.keySet())
+			for (Map.Entry<String, OperationCounters> counters : operations.get(type).entrySet())
+				if (counters.getValue().calls.sum() != 0)
+					stats.add(new OperationStats(type.getSimpleName(),
+								     counters.getKey(),
+								     counters.getValue().calls.sum(),
+								     counters.getValue().copied.sum(),
+								     counters.getValue().bytes.sum()));
+		return new CountersSnapshot(ENABLED, copied(), traversed(), stats);
+	}
+
+	/**
+	 * Sets the counters back to 0.
+	 */
+	public static void reset() {
+		copied.reset();
+		traversed.reset();
+		for (Class<?> type : classes.keySet())
+			for (OperationCounters counters : operations.get(type).values()) {
+				counters.calls.reset();
+				counters.copied.reset();
+				counters.bytes.reset();
+			}
+	}
+}
+
+final class OperationCounters {
+
+	final LongAdder calls  = new LongAdder();
+	final LongAdder copied = new LongAdder();
+	final LongAdder bytes  = new LongAdder();
+}
+
+final class CountersBean implements CountersMXBean {
+
+	public boolean isEnabled() {
+		return Counters.ENABLED;
+	}
+
+	public long getElementsCopied() {
+		return Counters.copied();
+	}
+
+	public long getElementsTraversed() {
+		return Counters.traversed();
+	}
+
+	public List<OperationStats> getOperations() {
+		return Counters.snapshot().getOperations();
+	}
+
+	public void reset() {
+		Counters.reset();
+	}
+}
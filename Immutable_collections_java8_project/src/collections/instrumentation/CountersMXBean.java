@@ -0,0 +1,43 @@
+package collections.instrumentation;
+
+import java.util.List;
+
+/**
+ * The counters of the lists, as published through JMX under Counters.NAME
+ * when counting is on.
+ */
+public interface CountersMXBean {
+
+	/**
+	 * Returns whether the lists update the counters.
+	 *
+	 * @return the value of -Dcollections.instrumentation
+	 */
+	boolean isEnabled();
+
+	/**
+	 * Returns the number of elements copied into new lists.
+	 *
+	 * @return the number of elements copied since the last reset
+	 */
+	long getElementsCopied();
+
+	/**
+	 * Returns the number of elements walked through.
+	 *
+	 * @return the number of elements walked through since the last reset
+	 */
+	long getElementsTraversed();
+
+	/**
+	 * Returns the counters of the copying operations, per list class.
+	 *
+	 * @return the counters of each operation called since the last reset
+	 */
+	List<OperationStats> getOperations();
+
+	/**
+	 * Sets the counters back to 0.
+	 */
+	void reset();
+}
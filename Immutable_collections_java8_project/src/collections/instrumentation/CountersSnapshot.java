@@ -0,0 +1,59 @@
+package collections.instrumentation;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The values of the counters at a point in time, as returned by
+ * Counters.snapshot().
+ */
+public final class CountersSnapshot {
+
+	private final boolean enabled;
+	private final long elementsCopied;
+	private final long elementsTraversed;
+	private final List<OperationStats> operations;
+
+	CountersSnapshot(boolean enabled, long elementsCopied, long elementsTraversed, List<OperationStats> operations) {
+		this.enabled           = enabled;
+		this.elementsCopied    = elementsCopied;
+		this.elementsTraversed = elementsTraversed;
+		this.operations        = Collections.unmodifiableList(operations);
+	}
+
+	/**
+	 * Returns whether the counters were updated; they are all 0 otherwise.
+	 *
+	 * @return the value of -Dcollections.instrumentation
+	 */
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	public long getElementsCopied() {
+		return elementsCopied;
+	}
+
+	public long getElementsTraversed() {
+		return elementsTraversed;
+	}
+
+	public List<OperationStats> getOperations() {
+		return operations;
+	}
+
+	/**
+	 * Returns the counters of an operation of a list class.
+	 *
+	 * @param implementation the simple name of the list class
+	 * @param operation the name of the operation
+	 * @return the counters of the operation, null if it was not called
+	 * since the last reset
+	 */
+	public OperationStats get(String implementation, String operation) {
+		for (OperationStats stats : operations)
+			if (stats.getImplementation().equals(implementation) && stats.getOperation().equals(operation))
+				return stats;
+		return null;
+	}
+}
@@ -0,0 +1,37 @@
+package collections.instrumentation;
+
+/**
+ * Emits a JDK Flight Recorder event for each operation which copies a
+ * list, with the list class, the operation, the size of the list, the
+ * elements copied and the duration.
+ *
+ * This is the Java 8 version, which does nothing. The library jar is a
+ * multi-release jar: on Java 11 and later, the version in src-java11,
+ * stored under META-INF/versions/11, is loaded instead.
+ */
+public final class Events {
+
+	private Events() {
+	}
+
+	/**
+	 * Marks the start of an operation, to be given to end() when it ends.
+	 *
+	 * @return the event of the operation, or null if it is not recorded
+	 */
+	public static Object begin() {
+		return null;
+	}
+
+	/**
+	 * Records the end of an operation.
+	 *
+	 * @param event the value begin() returned when the operation began
+	 * @param list the list the operation was called on
+	 * @param operation the name of the operation
+	 * @param size the size of the list
+	 * @param copied the number of elements copied
+	 */
+	public static void end(Object event, Object list, String operation, int size, long copied) {
+	}
+}
@@ -0,0 +1,179 @@
+package collections.instrumentation;
+
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Estimates the bytes the objects of the lists take on the heap, from the
+ * object layout of the running HotSpot JVM: the size of the object
+ * headers, of the references, and the alignment of the objects.
+ *
+ * An object takes its header, plus the size of its fields and of the ones
+ * of its superclasses, rounded up to the alignment. This is exact for the
+ * classes of the lists, whose fields fill the gaps HotSpot leaves between
+ * them. Other JVMs are assumed to lay objects out like HotSpot does with
+ * its default flags.
+ */
+public final class MemoryLayout {
+
+	/** Size of the references, 4 bytes when they are compressed */
+	private static final int REFERENCE;
+
+	/** Size of the header of the objects, and of the arrays with their length */
+	private static final int HEADER;
+	private static final int ARRAY_HEADER;
+
+	/** Alignment of the objects, in bytes */
+	private static final int ALIGNMENT;
+
+	static {
+		boolean compressedOops    = flag("UseCompressedOops", "true").equals("true");
+		boolean compressedClasses = flag("UseCompressedClassPointers", "true").equals("true");
+		boolean compactHeaders    = flag("UseCompactObjectHeaders", "false").equals("true");
+		REFERENCE    = compressedOops ? 4 : 8;
+		HEADER       = compactHeaders ? 8 : compressedClasses ? 12 : 16;
+		ARRAY_HEADER = compactHeaders ? 12 : compressedClasses ? 16 : 20;
+		ALIGNMENT    = Integer.parseInt(flag("ObjectAlignmentInBytes", "8"));
+	}
+
+	/** Class of the entries of HashMap, which is not public */
+	private static final Class<?> HASH_MAP_NODE = new HashMap<Object, Object>(Collections.singletonMap(null, null))
+		.entrySet().iterator().next().getClass();
+
+	private static final ClassValue<Long> shallowSizes = new ClassValue<Long>() {
+		protected Long computeValue(Class<?> type) {
+			long size = HEADER;
+			for (Class<?> c = type ; c != null ; c = c.getSuperclass())
+				for (Field field : c.getDeclaredFields())
+					if (!Modifier.isStatic(field.getModifiers()))
+						size += fieldSize(field.getType());
+			return align(size);
+		}
+	};
+
+	private MemoryLayout() {
+	}
+
+	private static String flag(String name, String defaultValue) {
+		try {
+			return ManagementFactory.getPlatformMXBean(com.sun.management.HotSpotDiagnosticMXBean.class)
+				.getVMOption(name).getValue();
+		} catch (RuntimeException | LinkageError e) {
+			// Not a HotSpot JVM, or a flag it does not have
+			return defaultValue;
+		}
+	}
+
+	private static int fieldSize(Class<?> type) {
+		if (!type.isPrimitive())
+			return REFERENCE;
+		if (type == long.class || type == double.class)
+			return 8;
+		if (type == int.class || type == float.class)
+			return 4;
+		if (type == short.class || type == char.class)
+			return 2;
+		return 1;
+	}
+
+	private static long align(long size) {
+		return (size + ALIGNMENT - 1) / ALIGNMENT * ALIGNMENT;
+	}
+
+	/**
+	 * Returns the size of a reference.
+	 *
+	 * @return 4 when references are compressed, 8 otherwise
+	 */
+	public static int referenceSize() {
+		return REFERENCE;
+	}
+
+	/**
+	 * Returns the bytes taken by an instance of the given class, without
+	 * the objects it refers to.
+	 *
+	 * @param type a class which is not an array class
+	 * @return the bytes taken by an instance of type
+	 */
+	public static long shallowSize(Class<?> type) {
+		return shallowSizes.get(type);
+	}
+
+	/**
+	 * Returns the bytes taken by an array of references.
+	 *
+	 * @param length the length of the array
+	 * @return the bytes taken by the array, without its elements
+	 */
+	public static long referenceArraySize(int length) {
+		// The references start aligned on their size
+		int base = (ARRAY_HEADER + REFERENCE - 1) / REFERENCE * REFERENCE;
+		return align(base + (long) length * REFERENCE);
+	}
+
+	/**
+	 * Returns the bytes taken by an array of ints.
+	 *
+	 * @param length the length of the array
+	 * @return the bytes taken by the array
+	 */
+	public static long intArraySize(int length) {
+		return align(ARRAY_HEADER + (long) length * 4);
+	}
+
+	/**
+	 * Returns the bytes taken by an array of longs.
+	 *
+	 * @param length the length of the array
+	 * @return the bytes taken by the array
+	 */
+	public static long longArraySize(int length) {
+		// The longs start aligned on 8 bytes
+		return align((ARRAY_HEADER + 7) / 8 * 8 + (long) length * 8);
+	}
+
+	/**
+	 * Returns the bytes taken by an array of chars.
+	 *
+	 * @param length the length of the array
+	 * @return the bytes taken by the array
+	 */
+	public static long charArraySize(int length) {
+		return align(ARRAY_HEADER + (long) length * 2);
+	}
+
+	/**
+	 * Returns the bytes taken by an array of bytes.
+	 *
+	 * @param length the length of the array
+	 * @return the bytes taken by the array
+	 */
+	public static long byteArraySize(int length) {
+		return align(ARRAY_HEADER + (long) length);
+	}
+
+	/**
+	 * Returns the bytes taken by a map built by adding its entries one by
+	 * one: the map, and its table and entries for a HashMap.
+	 *
+	 * @param map the map
+	 * @return the bytes taken by the map, without its keys and values, 0
+	 * for the empty map shared by all
+	 */
+	public static long mapSize(Map<?, ?> map) {
+		if (map == Collections.emptyMap())
+			return 0;
+		if (!(map instanceof HashMap))
+			return shallowSize(map.getClass());
+
+		int capacity = 16;
+		while (map.size() > capacity * 3 / 4)
+			capacity *= 2;
+		return shallowSize(HashMap.class) + referenceArraySize(capacity) + map.size() * shallowSize(HASH_MAP_NODE);
+	}
+}
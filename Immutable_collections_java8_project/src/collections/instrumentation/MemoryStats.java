@@ -0,0 +1,100 @@
+package collections.instrumentation;
+
+/**
+ * How a list is stored, and the memory it takes, as returned by
+ * ImmutableCoreList.explain(). The bytes are estimated with MemoryLayout,
+ * and never include the elements themselves.
+ */
+public final class MemoryStats {
+
+	/** How a list holds its elements */
+	public enum Representation {
+		/** In an array of its own */
+		ARRAY,
+		/** In fields of the list */
+		FIELDS,
+		/** In a chain of nodes, which may be shared with other lists */
+		NODES,
+		/** In the cells of a VersionedDoubleLinkedList, shared by its versions */
+		CELLS,
+		/** Through a list it reads in reverse order */
+		REVERSED,
+		/** Through a list it reads through pending operations */
+		VIEW,
+		/** In a way the list does not tell */
+		OTHER
+	}
+
+	private final Representation representation;
+	private final long shallowBytes;
+	private final long retainedBytes;
+	private final int sharedElements;
+	private final int viewDepth;
+
+	/**
+	 * @param representation how the list holds its elements
+	 * @param shallowBytes the bytes of the list object alone
+	 * @param retainedBytes the bytes of the list and of the objects it
+	 * keeps reachable: arrays, nodes, cells, and the lists it views
+	 * @param sharedElements the number of elements stored in nodes, cells
+	 * or arrays known to be shared with other lists
+	 * @param viewDepth the number of views between the list and the
+	 * storage of its elements
+	 */
+	public MemoryStats(Representation representation, long shallowBytes, long retainedBytes, int sharedElements, int viewDepth) {
+		this.representation = representation;
+		this.shallowBytes   = shallowBytes;
+		this.retainedBytes  = retainedBytes;
+		this.sharedElements = sharedElements;
+		this.viewDepth      = viewDepth;
+	}
+
+	public Representation getRepresentation() {
+		return representation;
+	}
+
+	public long getShallowBytes() {
+		return shallowBytes;
+	}
+
+	/**
+	 * Returns the bytes the list keeps reachable, itself included. Storage
+	 * shared with other lists is counted: a view of a few cells of a long
+	 * list retains all of them.
+	 *
+	 * @return the bytes the list keeps reachable
+	 */
+	public long getRetainedBytes() {
+		return retainedBytes;
+	}
+
+	/**
+	 * Returns the number of elements whose storage is shared with other
+	 * lists. Only the sharing the list can detect is counted: interned
+	 * nodes, cells viewed by several proxies, and the elements of a
+	 * reversed view; the nodes a linked list shares with the lists it was
+	 * consed onto are not.
+	 *
+	 * @return the number of elements known to be shared
+	 */
+	public int getSharedElements() {
+		return sharedElements;
+	}
+
+	/**
+	 * Returns the number of views between the list and the storage of its
+	 * elements: 0 for a list holding them, 1 for a reversed view of it, and
+	 * so on.
+	 *
+	 * @return the depth of view nesting
+	 */
+	public int getViewDepth() {
+		return viewDepth;
+	}
+
+	@Override
+	public String toString() {
+		return representation + ": " + shallowBytes + " bytes, " + retainedBytes + " retained, "
+			+ sharedElements + " elements shared, view depth " + viewDepth;
+	}
+}
@@ -0,0 +1,61 @@
+package collections.instrumentation;
+
+import java.beans.ConstructorProperties;
+
+/**
+ * The counters of an operation of a list class, at the time of a
+ * snapshot.
+ */
+public final class OperationStats {
+
+	private final String implementation;
+	private final String operation;
+	private final long calls;
+	private final long elementsCopied;
+	private final long bytesAllocated;
+
+	@ConstructorProperties({"implementation", "operation", "calls", "elementsCopied", "bytesAllocated"})
+	public OperationStats(String implementation, String operation, long calls, long elementsCopied, long bytesAllocated) {
+		this.implementation = implementation;
+		this.operation      = operation;
+		this.calls          = calls;
+		this.elementsCopied = elementsCopied;
+		this.bytesAllocated = bytesAllocated;
+	}
+
+	/**
+	 * Returns the simple name of the list class.
+	 *
+	 * @return the simple name of the class the operation was called on
+	 */
+	public String getImplementation() {
+		return implementation;
+	}
+
+	public String getOperation() {
+		return operation;
+	}
+
+	public long getCalls() {
+		return calls;
+	}
+
+	public long getElementsCopied() {
+		return elementsCopied;
+	}
+
+	/**
+	 * Returns the bytes the operation allocated, as counted by the JVM.
+	 *
+	 * @return the bytes allocated, or 0 if the JVM does not count them
+	 */
+	public long getBytesAllocated() {
+		return bytesAllocated;
+	}
+
+	@Override
+	public String toString() {
+		return implementation + "." + operation + ": " + calls + " calls, "
+			+ elementsCopied + " elements copied, " + bytesAllocated + " bytes allocated";
+	}
+}
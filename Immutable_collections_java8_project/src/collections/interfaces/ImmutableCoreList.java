@@ -4,12 +4,15 @@ package collections.interfaces;
 // http://docs.oracle.com/javase/8/docs/api/java/util/List.html?is-external=true
 // http://docs.guava-libraries.googlecode.com/git/javadoc/com/google/common/collect/ImmutableList.html
 
+import java.util.AbstractSequentialList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Comparator;
 import java.util.Iterator;
 import java.util.List;
+import java.util.ListIterator;
 import java.util.ArrayList;
+import java.util.NoSuchElementException;
 import java.util.Optional;
 import java.util.Spliterator;
 import java.util.Spliterators;
@@ -19,6 +22,9 @@ import java.util.function.Predicate;
 import java.util.stream.Stream;
 import java.util.stream.StreamSupport;
 
+import collections.instrumentation.MemoryLayout;
+import collections.instrumentation.MemoryStats;
+
 public interface ImmutableCoreList<E> extends Iterable<E>,
 Cloneable {
 
@@ -120,7 +126,10 @@ Cloneable {
 	 * specified collection
 	 */
 	default boolean containsAll(Collection<E> elems) {
-		return containsAll(create(elems));
+		for (E elem : elems)
+			if (!contains(elem))
+				return false;
+		return true;
 	}
 
 	/**
@@ -143,7 +152,10 @@ Cloneable {
 	 */
 	@SuppressWarnings({"unchecked"})
 	default boolean containsAll(E... elems) {
-		return containsAll(create(elems));
+		for (int i = 0 ; i < elems.length ; ++i)
+			if (!contains(elems[i]))
+				return false;
+		return true;
 	}
 
 	/**
@@ -297,12 +309,62 @@ Cloneable {
 		return myList;
 	}
 
+	/**
+	 * Returns an unmodifiable list backed by this list: no element is
+	 * copied. The view walks this list sequentially.
+	 *
+	 * @return an unmodifiable view of this list
+	 */
+	default List<E> asListView() {
+		return sequentialListView(this);
+	}
+
+	// To be used for the asListView() method in concrete classes which do
+	// not support efficient random access
+	static <E> List<E> sequentialListView(ImmutableCoreList<E> list) {
+		return new SequentialListView<E>(list);
+	}
+
+	/**
+	 * Returns how this list is stored, and the memory it takes and shares
+	 * with other lists. Lists which do not tell are only counted for
+	 * their own object.
+	 *
+	 * @return the representation and memory statistics of this list
+	 */
+	default MemoryStats explain() {
+		long shallow = MemoryLayout.shallowSize(getClass());
+		return new MemoryStats(MemoryStats.Representation.OTHER, shallow, shallow, 0, 0);
+	}
+
+	/**
+	 * Returns this list: since it cannot be modified, it can be shared
+	 * instead of copied.
+	 *
+	 * @return this list
+	 */
 	public ImmutableCoreList<E> clone();
 
 	// To be used for the clone() method in concrete classes (since Object
 	// methods cannot be overriden with the default keyword)
 	static <E> ImmutableCoreList<E> clone(ImmutableCoreList<E> list) {
-		return list.create(list.asList());
+		return list;
+	}
+
+	// To be used by the copyOf() factories of concrete classes: copies the
+	// given elements in a single pass, into an array presized whenever
+	// their number is known.
+	@SuppressWarnings("unchecked")
+	static <E> E[] arrayOf(Iterable<? extends E> elems) {
+		if (elems instanceof Collection)
+			return (E[]) ((Collection<? extends E>) elems).toArray();
+		if (elems instanceof ImmutableCoreList)
+			return (E[]) ((ImmutableCoreList<? extends E>) elems).toArray();
+
+		List<E> list = new ArrayList<E>();
+		for (E elem : elems)
+			list.add(elem);
+		return (E[]) list.toArray();
 	}
 
 	/**
@@ -364,3 +426,146 @@ Cloneable {
 		return hashCode;
 	}
 }
+
+/**
+ * Unmodifiable java.util.List view of an immutable list which can only be
+ * walked forward: moving backward restarts from the first element.
+ */
+class SequentialListView<E> extends AbstractSequentialList<E> {
+
+	/** The list this view is backed by */
+	private final ImmutableCoreList<E> list;
+
+	/** The size of the list, or -1 until it is counted */
+	private int size = -1;
+
+	SequentialListView(ImmutableCoreList<E> list) {
+		this.list = list;
+	}
+
+	public int size() {
+		if (size < 0) {
+			if (list instanceof IterativeList) {
+				size = ((IterativeList<E>) list).size();
+			} else {
+				int count = 0;
+				for (@SuppressWarnings("unused") E elem : list)
+					++count;
+				size = count;
+			}
+		}
+		return size;
+	}
+
+	public boolean isEmpty() {
+		return list.isEmpty();
+	}
+
+	public Iterator<E> iterator() {
+		return list.iterator();
+	}
+
+	public ListIterator<E> listIterator(int index) {
+		if (index < 0 || index > size())
+			throw new IndexOutOfBoundsException();
+		return new SequentialListIterator(index);
+	}
+
+	@SuppressWarnings("unchecked")
+	public boolean contains(Object o) {
+		return list.contains((E) o);
+	}
+
+	@SuppressWarnings("unchecked")
+	public int indexOf(Object o) {
+		return list.indexOf((E) o);
+	}
+
+	public List<E> subList(int fromIndex, int toIndex) {
+		if (list instanceof ImmutableList)
+			return ((ImmutableList<E>) list).subList(fromIndex, toIndex).asListView();
+		return super.subList(fromIndex, toIndex);
+	}
+
+	class SequentialListIterator implements ListIterator<E> {
+
+		/** Iterator of the backing list */
+		private Iterator<E> it;
+
+		/** Index of the element returned by the next call to next() */
+		private int index;
+
+		/** Element read ahead by previous(), to be returned by next() */
+		private E buffered;
+
+		/** Whether an element was read ahead by previous() */
+		private boolean hasBuffered;
+
+		SequentialListIterator(int index) {
+			seek(index);
+		}
+
+		/**
+		 * Position the backing iterator before the element at index.
+		 */
+		private void seek(int index) {
+			it = list.iterator();
+			for (int i = 0 ; i < index ; ++i)
+				it.next();
+			this.index  = index;
+			hasBuffered = false;
+			buffered    = null;
+		}
+
+		public boolean hasNext() {
+			return hasBuffered || it.hasNext();
+		}
+
+		public E next() throws NoSuchElementException {
+			E elem;
+			if (hasBuffered) {
+				elem        = buffered;
+				hasBuffered = false;
+				buffered    = null;
+			} else {
+				elem = it.next();
+			}
+			++index;
+			return elem;
+		}
+
+		public boolean hasPrevious() {
+			return index > 0;
+		}
+
+		public E previous() throws NoSuchElementException {
+			if (!hasPrevious())
+				throw new NoSuchElementException();
+
+			seek(index - 1);
+			buffered    = it.next();
+			hasBuffered = true;
+			return buffered;
+		}
+
+		public int nextIndex() {
+			return index;
+		}
+
+		public int previousIndex() {
+			return index - 1;
+		}
+
+		public void remove() throws UnsupportedOperationException {
+			throw new UnsupportedOperationException();
+		}
+
+		public void set(E e) throws UnsupportedOperationException {
+			throw new UnsupportedOperationException();
+		}
+
+		public void add(E e) throws UnsupportedOperationException {
+			throw new UnsupportedOperationException();
+		}
+	}
+}
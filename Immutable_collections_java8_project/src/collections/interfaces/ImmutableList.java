@@ -1,12 +1,93 @@
 package collections.interfaces;
 
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.function.Function;
 import java.util.function.Predicate;
 import java.util.NoSuchElementException;
 
+import collections.implementations.ImmutableArrayList;
+import collections.instrumentation.Counters;
+import collections.instrumentation.Events;
+
 public interface ImmutableList<E> extends InductiveList<E>, IterativeList<E> {
 
+	/**
+	 * Returns the empty list.
+	 *
+	 * @return the empty list, shared by all element types
+	 */
+	static <E> ImmutableList<E> of() {
+		return ImmutableArrayList.empty();
+	}
+
+	/**
+	 * Returns a list containing one element.
+	 *
+	 * @param e1 the element
+	 * @return a list containing the given element
+	 */
+	static <E> ImmutableList<E> of(E e1) {
+		return ImmutableArrayList.of(e1);
+	}
+
+	/**
+	 * Returns a list containing two elements.
+	 *
+	 * @return a list containing the given elements
+	 */
+	static <E> ImmutableList<E> of(E e1, E e2) {
+		return ImmutableArrayList.of(e1, e2);
+	}
+
+	/**
+	 * Returns a list containing three elements.
+	 *
+	 * @return a list containing the given elements
+	 */
+	static <E> ImmutableList<E> of(E e1, E e2, E e3) {
+		return ImmutableArrayList.of(e1, e2, e3);
+	}
+
+	/**
+	 * Returns a list containing four elements.
+	 *
+	 * @return a list containing the given elements
+	 */
+	static <E> ImmutableList<E> of(E e1, E e2, E e3, E e4) {
+		return ImmutableArrayList.of(e1, e2, e3, e4);
+	}
+
+	/**
+	 * Returns a list containing the given elements. Lists of up to four
+	 * elements hold them in fields, and grow into an ImmutableArrayList.
+	 *
+	 * @param elems the elements of the list
+	 * @return a list containing the given elements
+	 * @throws NullPointerException if elems is null
+	 */
+	@SuppressWarnings({"unchecked"})
+	static <E> ImmutableList<E> of(E... elems) {
+		return ImmutableArrayList.of(elems);
+	}
+
+	/**
+	 * Returns an immutable list containing the given elements, in order.
+	 *
+	 * @param elems the elements of the list
+	 * @return elems itself if it is already an ImmutableList, a new list
+	 * containing its elements otherwise
+	 * @throws NullPointerException if elems is null
+	 */
+	@SuppressWarnings("unchecked")
+	static <E> ImmutableList<E> copyOf(Iterable<? extends E> elems) {
+		if (elems instanceof ImmutableList)
+			return (ImmutableList<E>) elems;
+		return ImmutableArrayList.of(ImmutableCoreList.<E>arrayOf(elems));
+	}
+
 	public ImmutableList<E> create(E[] elems);
 
 	/**
@@ -45,11 +126,7 @@ public interface ImmutableList<E> extends InductiveList<E>, IterativeList<E> {
 	 * by the elements from the given list
 	 */
 	default ImmutableList<E> concat(Collection<E> elems) {
-		ImmutableList<E> list = this;
-		for (E elem : elems){
-			list = list.concat(elem);
-		}
-		return list;
+		return concatAll(this, elems, elems.size());
 	}
 
 	/**
@@ -61,11 +138,7 @@ public interface ImmutableList<E> extends InductiveList<E>, IterativeList<E> {
 	 * by the elements from the given list
 	 */
 	default ImmutableList<E> concat(ImmutableList<E> elems) {
-		ImmutableList<E> list = this;
-		for (E elem : elems){
-			list = list.concat(elem);
-		}
-		return list;
+		return concatAll(this, elems, elems.size());
 	}
 
 	/**
@@ -78,11 +151,31 @@ public interface ImmutableList<E> extends InductiveList<E>, IterativeList<E> {
 	 */
 	@SuppressWarnings({"unchecked"})
 	default ImmutableList<E> concat(E... elems) {
-		ImmutableList<E> list = this;
-		for (int i = 0 ; i <elems.length ; ++i){
-			list = list.concat(elems[i]);
-		}
-		return list;
+		return concatAll(this, Arrays.asList(elems), elems.length);
+	}
+
+	/**
+	 * Returns a new list containing the elements of list followed by the
+	 * given elements, copied in a single pass.
+	 *
+	 * @param count the number of elements in elems
+	 */
+	@SuppressWarnings("unchecked")
+	static <E> ImmutableList<E> concatAll(ImmutableList<E> list, Iterable<? extends E> elems, int count) {
+		if (count == 0)
+			return list;
+
+		long start = Counters.start();
+		Object event = Events.begin();
+		int i = list.size();
+		E[] array = list.toArray((E[]) new Object[i + count]);
+		for (E elem : elems)
+			array[i++] = elem;
+		Counters.copied(count);
+		ImmutableList<E> result = list.create(array);
+		Counters.operation(list, "concatAll", array.length, start);
+		Events.end(event, list, "concatAll", list.size(), array.length);
+		return result;
 	}
 
 	/**
@@ -94,6 +187,8 @@ public interface ImmutableList<E> extends InductiveList<E>, IterativeList<E> {
 	 * by the elements from the given list
 	 */
 	default ImmutableList<E> concat(E elem) {
+		long start = Counters.start();
+		Object event = Events.begin();
 		@SuppressWarnings("unchecked")
 		E[] elems = (E[]) new Object[size() + 1];
 		int i = 0;
@@ -102,7 +197,11 @@ public interface ImmutableList<E> extends InductiveList<E>, IterativeList<E> {
 			++i;
 		}
 		elems[size()] = elem;
-		return create(elems);
+		Counters.copied(elems.length);
+		ImmutableList<E> result = create(elems);
+		Counters.operation(this, "concat", elems.length, start);
+		Events.end(event, this, "concat", size(), elems.length);
+		return result;
 	}
 
 	/**
@@ -114,11 +213,7 @@ public interface ImmutableList<E> extends InductiveList<E>, IterativeList<E> {
 	 * elements from this list
 	 */
 	default ImmutableList<E> remove(ImmutableList<E> elems) {
-		ImmutableList<E> list = this;
-		for (E elem : elems) {
-			list = list.remove(elem);
-		}
-		return list;
+		return removeAll(this, elems);
 	}
 
 	/**
@@ -130,11 +225,7 @@ public interface ImmutableList<E> extends InductiveList<E>, IterativeList<E> {
 	 * elements from this list
 	 */
 	default ImmutableList<E> remove(Collection<E> elems) {
-		ImmutableList<E> list = this;
-		for (E elem : elems) {
-			list = list.remove(elem);
-		}
-		return list;
+		return removeAll(this, elems);
 	}
 
 	/**
@@ -147,11 +238,48 @@ public interface ImmutableList<E> extends InductiveList<E>, IterativeList<E> {
 	 */
 	@SuppressWarnings({"unchecked"})
 	default ImmutableList<E> remove(E... elems) {
-		ImmutableList<E> list = this;
-		for (int i = 0 ; i <elems.length ; ++i){
-			list = list.remove(elems[i]);
+		return removeAll(this, Arrays.asList(elems));
+	}
+
+	/**
+	 * Returns a new list without the first occurrence of each of the given
+	 * elements, as many times as they are given, in a single pass: the
+	 * elements to remove are counted in a hash map.
+	 *
+	 * @throws IllegalArgumentException if an element is given more times
+	 * than list contains it
+	 */
+	@SuppressWarnings("unchecked")
+	static <E> ImmutableList<E> removeAll(ImmutableList<E> list, Iterable<? extends E> elems) {
+		long start = Counters.start();
+		Object event = Events.begin();
+		Map<E, Integer> counts = new HashMap<E, Integer>();
+		int count = 0;
+		for (E elem : elems) {
+			counts.merge(elem, 1, Integer::sum);
+			++count;
 		}
-		return list;
+		if (count == 0)
+			return list;
+		if (count > list.size())
+			throw new IllegalArgumentException();
+
+		E[] array = (E[]) new Object[list.size() - count];
+		int i = 0;
+		for (E elem : list) {
+			Integer left = counts.get(elem);
+			if (left != null && left > 0)
+				counts.put(elem, left - 1);
+			else if (i == array.length)
+				throw new IllegalArgumentException();
+			else
+				array[i++] = elem;
+		}
+		Counters.copied(array.length);
+		ImmutableList<E> result = list.create(array);
+		Counters.operation(list, "removeAll", array.length, start);
+		Events.end(event, list, "removeAll", list.size(), array.length);
+		return result;
 	}
 
 	/**
@@ -164,6 +292,8 @@ public interface ImmutableList<E> extends InductiveList<E>, IterativeList<E> {
 	 */
 	@SuppressWarnings("unchecked")
 	default ImmutableList<E> remove(E elem) throws IllegalArgumentException {
+		long start = Counters.start();
+		Object event = Events.begin();
 		E[] newElems;
 		int i;
 		boolean remove;
@@ -180,8 +310,12 @@ public interface ImmutableList<E> extends InductiveList<E>, IterativeList<E> {
 				i++;
 			}
 		}
+		Counters.copied(newElems.length);
 
-		return create(newElems);
+		ImmutableList<E> result = create(newElems);
+		Counters.operation(this, "remove", newElems.length, start);
+		Events.end(event, this, "remove", size(), newElems.length);
+		return result;
 	}
 
 	/**
@@ -197,7 +331,7 @@ public interface ImmutableList<E> extends InductiveList<E>, IterativeList<E> {
 	// To be used for the clone() method in concrete classes (since Object
 	// methods cannot be overriden with the default keyword)
 	static <E> ImmutableList<E> clone(ImmutableList<E> list) {
-		return list.subList(0, list.size());
+		return list;
 	}
 
 	default ImmutableList<E> tail() throws UnsupportedOperationException {
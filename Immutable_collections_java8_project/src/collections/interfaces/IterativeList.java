@@ -1,8 +1,15 @@
 package collections.interfaces;
 
+import java.lang.reflect.Array;
+import java.util.AbstractList;
 import java.util.Spliterators;
 import java.util.Spliterator;
 import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+import java.util.RandomAccess;
+import java.util.function.BinaryOperator;
+import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.function.Predicate;
 
@@ -27,6 +34,67 @@ public interface IterativeList<E> extends ImmutableCoreList<E> {
 	 */
 	E get(int index) throws IndexOutOfBoundsException;
 
+	// The defaults below walk lists marked with RandomAccess (whose get()
+	// is O(1)) with plain index loops, which do not allocate any iterator.
+
+	default boolean any(Predicate<? super E> predicate) {
+		if (!(this instanceof RandomAccess))
+			return ImmutableCoreList.super.any(predicate);
+
+		for (int i = 0, size = size() ; i < size ; ++i)
+			if (predicate.test(get(i)))
+				return true;
+		return false;
+	}
+
+	default boolean all(Predicate<? super E> predicate) {
+		if (!(this instanceof RandomAccess))
+			return ImmutableCoreList.super.all(predicate);
+
+		for (int i = 0, size = size() ; i < size ; ++i)
+			if (!predicate.test(get(i)))
+				return false;
+		return true;
+	}
+
+	default int indexOf(E elem) {
+		if (!(this instanceof RandomAccess))
+			return ImmutableCoreList.super.indexOf(elem);
+
+		for (int i = 0, size = size() ; i < size ; ++i)
+			if (ImmutableCoreList.equals(elem, get(i)))
+				return i;
+		return -1;
+	}
+
+	default boolean contains(E elem) {
+		return indexOf(elem) >= 0;
+	}
+
+	default Optional<E> reduce(BinaryOperator<E> accumulator) {
+		if (!(this instanceof RandomAccess))
+			return ImmutableCoreList.super.reduce(accumulator);
+
+		int size = size();
+		if (size == 0)
+			return Optional.empty();
+
+		E result = get(0);
+		for (int i = 1 ; i < size ; ++i)
+			result = accumulator.apply(result, get(i));
+		return Optional.of(result);
+	}
+
+	default void forEach(Consumer<? super E> action) {
+		if (!(this instanceof RandomAccess)) {
+			ImmutableCoreList.super.forEach(action);
+			return;
+		}
+
+		for (int i = 0, size = size() ; i < size ; ++i)
+			action.accept(get(i));
+	}
+
 	default Spliterator<E> spliterator() {
 		return Spliterators.spliterator(iterator(),
 				size(),
@@ -66,11 +134,43 @@ public interface IterativeList<E> extends ImmutableCoreList<E> {
 		return true;
 	}
 
+	/**
+	 * Returns an unmodifiable list backed by this list: no element is
+	 * copied, and size and get are delegated to this list. The view is
+	 * RandomAccess if this list is.
+	 *
+	 * @return an unmodifiable view of this list
+	 */
+	default List<E> asListView() {
+		if (!(this instanceof RandomAccess))
+			return ImmutableCoreList.sequentialListView(this);
+		return new RandomAccessListView<E>(this);
+	}
+
 	@SuppressWarnings({ "unchecked"})
 	default E[] toArray() {
 		return toArray((E[]) new Object[size()]);
 	}
 
+	@SuppressWarnings("unchecked")
+	default E[] toArray(E[] a) {
+		int size = size();
+		if (a.length < size)
+			a = (E[]) Array.newInstance(a.getClass().getComponentType(), size);
+		else if (a.length > size)
+			a[size] = null;
+
+		if (this instanceof RandomAccess) {
+			for (int i = 0 ; i < size ; ++i)
+				a[i] = get(i);
+		} else {
+			int i = 0;
+			for (E elem : this)
+				a[i++] = elem;
+		}
+		return a;
+	}
+
 	@SuppressWarnings("unchecked")
 	default <F> IterativeList<F> map(Function<? super E, ? extends F> mapper) {
 		return (IterativeList<F>) ImmutableCoreList.super.map(mapper);
@@ -80,3 +180,42 @@ public interface IterativeList<E> extends ImmutableCoreList<E> {
 		return (IterativeList<E>) ImmutableCoreList.super.filter(predicate);
 	}
 }
+
+/**
+ * Unmodifiable, random access java.util.List view of an iterative list.
+ */
+class RandomAccessListView<E> extends AbstractList<E> implements RandomAccess {
+
+	/** The list this view is backed by */
+	private final IterativeList<E> list;
+
+	RandomAccessListView(IterativeList<E> list) {
+		this.list = list;
+	}
+
+	public E get(int index) {
+		return list.get(index);
+	}
+
+	public int size() {
+		return list.size();
+	}
+
+	public Iterator<E> iterator() {
+		return list.iterator();
+	}
+
+	@SuppressWarnings("unchecked")
+	public boolean contains(Object o) {
+		return list.contains((E) o);
+	}
+
+	@SuppressWarnings("unchecked")
+	public int indexOf(Object o) {
+		return list.indexOf((E) o);
+	}
+
+	public Object[] toArray() {
+		return list.toArray();
+	}
+}
@@ -0,0 +1,105 @@
+package main;
+
+/**
+ * Counts latencies in buckets whose width grows with the values, like an
+ * HdrHistogram with two significant digits: values below 256 ns are
+ * counted exactly, larger ones within 1/128 of their value. Values above
+ * MAX are counted as MAX.
+ *
+ * A histogram is not thread safe: each thread records in its own, and the
+ * histograms are added once the threads are done.
+ */
+public final class LatencyHistogram {
+
+	/** Largest value counted: about 18 minutes, in nanoseconds */
+	public static final long MAX = (1L << 40) - 1;
+
+	private static final int SUB_BITS = 8;
+	private static final int SUB      = 1 << SUB_BITS;
+	private static final int HALF     = SUB / 2;
+
+	private final long[] counts = new long[index(MAX) + 1];
+	private long count;
+	private long sum;
+	private long max;
+
+	private static int index(long value) {
+		if (value < SUB)
+			return (int) value;
+		int shift = 63 - Long.numberOfLeadingZeros(value) - (SUB_BITS - 1);
+		return SUB + (shift - 1) * HALF + (int) (value >>> shift) - HALF;
+	}
+
+	/** The largest value counted in the bucket of the given index */
+	private static long highestValue(int index) {
+		if (index < SUB)
+			return index;
+		int shift = (index - SUB) / HALF + 1;
+		long sub  = (index - SUB) % HALF + HALF;
+		return ((sub + 1) << shift) - 1;
+	}
+
+	/**
+	 * Counts a value.
+	 *
+	 * @param value a latency, in nanoseconds
+	 */
+	public void record(long value) {
+		value = Math.max(0, Math.min(value, MAX));
+		++counts[index(value)];
+		++count;
+		sum += value;
+		max = Math.max(max, value);
+	}
+
+	/**
+	 * Adds the values counted by another histogram to this one.
+	 *
+	 * @param other the histogram to add
+	 */
+	public void add(LatencyHistogram other) {
+		for (int i = 0 ; i < counts.length ; ++i)
+			counts[i] += other.counts[i];
+		count += other.count;
+		sum   += other.sum;
+		max    = Math.max(max, other.max);
+	}
+
+	public long getCount() {
+		return count;
+	}
+
+	/**
+	 * Returns the mean of the values.
+	 *
+	 * @return the mean of the values, 0 if none was counted
+	 */
+	public double getMean() {
+		return count == 0 ? 0 : (double) sum / count;
+	}
+
+	public long getMax() {
+		return max;
+	}
+
+	/**
+	 * Returns the value below which the given percentage of the values
+	 * are, up to the width of its bucket.
+	 *
+	 * @param percentile the percentage, from 0 to 100
+	 * @return the largest value of the bucket holding the percentile, 0 if
+	 * no value was counted
+	 */
+	public long getValueAtPercentile(double percentile) {
+		if (count == 0)
+			return 0;
+		long rank = Math.max(1, (long) Math.ceil(percentile / 100 * count));
+		long seen = 0;
+		for (int i = 0 ; i < counts.length ; ++i) {
+			seen += counts[i];
+			if (seen >= rank)
+				return Math.min(highestValue(i), max);
+		}
+		return max;
+	}
+}
@@ -1,11 +1,149 @@
 package main;
 
+import java.io.FileNotFoundException;
+import java.io.PrintStream;
+import java.io.UnsupportedEncodingException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Replays a workload on the lists and reports the latencies of its
+ * operations, for each implementation, size and number of threads:
+ *
+ * java -cp Immutable_collections_java8_project.jar main.Main --mix=cons:40,get:50,subList:10 --sizes=10,1000 --threads=1,4 --rate=20000
+ *
+ * The benchmarks module measures the operations one at a time, at full
+ * speed; this measures them mixed, at the pace of an application.
+ */
 public class Main {
 
-	public static void main(String[] args) {
-		System.out.println("Main.");
-		Benchmarks bench = new Benchmarks(100);
-		bench.run(10, 1000);
+	private static final String USAGE = String.join(System.lineSeparator(),
+		"Usage: main.Main [option]...",
+		"  --mix=OP:WEIGHT,...     operations and their shares of the traffic (default get:50,cons:30,subList:10,stream:10)",
+		"                          operations: " + labels(),
+		"  --implementations=L,... lists to run on (default all): " + String.join(",", Workload.IMPLEMENTATIONS),
+		"  --sizes=N,...           list sizes (default 10,1000)",
+		"  --threads=N,...         numbers of threads sharing the list (default 1)",
+		"  --rate=OPS              operations per second, all threads together (default 10000)",
+		"  --warmup=SECONDS        time run before measuring (default 1)",
+		"  --duration=SECONDS      time measured (default 5)",
+		"  --seed=N                seed of the random choices (default 42)",
+		"  --format=csv|json       output format (default csv)",
+		"  --output=FILE           file to write to (default standard output)");
+
+	public static void main(String[] args) throws InterruptedException {
+		int status = run(args, System.out);
+		if (status != 0)
+			System.exit(status);
 	}
 
+	/**
+	 * Replays the workload the arguments describe, and writes its report.
+	 *
+	 * @param args the command line options
+	 * @param out where to write the report, unless an output file is given
+	 * @return 0, or 2 if the arguments are wrong
+	 * @throws InterruptedException if interrupted during the replay
+	 */
+	public static int run(String[] args, PrintStream out) throws InterruptedException {
+		String mix = "get:50,cons:30,subList:10,stream:10";
+		List<String> implementations = Workload.IMPLEMENTATIONS;
+		String sizes = "10,1000";
+		String threads = "1";
+		String rate = "10000";
+		String warmup = "1";
+		String duration = "5";
+		String seed = "42";
+		String format = "csv";
+		String output = null;
+
+		Workload workload;
+		try {
+			for (String arg : args) {
+				int equals = arg.indexOf('=');
+				if (!arg.startsWith("--") || equals < 0)
+					throw new IllegalArgumentException("Malformed option " + arg);
+				String value = arg.substring(equals + 1);
+				switch (arg.substring(2, equals)) {
+				case "mix":             mix = value; break;
+				case "implementations": implementations = Arrays.asList(value.split(",")); break;
+				case "sizes":           sizes = value; break;
+				case "threads":         threads = value; break;
+				case "rate":            rate = value; break;
+				case "warmup":          warmup = value; break;
+				case "duration":        duration = value; break;
+				case "seed":            seed = value; break;
+				case "format":          format = value; break;
+				case "output":          output = value; break;
+				default:
+					throw new IllegalArgumentException("Unknown option " + arg);
+				}
+			}
+			if (!format.equals("csv") && !format.equals("json"))
+				throw new IllegalArgumentException("Unknown format " + format + ", expected csv or json");
+
+			List<Operation> operations = new ArrayList<Operation>();
+			List<Double> weights = new ArrayList<Double>();
+			Workload.parseMix(mix, operations, weights);
+			double[] shares = new double[weights.size()];
+			for (int i = 0 ; i < shares.length ; ++i)
+				shares[i] = weights.get(i);
+
+			workload = new Workload(implementations, integers(sizes), integers(threads),
+						operations.toArray(new Operation[0]), shares,
+						Double.parseDouble(rate), nanos(warmup), nanos(duration), Long.parseLong(seed));
+		} catch (IllegalArgumentException e) {
+			// NumberFormatException included
+			System.err.println(e.getMessage());
+			System.err.println(USAGE);
+			return 2;
+		}
+
+		// Before the replay, which may be long
+		PrintStream report = out;
+		if (output != null)
+			try {
+				report = new PrintStream(output, "UTF-8");
+			} catch (FileNotFoundException | UnsupportedEncodingException e) {
+				System.err.println("Cannot write to " + output + ": " + e.getMessage());
+				return 2;
+			}
+
+		List<Replay> replays = new ArrayList<Replay>();
+		for (String implementation : workload.implementations)
+			for (int size : workload.sizes)
+				for (int count : workload.threads) {
+					Replay replay = new Replay(workload, implementation, size, count);
+					replay.run();
+					replays.add(replay);
+				}
+
+		if (format.equals("csv"))
+			Report.csv(replays, report);
+		else
+			Report.json(replays, workload, report);
+		if (report != out)
+			report.close();
+		return 0;
+	}
+
+	private static int[] integers(String list) {
+		String[] values = list.split(",");
+		int[] integers = new int[values.length];
+		for (int i = 0 ; i < values.length ; ++i)
+			integers[i] = Integer.parseInt(values[i].trim());
+		return integers;
+	}
+
+	private static long nanos(String seconds) {
+		return (long) (Double.parseDouble(seconds) * 1e9);
+	}
+
+	private static String labels() {
+		List<String> labels = new ArrayList<String>();
+		for (Operation operation : Operation.values())
+			labels.add(operation.label);
+		return String.join(",", labels);
+	}
 }
@@ -0,0 +1,165 @@
+package main;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.locks.LockSupport;
+
+import collections.interfaces.ImmutableList;
+
+/**
+ * Replays a workload on one list, from a number of threads, at a fixed
+ * rate: each thread is given a schedule of operations, one every
+ * threads / rate seconds, and runs them in turn.
+ *
+ * The schedule does not wait for the operations: when one runs late, the
+ * next ones start late too, and their response time counts the wait from
+ * their intended start. Measuring from the actual start only would hide
+ * the stalls behind the operations they delay (coordinated omission); the
+ * service time, from the actual start, is kept apart. The replay stops
+ * at the end of its duration, whether the schedule is done or not.
+ */
+final class Replay {
+
+	/** Below this, waiting threads spin instead of parking */
+	private static final long SPIN_NANOS = 100000;
+
+	/** Keeps the results of the operations reachable */
+	static volatile Object sink;
+
+	final String implementation;
+	final int size;
+	final int threads;
+
+	/**
+	 * Response times, from the intended start, per operation of the mix.
+	 * The operations still due at the end of the replay count the time
+	 * they waited.
+	 */
+	final LatencyHistogram[] response;
+
+	/** Service times, from the actual start, per operation of the mix that ran */
+	final LatencyHistogram[] service;
+
+	final Workload workload;
+
+	/** Operations run after the warmup, per second */
+	double achievedRate;
+
+	private final ImmutableList<Integer> list;
+
+	Replay(Workload workload, String implementation, int size, int threads) {
+		this.workload       = workload;
+		this.implementation = implementation;
+		this.size           = size;
+		this.threads        = threads;
+		this.list           = Workload.list(implementation, size, threads > 1);
+		this.response       = histograms(workload.operations.length);
+		this.service        = histograms(workload.operations.length);
+	}
+
+	private static LatencyHistogram[] histograms(int count) {
+		LatencyHistogram[] histograms = new LatencyHistogram[count];
+		for (int i = 0 ; i < count ; ++i)
+			histograms[i] = new LatencyHistogram();
+		return histograms;
+	}
+
+	/**
+	 * Runs the workload, and adds the latencies of the threads to the
+	 * histograms.
+	 *
+	 * @throws InterruptedException if interrupted while waiting for the
+	 * threads
+	 */
+	void run() throws InterruptedException {
+		long interval = (long) (threads * 1e9 / workload.rate);
+		if (interval < 1)
+			interval = 1;
+		Worker[] workers = new Worker[threads];
+		SplittableRandom seeds = new SplittableRandom(workload.seed);
+		// Leave the threads time to start before the first operation
+		long start = System.nanoTime() + 10000000;
+		for (int i = 0 ; i < threads ; ++i) {
+			// Stagger the threads, so that the operations come evenly
+			workers[i] = new Worker(seeds.split(), start + interval * i / threads, interval);
+			workers[i].start();
+		}
+
+		long count = 0;
+		for (Worker worker : workers) {
+			worker.join();
+			if (worker.failure != null)
+				throw worker.failure;
+			for (int i = 0 ; i < response.length ; ++i) {
+				response[i].add(worker.response[i]);
+				service[i].add(worker.service[i]);
+				count += worker.service[i].getCount();
+			}
+		}
+		achievedRate = count * 1e9 / workload.durationNanos;
+	}
+
+	private final class Worker extends Thread {
+
+		final LatencyHistogram[] response = histograms(workload.operations.length);
+		final LatencyHistogram[] service  = histograms(workload.operations.length);
+		RuntimeException failure;
+
+		private final SplittableRandom random;
+		private final long start;
+		private final long interval;
+
+		Worker(SplittableRandom random, long start, long interval) {
+			super("replay-" + implementation + "-" + size);
+			setDaemon(true);
+			this.random   = random;
+			this.start    = start;
+			this.interval = interval;
+		}
+
+		@Override
+		public void run() {
+			try {
+				replay();
+			} catch (RuntimeException e) {
+				failure = e;
+			}
+		}
+
+		private void replay() {
+			long measured = start + workload.warmupNanos;
+			long end      = measured + workload.durationNanos;
+			Operation[] operations = workload.operations;
+			Object result = null;
+
+			long intended = start;
+			for ( ; intended < end ; intended += interval) {
+				waitUntil(intended);
+				int operation = workload.pick(random);
+				long begin = System.nanoTime();
+				if (begin >= end)
+					break;
+				result = operations[operation].run(list, size, random);
+				long done = System.nanoTime();
+				if (intended >= measured) {
+					response[operation].record(done - intended);
+					service[operation].record(done - begin);
+				}
+			}
+			sink = result;
+
+			// The operations still due have waited until now at least:
+			// leaving them out would hide the stall
+			long now = System.nanoTime();
+			for ( ; intended < end ; intended += interval)
+				if (intended >= measured)
+					response[workload.pick(random)].record(now - intended);
+		}
+
+		private void waitUntil(long time) {
+			long remaining;
+			while ((remaining = time - System.nanoTime()) > 0)
+				if (remaining > SPIN_NANOS)
+					LockSupport.parkNanos(remaining - SPIN_NANOS);
+		}
+	}
+}
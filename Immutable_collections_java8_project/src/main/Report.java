@@ -0,0 +1,104 @@
+package main;
+
+import java.io.PrintStream;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Writes the latencies of replays, in microseconds, as CSV with a row per
+ * run, operation and kind of latency, or as JSON with an object per run.
+ * The operation "all" sums the operations of the mix.
+ */
+final class Report {
+
+	static final double[] PERCENTILES = {50, 90, 99, 99.9, 99.99};
+	static final String[] PERCENTILE_NAMES = {"p50", "p90", "p99", "p99.9", "p99.99"};
+
+	private Report() {
+	}
+
+	static void csv(List<Replay> replays, PrintStream out) {
+		StringBuilder header = new StringBuilder("implementation,size,threads,rate,achieved_rate,operation,latency,count,mean_us");
+		for (String name : PERCENTILE_NAMES)
+			header.append(',').append(name).append("_us");
+		out.println(header.append(",max_us"));
+
+		for (Replay replay : replays) {
+			String run = replay.implementation + "," + replay.size + "," + replay.threads + ","
+				+ format(replay.workload.rate) + "," + format(replay.achievedRate);
+			for (int i = 0 ; i <= replay.response.length ; ++i) {
+				String operation = name(replay, i);
+				out.println(run + "," + operation + ",response," + csv(histogram(replay.response, i)));
+				out.println(run + "," + operation + ",service," + csv(histogram(replay.service, i)));
+			}
+		}
+	}
+
+	static void json(List<Replay> replays, Workload workload, PrintStream out) {
+		out.println("{");
+		out.println("  \"rate\": " + format(workload.rate) + ",");
+		out.println("  \"warmupSeconds\": " + format(workload.warmupNanos / 1e9) + ",");
+		out.println("  \"durationSeconds\": " + format(workload.durationNanos / 1e9) + ",");
+		out.println("  \"runs\": [");
+		for (int r = 0 ; r < replays.size() ; ++r) {
+			Replay replay = replays.get(r);
+			out.println("    {");
+			out.println("      \"implementation\": \"" + replay.implementation + "\",");
+			out.println("      \"size\": " + replay.size + ",");
+			out.println("      \"threads\": " + replay.threads + ",");
+			out.println("      \"achievedRate\": " + format(replay.achievedRate) + ",");
+			out.println("      \"operations\": {");
+			for (int i = 0 ; i <= replay.response.length ; ++i) {
+				out.println("        \"" + name(replay, i) + "\": {");
+				out.println("          \"response\": " + json(histogram(replay.response, i)) + ",");
+				out.println("          \"service\": " + json(histogram(replay.service, i)));
+				out.println("        }" + (i < replay.response.length ? "," : ""));
+			}
+			out.println("      }");
+			out.println("    }" + (r < replays.size() - 1 ? "," : ""));
+		}
+		out.println("  ]");
+		out.println("}");
+	}
+
+	/** The name of the i-th operation of the mix, "all" after the last one */
+	private static String name(Replay replay, int i) {
+		return i < replay.response.length ? replay.workload.operations[i].label : "all";
+	}
+
+	/** The i-th histogram, or the sum of them all after the last one */
+	private static LatencyHistogram histogram(LatencyHistogram[] histograms, int i) {
+		if (i < histograms.length)
+			return histograms[i];
+		LatencyHistogram all = new LatencyHistogram();
+		for (LatencyHistogram histogram : histograms)
+			all.add(histogram);
+		return all;
+	}
+
+	private static String csv(LatencyHistogram histogram) {
+		StringBuilder row = new StringBuilder();
+		row.append(histogram.getCount()).append(',').append(micros(histogram.getMean()));
+		for (double percentile : PERCENTILES)
+			row.append(',').append(micros(histogram.getValueAtPercentile(percentile)));
+		return row.append(',').append(micros(histogram.getMax())).toString();
+	}
+
+	private static String json(LatencyHistogram histogram) {
+		StringBuilder object = new StringBuilder("{");
+		object.append("\"count\": ").append(histogram.getCount());
+		object.append(", \"mean_us\": ").append(micros(histogram.getMean()));
+		for (int i = 0 ; i < PERCENTILES.length ; ++i)
+			object.append(", \"").append(PERCENTILE_NAMES[i]).append("_us\": ")
+				.append(micros(histogram.getValueAtPercentile(PERCENTILES[i])));
+		return object.append(", \"max_us\": ").append(micros(histogram.getMax())).append('}').toString();
+	}
+
+	private static String micros(double nanos) {
+		return String.format(Locale.ROOT, "%.3f", nanos / 1000);
+	}
+
+	private static String format(double value) {
+		return String.format(Locale.ROOT, "%.1f", value);
+	}
+}
@@ -0,0 +1,249 @@
+package main;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import collections.implementations.DoubleLinkedListProxy;
+import collections.implementations.ImmutableArrayList;
+import collections.implementations.ImmutableLinkedList;
+import collections.implementations.ImmutableReversedArrayList;
+import collections.interfaces.ImmutableList;
+
+/**
+ * A traffic shape to replay: the operations to run, each with its share of
+ * the traffic, on lists of given implementations and sizes, from given
+ * numbers of threads, at a given rate.
+ */
+final class Workload {
+
+	/** The implementations the workload can run on */
+	static final List<String> IMPLEMENTATIONS = Collections.unmodifiableList(Arrays.asList(
+		"ImmutableArrayList",
+		"ImmutableLinkedList",
+		"ImmutableReversedArrayList",
+		"DoubleLinkedListProxy"));
+
+	final List<String> implementations;
+	final int[] sizes;
+	final int[] threads;
+
+	/** The operations of the mix, and the cumulated shares of the traffic they take */
+	final Operation[] operations;
+	private final double[] shares;
+
+	/** Operations per second, all threads together */
+	final double rate;
+
+	final long warmupNanos;
+	final long durationNanos;
+	final long seed;
+
+	Workload(List<String> implementations, int[] sizes, int[] threads, Operation[] operations, double[] weights,
+		 double rate, long warmupNanos, long durationNanos, long seed) {
+		for (String implementation : implementations)
+			if (!IMPLEMENTATIONS.contains(implementation))
+				throw new IllegalArgumentException("Unknown implementation " + implementation
+								   + ", expected one of " + IMPLEMENTATIONS);
+		for (int size : sizes)
+			if (size < 1)
+				throw new IllegalArgumentException("Sizes must be at least 1");
+		for (int count : threads)
+			if (count < 1)
+				throw new IllegalArgumentException("Thread counts must be at least 1");
+		if (!(rate > 0))
+			throw new IllegalArgumentException("The rate must be positive");
+		if (durationNanos <= 0 || warmupNanos < 0)
+			throw new IllegalArgumentException("The duration must be positive");
+
+		double total = 0;
+		for (double weight : weights) {
+			if (!(weight >= 0))
+				throw new IllegalArgumentException("Operation weights must not be negative");
+			total += weight;
+		}
+		if (!(total > 0))
+			throw new IllegalArgumentException("The mix must have an operation with a positive weight");
+		this.shares = new double[weights.length];
+		double cumulated = 0;
+		for (int i = 0 ; i < weights.length ; ++i) {
+			cumulated += weights[i] / total;
+			this.shares[i] = cumulated;
+		}
+
+		this.implementations = implementations;
+		this.sizes           = sizes;
+		this.threads         = threads;
+		this.operations      = operations;
+		this.rate            = rate;
+		this.warmupNanos     = warmupNanos;
+		this.durationNanos   = durationNanos;
+		this.seed            = seed;
+	}
+
+	/**
+	 * Parses a mix such as cons:40,get:50,subList:10 into its operations
+	 * and their weights. The weights need not add up to 100.
+	 *
+	 * @param operations receives the operations of the mix
+	 * @param weights receives the weights of the operations
+	 * @throws IllegalArgumentException if the mix is malformed
+	 */
+	static void parseMix(String mix, List<Operation> operations, List<Double> weights) {
+		for (String entry : mix.split(",")) {
+			String[] parts = entry.trim().split(":");
+			if (parts.length > 2 || parts[0].isEmpty())
+				throw new IllegalArgumentException("Malformed mix entry " + entry + ", expected operation:weight");
+			Operation operation = Operation.of(parts[0]);
+			if (operations.contains(operation))
+				throw new IllegalArgumentException("Operation " + parts[0] + " appears twice in the mix");
+			operations.add(operation);
+			try {
+				weights.add(parts.length == 1 ? 1 : Double.parseDouble(parts[1]));
+			} catch (NumberFormatException e) {
+				throw new IllegalArgumentException("Malformed weight in mix entry " + entry);
+			}
+		}
+	}
+
+	/**
+	 * Returns the index of an operation of the mix, drawn at random
+	 * according to the shares of the operations.
+	 */
+	int pick(SplittableRandom random) {
+		double draw = random.nextDouble();
+		for (int i = 0 ; i < shares.length - 1 ; ++i)
+			if (draw < shares[i])
+				return i;
+		return shares.length - 1;
+	}
+
+	/**
+	 * Returns a list of the given implementation holding 0 to size - 1.
+	 * Proxies are concurrent when several threads share them.
+	 */
+	static ImmutableList<Integer> list(String implementation, int size, boolean concurrent) {
+		Integer[] elems = new Integer[size];
+		for (int i = 0 ; i < size ; ++i)
+			elems[i] = i;
+
+		switch (implementation) {
+		case "ImmutableArrayList":
+			return new ImmutableArrayList<Integer>(elems);
+		case "ImmutableLinkedList":
+			return new ImmutableLinkedList<Integer>(elems);
+		case "ImmutableReversedArrayList":
+			List<Integer> reversed = new ArrayList<Integer>(Arrays.asList(elems));
+			Collections.reverse(reversed);
+			return new ImmutableReversedArrayList<Integer>(new ImmutableArrayList<Integer>(reversed));
+		case "DoubleLinkedListProxy":
+			return DoubleLinkedListProxy.fromArray(elems, concurrent);
+		default:
+			throw new IllegalArgumentException("Unknown implementation " + implementation);
+		}
+	}
+}
+
+/**
+ * The operations a workload mixes. Each runs once on a list holding 0 to
+ * size - 1, with indices and elements drawn at random, and returns a
+ * result for the caller to keep.
+ */
+enum Operation {
+
+	GET("get") {
+		Object run(ImmutableList<Integer> list, int size, SplittableRandom random) {
+			return list.get(random.nextInt(size));
+		}
+	},
+	HEAD("head") {
+		Object run(ImmutableList<Integer> list, int size, SplittableRandom random) {
+			return list.head();
+		}
+	},
+	SIZE("size") {
+		Object run(ImmutableList<Integer> list, int size, SplittableRandom random) {
+			return list.size();
+		}
+	},
+	INDEX_OF("indexOf") {
+		Object run(ImmutableList<Integer> list, int size, SplittableRandom random) {
+			return list.indexOf(random.nextInt(size));
+		}
+	},
+	ITERATE("iterate") {
+		Object run(ImmutableList<Integer> list, int size, SplittableRandom random) {
+			long sum = 0;
+			for (Integer elem : list)
+				sum += elem;
+			return sum;
+		}
+	},
+	STREAM("stream") {
+		Object run(ImmutableList<Integer> list, int size, SplittableRandom random) {
+			return list.stream().mapToLong(Integer::longValue).sum();
+		}
+	},
+	REDUCE("reduce") {
+		Object run(ImmutableList<Integer> list, int size, SplittableRandom random) {
+			return list.reduce(Integer::sum);
+		}
+	},
+	CONS("cons") {
+		Object run(ImmutableList<Integer> list, int size, SplittableRandom random) {
+			return list.cons(-1);
+		}
+	},
+	CONCAT("concat") {
+		Object run(ImmutableList<Integer> list, int size, SplittableRandom random) {
+			return list.concat(list);
+		}
+	},
+	TAIL("tail") {
+		Object run(ImmutableList<Integer> list, int size, SplittableRandom random) {
+			return list.tail();
+		}
+	},
+	SUB_LIST("subList") {
+		Object run(ImmutableList<Integer> list, int size, SplittableRandom random) {
+			int from = random.nextInt(size);
+			return list.subList(from, from + random.nextInt(size - from + 1));
+		}
+	},
+	REVERSE("reverse") {
+		Object run(ImmutableList<Integer> list, int size, SplittableRandom random) {
+			return list.reverse();
+		}
+	},
+	MAP("map") {
+		Object run(ImmutableList<Integer> list, int size, SplittableRandom random) {
+			return list.map(x -> x + 1);
+		}
+	},
+	FILTER("filter") {
+		Object run(ImmutableList<Integer> list, int size, SplittableRandom random) {
+			return list.filter(x -> x % 2 == 0);
+		}
+	};
+
+	/** The name of the operation in a mix */
+	final String label;
+
+	Operation(String label) {
+		this.label = label;
+	}
+
+	abstract Object run(ImmutableList<Integer> list, int size, SplittableRandom random);
+
+	static Operation of(String label) {
+		for (Operation operation : values())
+			if (operation.label.equals(label))
+				return operation;
+		List<String> labels = new ArrayList<String>();
+		for (Operation operation : values())
+			labels.add(operation.label);
+		throw new IllegalArgumentException("Unknown operation " + label + ", expected one of " + labels);
+	}
+}
@@ -8,8 +8,23 @@ import org.junit.runners.Suite.SuiteClasses;
 @SuiteClasses({
 	ImmutableArrayListTest.class,
 	    ImmutableLinkedListTest.class,
+	    InternedLinkedListTest.class,
 	    ImmutableReversedArrayListTest.class,
-	    DoubleLinkedListProxyTest.class
+	    SmallImmutableListTest.class,
+	    DoubleLinkedListProxyTest.class,
+	    PackedDoubleLinkedListProxyTest.class,
+	    DoubleLinkedListProxyListTest.class,
+	    AllocationRegressionTest.class,
+	    ComplexityTest.class,
+	    CountersTest.class,
+	    EventsTest.class,
+	    MemoryStatsTest.class,
+	    WorkloadReplayTest.class,
+	    ImmutableCollectorsTest.class,
+	    LazyLinkedListTest.class,
+	    ImmutableListsTest.class,
+	    ImmutableTextListTest.class,
+	    ImmutableCompressedListTest.class
 	    })
 public class AllTests {
 
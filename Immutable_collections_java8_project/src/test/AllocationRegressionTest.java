@@ -0,0 +1,192 @@
+package test;
+
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import collections.implementations.DoubleLinkedListProxy;
+import collections.interfaces.ImmutableList;
+
+/**
+ * Bytes allocated by each operation, per implementation and size, checked
+ * against the baseline in allocation-baseline.json. The test fails when an
+ * operation allocates more than its baseline plus the tolerance.
+ *
+ * The bytes are counted by com.sun.management.ThreadMXBean, around one
+ * call of the operation on a freshly built list. The smallest count of a
+ * few calls is kept, which leaves out the odd allocation of the JVM
+ * itself. The build runs the tests without escape analysis, for the
+ * counts not to depend on what the JIT compiled: with it, they can only
+ * be lower.
+ *
+ * Run with -Dallocation.baseline.update=true to rewrite the baseline once
+ * a change in the allocations is intended, and -Dallocation.tolerance to
+ * change the tolerance (0.1 by default, that is 10%).
+ */
+public class AllocationRegressionTest {
+
+	/** Bytes an operation may allocate beyond the tolerance, for alignment */
+	private static final long SLACK = 32;
+
+	private static final int WARMUP = 2;
+	private static final int RUNS   = 5;
+
+	private static final int[] SIZES = {10, 1000};
+
+	/** Key of the layout calibration in the baseline */
+	private static final String LAYOUT = "layout.Object[1024]";
+
+	private static final Map<String, ImmutableListFactory<Integer>> implementations = new LinkedHashMap<>();
+	private static final Map<String, Function<ImmutableList<Integer>, Object>> operations = new LinkedHashMap<>();
+
+	static {
+		implementations.put("ImmutableArrayList", new ImmutableArrayListFactory<Integer>());
+		implementations.put("ImmutableLinkedList", new ImmutableLinkedListFactory<Integer>());
+		implementations.put("ImmutableReversedArrayList", new ReversedArrayListFactory<Integer>());
+		implementations.put("DoubleLinkedListProxy", new ImmutableListFactory<Integer>() {
+			public ImmutableList<Integer> create(Integer... elems) {
+				return DoubleLinkedListProxy.fromArray(elems);
+			}
+			public ImmutableList<Integer> create() {
+				return DoubleLinkedListProxy.fromArray(new Integer[0]);
+			}
+		});
+
+		operations.put("cons", list -> list.cons(-1));
+		operations.put("concatElem", list -> list.concat(-1));
+		operations.put("concatList", list -> list.concat(list));
+		operations.put("removeElem", list -> list.remove(Integer.valueOf(list.size() / 2)));
+		operations.put("removeIndex", list -> list.remove(list.size() / 2));
+		operations.put("tail", list -> list.tail());
+		operations.put("subList", list -> list.subList(list.size() / 4, list.size() - list.size() / 4));
+		operations.put("reverse", list -> list.reverse());
+		operations.put("map", list -> list.map(x -> -x));
+		operations.put("filter", list -> list.filter(x -> x % 2 == 0));
+	}
+
+	/** Keeps the results reachable, so that they are really allocated */
+	private static volatile Object sink;
+
+	private com.sun.management.ThreadMXBean threads;
+	private long overhead;
+
+	@Before
+	public void setUp() {
+		java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+		assumeTrue("Allocated bytes are not counted by this JVM",
+			   bean instanceof com.sun.management.ThreadMXBean);
+		threads = (com.sun.management.ThreadMXBean) bean;
+		assumeTrue("Allocated bytes are not counted by this JVM",
+			   threads.isThreadAllocatedMemorySupported());
+		threads.setThreadAllocatedMemoryEnabled(true);
+
+		overhead = Long.MAX_VALUE;
+		for (int i = 0 ; i < 10 ; ++i)
+			overhead = Math.min(overhead, allocated(() -> null));
+	}
+
+	private long allocated(Supplier<Object> operation) {
+		long id = Thread.currentThread().getId();
+		long before = threads.getThreadAllocatedBytes(id);
+		Object result = operation.get();
+		long after = threads.getThreadAllocatedBytes(id);
+		sink = result;
+		return after - before;
+	}
+
+	private long measure(ImmutableListFactory<Integer> factory, Function<ImmutableList<Integer>, Object> operation, int size) {
+		Integer[] elems = new Integer[size];
+		for (int i = 0 ; i < size ; ++i)
+			elems[i] = i;
+
+		long bytes = Long.MAX_VALUE;
+		for (int run = 0 ; run < WARMUP + RUNS ; ++run) {
+			ImmutableList<Integer> list = factory.create(elems.clone());
+			long allocated = allocated(() -> operation.apply(list)) - overhead;
+			if (run >= WARMUP)
+				bytes = Math.min(bytes, allocated);
+		}
+		return bytes;
+	}
+
+	private Map<String, Long> measureAll() {
+		Map<String, Long> results = new TreeMap<>();
+		results.put(LAYOUT, Math.max(0, allocated(() -> new Object[1024]) - overhead));
+		for (Map.Entry<String, ImmutableListFactory<Integer>> implementation : implementations.entrySet())
+			for (Map.Entry<String, Function<ImmutableList<Integer>, Object>> operation : operations.entrySet())
+				for (int size : SIZES)
+					results.put(implementation.getKey() + "." + operation.getKey() + "." + size,
+						    measure(implementation.getValue(), operation.getValue(), size));
+		return results;
+	}
+
+	private static Path baselinePath() {
+		return Paths.get(System.getProperty("allocation.baseline", "src/test/allocation-baseline.json"));
+	}
+
+	/** Reads a flat JSON object of numbers */
+	private static Map<String, Long> readBaseline(Path path) throws IOException {
+		String json = new String(Files.readAllBytes(path), StandardCharsets.UTF_8);
+		Map<String, Long> baseline = new TreeMap<>();
+		Matcher matcher = Pattern.compile("\"([^\"]+)\"\\s*:\\s*(\\d+)").matcher(json);
+		while (matcher.find())
+			baseline.put(matcher.group(1), Long.parseLong(matcher.group(2)));
+		return baseline;
+	}
+
+	private static void writeBaseline(Path path, Map<String, Long> results) throws IOException {
+		StringBuilder json = new StringBuilder("{\n");
+		String separator = "";
+		for (Map.Entry<String, Long> result : results.entrySet()) {
+			json.append(separator).append("\t\"").append(result.getKey()).append("\": ").append(result.getValue());
+			separator = ",\n";
+		}
+		json.append("\n}\n");
+		Files.write(path, json.toString().getBytes(StandardCharsets.UTF_8));
+	}
+
+	@Test
+	public void testAllocations() throws IOException {
+		Map<String, Long> results = measureAll();
+		Path path = baselinePath();
+		if (Boolean.getBoolean("allocation.baseline.update")) {
+			writeBaseline(path, results);
+			return;
+		}
+
+		Map<String, Long> baseline = readBaseline(path);
+		assumeTrue("The baseline was recorded with another object layout",
+			   results.get(LAYOUT).equals(baseline.get(LAYOUT)));
+
+		double tolerance = Double.parseDouble(System.getProperty("allocation.tolerance", "0.1"));
+		List<String> regressions = new ArrayList<>();
+		for (Map.Entry<String, Long> result : results.entrySet()) {
+			Long expected = baseline.get(result.getKey());
+			if (expected == null)
+				regressions.add(result.getKey() + ": no baseline");
+			else if (result.getValue() > expected * (1 + tolerance) + SLACK)
+				regressions.add(result.getKey() + ": " + result.getValue() + " bytes, baseline " + expected);
+		}
+		assertTrue("Allocations above the baseline " + path + " (rewrite it with -Dallocation.baseline.update=true if intended):\n"
+			   + String.join("\n", regressions),
+			   regressions.isEmpty());
+	}
+}
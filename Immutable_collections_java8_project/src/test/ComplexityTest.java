@@ -0,0 +1,260 @@
+package test;
+
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import collections.implementations.DoubleLinkedListProxy;
+import collections.instrumentation.Counters;
+import collections.interfaces.ImmutableList;
+
+/**
+ * Growth of the work done by each operation, per implementation. The work
+ * is the number of elements copied plus the number of elements walked
+ * through, as counted by Counters, for lists of 2^7 to 2^12 elements. The
+ * exponent k of the best fit of work = c.n^k must not exceed the one of
+ * the complexity class declared for the operation.
+ *
+ * The operations known to exceed their class are listed in KNOWN_FAILURES:
+ * they are expected to fail, and the test fails once they no longer do, to
+ * have them removed from the list.
+ *
+ * Counting must be on (-Dcollections.instrumentation=true, as the build
+ * does), the test is skipped otherwise.
+ */
+public class ComplexityTest {
+
+	enum Complexity {
+		CONSTANT(0.1),
+		LINEAR(1.15);
+
+		/** Largest fitted exponent in the class */
+		final double maxExponent;
+
+		Complexity(double maxExponent) {
+			this.maxExponent = maxExponent;
+		}
+	}
+
+	/**
+	 * Operations which exceed their declared class, as implementation.name:
+	 * each tail of an array list copies the rest of it, so walking one
+	 * through head and tail is quadratic.
+	 */
+	private static final Set<String> KNOWN_FAILURES = new HashSet<>(Arrays.asList(
+		"ImmutableArrayList.sumByTails",
+		"ImmutableReversedArrayList.sumByTails"));
+
+	private static final int MIN_SIZE = 1 << 7;
+	private static final int MAX_SIZE = 1 << 12;
+
+	private static final Map<String, ImmutableListFactory<Integer>> implementations = new LinkedHashMap<>();
+
+	static {
+		implementations.put("ImmutableArrayList", new ImmutableArrayListFactory<Integer>());
+		implementations.put("ImmutableLinkedList", new ImmutableLinkedListFactory<Integer>());
+		implementations.put("ImmutableReversedArrayList", new ReversedArrayListFactory<Integer>());
+		implementations.put("DoubleLinkedListProxy", new ImmutableListFactory<Integer>() {
+			public ImmutableList<Integer> create(Integer... elems) {
+				return DoubleLinkedListProxy.fromArray(elems);
+			}
+			public ImmutableList<Integer> create() {
+				return DoubleLinkedListProxy.fromArray(new Integer[0]);
+			}
+		});
+	}
+
+	/** Keeps the results reachable */
+	private static volatile Object sink;
+
+	@BeforeClass
+	public static void setUpClass() {
+		assumeTrue("Run with -Dcollections.instrumentation=true to count the work", Counters.ENABLED);
+	}
+
+	/**
+	 * Returns the work done by operation on a list of the given size.
+	 */
+	private static long work(ImmutableListFactory<Integer> factory, Function<ImmutableList<Integer>, Object> operation, int size) {
+		Integer[] elems = new Integer[size];
+		for (int i = 0 ; i < size ; ++i)
+			elems[i] = i;
+		ImmutableList<Integer> list = factory.create(elems);
+
+		Counters.reset();
+		sink = operation.apply(list);
+		return Counters.copied() + Counters.traversed();
+	}
+
+	/**
+	 * Returns the slope of the least squares fit of log(work + 1) against
+	 * log(size).
+	 */
+	static double exponent(ImmutableListFactory<Integer> factory, Function<ImmutableList<Integer>, Object> operation) {
+		List<double[]> points = new ArrayList<>();
+		for (int size = MIN_SIZE ; size <= MAX_SIZE ; size *= 2)
+			points.add(new double[] {Math.log(size), Math.log(work(factory, operation, size) + 1)});
+
+		double meanX = 0, meanY = 0;
+		for (double[] point : points) {
+			meanX += point[0] / points.size();
+			meanY += point[1] / points.size();
+		}
+		double covariance = 0, variance = 0;
+		for (double[] point : points) {
+			covariance += (point[0] - meanX) * (point[1] - meanY);
+			variance   += (point[0] - meanX) * (point[0] - meanX);
+		}
+		return covariance / variance;
+	}
+
+	/**
+	 * Checks operation against the complexity declared for each
+	 * implementation, given in the order of implementations. A known
+	 * failure must still exceed its class.
+	 */
+	private static void check(String name, Function<ImmutableList<Integer>, Object> operation, Complexity... complexities) {
+		List<String> failures = new ArrayList<>();
+		int i = 0;
+		for (Map.Entry<String, ImmutableListFactory<Integer>> implementation : implementations.entrySet()) {
+			Complexity complexity = complexities[i++];
+			double exponent = exponent(implementation.getValue(), operation);
+			boolean known = KNOWN_FAILURES.contains(implementation.getKey() + "." + name);
+			if (exponent > complexity.maxExponent && !known)
+				failures.add(String.format("%s.%s grows as n^%.2f, declared %s",
+							   implementation.getKey(), name, exponent, complexity));
+			else if (exponent <= complexity.maxExponent && known)
+				failures.add(String.format("%s.%s grows as n^%.2f, now %s: remove it from KNOWN_FAILURES",
+							   implementation.getKey(), name, exponent, complexity));
+		}
+		assertTrue(String.join("\n", failures), failures.isEmpty());
+	}
+
+	private static Integer middle(ImmutableList<Integer> list) {
+		return list.size() / 2;
+	}
+
+	/** Walks the list through head and tail, as an inductive function would */
+	private static long sumByTails(ImmutableList<Integer> list) {
+		long sum = 0;
+		while (!list.isEmpty()) {
+			sum += list.head();
+			list = list.tail();
+		}
+		return sum;
+	}
+
+	// Declared in the order ImmutableArrayList, ImmutableLinkedList,
+	// ImmutableReversedArrayList, DoubleLinkedListProxy
+
+	@Test
+	public void testGet() {
+		check("get", list -> list.get(middle(list)),
+		      Complexity.CONSTANT, Complexity.LINEAR, Complexity.CONSTANT, Complexity.LINEAR);
+	}
+
+	@Test
+	public void testSize() {
+		check("size", list -> list.size(),
+		      Complexity.CONSTANT, Complexity.CONSTANT, Complexity.CONSTANT, Complexity.CONSTANT);
+	}
+
+	@Test
+	public void testHeadLast() {
+		check("head", list -> list.head(),
+		      Complexity.CONSTANT, Complexity.CONSTANT, Complexity.CONSTANT, Complexity.CONSTANT);
+		check("last", list -> list.last(),
+		      Complexity.CONSTANT, Complexity.CONSTANT, Complexity.CONSTANT, Complexity.CONSTANT);
+	}
+
+	@Test
+	public void testCons() {
+		check("cons", list -> list.cons(-1),
+		      Complexity.LINEAR, Complexity.CONSTANT, Complexity.LINEAR, Complexity.CONSTANT);
+	}
+
+	@Test
+	public void testTail() {
+		check("tail", list -> list.tail(),
+		      Complexity.LINEAR, Complexity.CONSTANT, Complexity.LINEAR, Complexity.CONSTANT);
+	}
+
+	@Test
+	public void testTailRecursion() {
+		// Quadratic on the array lists: see KNOWN_FAILURES
+		check("sumByTails", ComplexityTest::sumByTails,
+		      Complexity.LINEAR, Complexity.LINEAR, Complexity.LINEAR, Complexity.LINEAR);
+	}
+
+	@Test
+	public void testSubList() {
+		check("subList", list -> list.subList(list.size() / 4, list.size() - list.size() / 4),
+		      Complexity.LINEAR, Complexity.LINEAR, Complexity.LINEAR, Complexity.LINEAR);
+	}
+
+	@Test
+	public void testConcat() {
+		check("concatElem", list -> list.concat(-1),
+		      Complexity.LINEAR, Complexity.LINEAR, Complexity.LINEAR, Complexity.CONSTANT);
+		check("concatList", list -> list.concat(list),
+		      Complexity.LINEAR, Complexity.LINEAR, Complexity.LINEAR, Complexity.LINEAR);
+		check("concatArray", list -> list.concat(list.toArray(new Integer[0])),
+		      Complexity.LINEAR, Complexity.LINEAR, Complexity.LINEAR, Complexity.LINEAR);
+		check("concatCollection", list -> list.concat(Arrays.asList(list.toArray(new Integer[0]))),
+		      Complexity.LINEAR, Complexity.LINEAR, Complexity.LINEAR, Complexity.LINEAR);
+	}
+
+	@Test
+	public void testRemove() {
+		check("removeElem", list -> list.remove(middle(list)),
+		      Complexity.LINEAR, Complexity.LINEAR, Complexity.LINEAR, Complexity.LINEAR);
+		check("removeIndex", list -> list.remove(list.size() / 2),
+		      Complexity.LINEAR, Complexity.LINEAR, Complexity.LINEAR, Complexity.LINEAR);
+		check("removeList", list -> list.remove(list.subList(0, list.size() / 2)),
+		      Complexity.LINEAR, Complexity.LINEAR, Complexity.LINEAR, Complexity.LINEAR);
+	}
+
+	@Test
+	public void testReverse() {
+		check("reverse", list -> list.reverse(),
+		      Complexity.CONSTANT, Complexity.LINEAR, Complexity.CONSTANT, Complexity.CONSTANT);
+	}
+
+	@Test
+	public void testMapFilter() {
+		check("map", list -> list.map(x -> -x),
+		      Complexity.LINEAR, Complexity.LINEAR, Complexity.LINEAR, Complexity.LINEAR);
+		check("filter", list -> list.filter(x -> x % 2 == 0),
+		      Complexity.LINEAR, Complexity.LINEAR, Complexity.LINEAR, Complexity.LINEAR);
+	}
+
+	@Test
+	public void testTraversals() {
+		check("iterator", list -> {
+				long sum = 0;
+				for (Integer elem : list)
+					sum += elem;
+				return sum;
+			},
+		      Complexity.LINEAR, Complexity.LINEAR, Complexity.LINEAR, Complexity.LINEAR);
+		check("indexOf", list -> list.indexOf(list.size() - 1),
+		      Complexity.LINEAR, Complexity.LINEAR, Complexity.LINEAR, Complexity.LINEAR);
+		check("contains", list -> list.contains(-1),
+		      Complexity.LINEAR, Complexity.LINEAR, Complexity.LINEAR, Complexity.LINEAR);
+		check("hashCode", list -> list.hashCode(),
+		      Complexity.LINEAR, Complexity.LINEAR, Complexity.LINEAR, Complexity.LINEAR);
+		check("equals", list -> list.equals(list.map(x -> x)),
+		      Complexity.LINEAR, Complexity.LINEAR, Complexity.LINEAR, Complexity.LINEAR);
+	}
+}
@@ -0,0 +1,130 @@
+package test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.openmbean.CompositeData;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import collections.implementations.DoubleLinkedListProxy;
+import collections.implementations.ImmutableArrayList;
+import collections.instrumentation.Counters;
+import collections.instrumentation.CountersSnapshot;
+import collections.instrumentation.OperationStats;
+import collections.interfaces.ImmutableList;
+
+public class CountersTest {
+
+	@Before
+	public void setUp() {
+		assumeTrue("Run with -Dcollections.instrumentation=true to count", Counters.ENABLED);
+		Counters.reset();
+	}
+
+	@Test
+	public void testOperation() {
+		// Large enough to stay an ImmutableArrayList
+		ImmutableArrayList<Integer> list = new ImmutableArrayList<Integer>(1, 2, 3, 4, 5);
+		list.cons(0).cons(-1);
+
+		OperationStats cons = Counters.snapshot().get("ImmutableArrayList", "cons");
+		assertNotNull(cons);
+		assertEquals(2, cons.getCalls());
+		assertEquals(6 + 7, cons.getElementsCopied());
+		assertTrue(cons.getBytesAllocated() >= 0);
+	}
+
+	@Test
+	public void testDefaultOperation() {
+		ImmutableList<Integer> list = new ImmutableArrayList<Integer>(1, 2, 3, 4, 5).reverse();
+		list.concat(6);
+
+		OperationStats concat = Counters.snapshot().get("ImmutableReversedArrayList", "concat");
+		assertNotNull(concat);
+		assertEquals(1, concat.getCalls());
+		assertEquals(6, concat.getElementsCopied());
+	}
+
+	@Test
+	public void testTotals() {
+		new ImmutableArrayList<Integer>(1, 2, 3, 4, 5).cons(0).forEach(x -> {});
+
+		CountersSnapshot snapshot = Counters.snapshot();
+		assertTrue(snapshot.isEnabled());
+		// The list keeps the array of the constructor: only cons copies
+		assertEquals(6, snapshot.getElementsCopied());
+		assertEquals(5 + 6, snapshot.getElementsTraversed());
+	}
+
+	@Test
+	public void testCopiedOnlyWhenCopying() {
+		new ImmutableArrayList<Integer>(1, 2, 3);
+		assertEquals(0, Counters.snapshot().getElementsCopied());
+
+		new ImmutableArrayList<Integer>(Arrays.asList(1, 2, 3)).toArray();
+		assertEquals(3 + 3, Counters.snapshot().getElementsCopied());
+	}
+
+	@Test
+	public void testOutdatedVersion() {
+		DoubleLinkedListProxy<Integer> list = DoubleLinkedListProxy.fromArray(new Integer[] {1, 2, 3});
+		DoubleLinkedListProxy<Integer> reversed = list.reverse();
+		assertEquals(3, (int) reversed.iterator().next());
+		reversed.cons(4);
+
+		// The cells now hold the reversed list: list reads its saved values,
+		// and copies them to be modified
+		assertEquals(1, (int) list.get(0));
+		list.cons(0);
+
+		CountersSnapshot snapshot = Counters.snapshot();
+		assertTrue(snapshot.get("VersionedDoubleLinkedList", "outdatedRead").getCalls() > 0);
+		OperationStats copy = snapshot.get("DoubleLinkedListProxy", "copy");
+		assertEquals(1, copy.getCalls());
+		assertEquals(3, copy.getElementsCopied());
+	}
+
+	@Test
+	public void testReset() {
+		new ImmutableArrayList<Integer>(1, 2, 3).cons(0);
+		Counters.reset();
+
+		CountersSnapshot snapshot = Counters.snapshot();
+		assertNull(snapshot.get("ImmutableArrayList", "cons"));
+		assertEquals(0, snapshot.getElementsCopied());
+		assertEquals(0, snapshot.getElementsTraversed());
+	}
+
+	@Test
+	public void testMXBean() throws Exception {
+		new ImmutableArrayList<Integer>(1, 2, 3, 4, 5).cons(0);
+
+		MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+		ObjectName name = new ObjectName(Counters.NAME);
+		assertEquals(true, server.getAttribute(name, "Enabled"));
+		assertEquals(6L, server.getAttribute(name, "ElementsCopied"));
+
+		CompositeData[] operations = (CompositeData[]) server.getAttribute(name, "Operations");
+		boolean found = false;
+		for (CompositeData operation : operations)
+			if (operation.get("implementation").equals("ImmutableArrayList") && operation.get("operation").equals("cons")) {
+				assertEquals(1L, operation.get("calls"));
+				assertEquals(6L, operation.get("elementsCopied"));
+				found = true;
+			}
+		assertTrue(found);
+
+		server.invoke(name, "reset", new Object[0], new String[0]);
+		assertEquals(0L, server.getAttribute(name, "ElementsCopied"));
+	}
+}
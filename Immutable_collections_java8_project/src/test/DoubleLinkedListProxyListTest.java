@@ -0,0 +1,12 @@
+package test;
+
+import org.junit.Before;
+
+
+public class DoubleLinkedListProxyListTest extends InductiveIterativeListTest {
+
+	@Before
+	public void setUp() {
+		super.setUp(new DoubleLinkedListProxyFactory<Integer>());
+	}
+}
@@ -2,12 +2,23 @@ package test;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
 import org.junit.Before;
 import org.junit.Test;
 
 import collections.implementations.DoubleLinkedListProxy;
+import collections.implementations.ImmutableArrayList;
+import collections.implementations.ImmutableLinkedList;
+import collections.implementations.VersionedDoubleLinkedList;
+import collections.implementations.VersionedDoubleLinkedList.Version;
 
 public class DoubleLinkedListProxyTest {
 
@@ -31,10 +42,9 @@ public class DoubleLinkedListProxyTest {
 		assertFalse(list.cons(1).isEmpty());
 	}
 
-	// @Test(expected=UnsupportedOperationException.class)
-	public void testTailException() { // TODO: should throw an exception
-		// nil.tail();
-		assertEquals(nil, nil.tail());
+	@Test(expected=UnsupportedOperationException.class)
+	public void testTailException() {
+		nil.tail();
 	}
 
 	@Test
@@ -44,7 +54,7 @@ public class DoubleLinkedListProxyTest {
 		assertEquals(nil.cons(1), list.tail());
 	}
 
-	@Test(expected=UnsupportedOperationException.class)
+	@Test(expected=NoSuchElementException.class)
 	public void testHeadException() {
 		list.head();
 	}
@@ -119,4 +129,375 @@ public class DoubleLinkedListProxyTest {
 		expected = expected.cons(1);
 		assertEquals(expected, list);
 	}
+
+	@Test
+	public void testConcurrentLoserCopies() {
+		list = new DoubleLinkedListProxy<Integer>(true).cons(3).cons(2);
+		DoubleLinkedListProxy<Integer> one = list.cons(1);
+		DoubleLinkedListProxy<Integer> zero = list.cons(0);
+
+		DoubleLinkedListProxy<Integer> expected = nil.cons(3).cons(2);
+		assertEquals(expected, list);
+		assertEquals(expected.copy().cons(1), one);
+		assertEquals(expected.copy().cons(0), zero);
+	}
+
+	@Test
+	public void testConcurrentCons() throws InterruptedException {
+		final DoubleLinkedListProxy<Integer> base = new DoubleLinkedListProxy<Integer>(true).cons(2).cons(1);
+		final DoubleLinkedListProxy<Integer> expected = nil.cons(2).cons(1);
+		final AtomicInteger failures = new AtomicInteger();
+
+		Thread[] threads = new Thread[16];
+		for (int t = 0 ; t < threads.length ; ++t) {
+			final int id = t;
+			threads[t] = new Thread(() -> {
+				for (int i = 0 ; i < 1000 ; ++i) {
+					DoubleLinkedListProxy<Integer> mine = base.cons(id).cons(i);
+					if (mine.head() != i || mine.tail().head() != id ||
+					    !expected.equals(mine.tail().tail()))
+						failures.incrementAndGet();
+				}
+			});
+			threads[t].start();
+		}
+		for (Thread thread : threads)
+			thread.join();
+
+		assertEquals(0, failures.get());
+		assertEquals(expected, base);
+	}
+
+	private DoubleLinkedListProxy<Integer> of(Integer... elems) {
+		DoubleLinkedListProxy<Integer> result = nil.nil();
+		for (int i = elems.length - 1 ; i >= 0 ; --i)
+			result = result.cons(elems[i]);
+		return result;
+	}
+
+	@Test
+	public void testStaleProxyAfterCons() {
+		list = list.cons(3);
+		DoubleLinkedListProxy<Integer> one = list.cons(1);
+		DoubleLinkedListProxy<Integer> two = list.cons(2);
+
+		assertEquals(of(1, 3), one);
+		assertEquals(of(2, 3), two);
+		assertEquals(of(0, 1, 3), one.cons(0));
+		assertEquals(of(2, 3), two);
+		assertEquals(3, (int)one.tail().head());
+	}
+
+	@Test
+	public void testStaleProxyAfterReverse() {
+		list = list.cons(3).cons(2).cons(1);
+		DoubleLinkedListProxy<Integer> tail = list.tail();
+		DoubleLinkedListProxy<Integer> reversed = list.reverse();
+
+		assertEquals(of(3, 2, 1), reversed);
+		assertEquals(of(1, 2, 3), list);
+		assertEquals(of(2, 3), tail);
+		assertEquals("[3, 2]", tail.reverse().toString());
+		assertEquals(of(3, 2, 1), reversed);
+	}
+
+	@Test
+	public void testStaleProxyAfterEndoMap() {
+		list = list.cons(3).cons(2).cons(1);
+		DoubleLinkedListProxy<Integer> doubled = list.endoMap((Integer x) -> x * 2);
+		DoubleLinkedListProxy<Integer> tripled = doubled.endoMap((Integer x) -> x * 3);
+
+		assertEquals(of(1, 2, 3), list);
+		assertEquals(of(2, 4, 6), doubled);
+		assertEquals(of(6, 12, 18), tripled);
+		assertEquals(of(10, 20, 30), list.map((Integer x) -> x * 10));
+	}
+
+	@Test
+	public void testStaleProxyAfterConcat() {
+		DoubleLinkedListProxy<Integer> one = list.cons(1);
+		DoubleLinkedListProxy<Integer> both = one.concat(of(2));
+
+		assertEquals(of(1, 2), both);
+		assertEquals(of(1), one);
+		assertEquals(of(1, 3), one.concat(of(3)));
+		assertEquals(of(1, 2), both);
+	}
+
+	@Test
+	public void testSplice() {
+		DoubleLinkedListProxy<Integer> left = of(1, 2);
+		DoubleLinkedListProxy<Integer> right = of(3, 4);
+		DoubleLinkedListProxy<Integer> rightTail = right.tail();
+		DoubleLinkedListProxy<Integer> both = left.splice(right);
+
+		assertEquals(of(1, 2, 3, 4), both);
+		assertEquals(of(1, 2), left);
+		assertEquals(of(3, 4), right);
+		assertEquals(of(4), rightTail);
+
+		DoubleLinkedListProxy<Integer> reversed = both.reverse();
+		assertEquals(of(4, 3, 2, 1), reversed);
+		assertEquals(of(3, 4), right);
+		assertEquals(of(4), rightTail);
+		assertEquals(of(0, 3, 4), right.cons(0));
+	}
+
+	@Test
+	public void testSpliceStaleRight() {
+		DoubleLinkedListProxy<Integer> right = of(3, 4);
+		DoubleLinkedListProxy<Integer> doubled = right.endoMap((Integer x) -> x * 2);
+		DoubleLinkedListProxy<Integer> both = of(1).splice(doubled);
+
+		assertEquals(of(1, 6, 8), both);
+		assertEquals(of(3, 4), right);
+		assertEquals(of(6, 8), doubled);
+		assertEquals(of(2, 12, 16), both.endoMap((Integer x) -> x * 2));
+		assertEquals(of(3, 4), right);
+		assertEquals(of(6, 8), doubled);
+	}
+
+	@Test
+	public void testConcatUniquelyOwned() {
+		list = of(1, 2);
+		DoubleLinkedListProxy<Integer> mapped = of(3, 4).map((Integer x) -> x * 10);
+		assertEquals(of(1, 2, 30, 40), list.concat(mapped));
+		assertEquals(of(30, 40), mapped);
+		assertEquals(of(1, 2, 1, 2), list.concat(list));
+	}
+
+	@Test
+	public void testLazyReverse() {
+		list = of(1, 2, 3);
+		DoubleLinkedListProxy<Integer> reversed = list.reverse();
+
+		assertEquals(3, (int)reversed.head());
+		assertEquals(of(0, 1, 2, 3), list.cons(0));
+		assertEquals(of(2, 1), reversed.tail());
+		assertEquals(of(1, 2, 3), reversed.reverse());
+		assertEquals(of(3, 2, 1), reversed);
+	}
+
+	@Test
+	public void testLazyEndoMap() {
+		list = of(1, 2, 3);
+		DoubleLinkedListProxy<Integer> mapped = list.endoMap((Integer x) -> x + 1).reverse().endoMap((Integer x) -> x * 10);
+
+		assertEquals(40, (int)mapped.head());
+		assertEquals(of(1, 2, 3), list);
+		assertEquals("[-40, -30, -20]", mapped.map((Integer x) -> -x).toString());
+		assertEquals(of(5, 40, 30, 20), mapped.cons(5));
+		assertEquals(of(40, 30, 20), mapped);
+	}
+
+	@Test
+	public void testSize() {
+		assertEquals(0, nil.size());
+		list = of(1, 2, 3);
+		assertEquals(3, list.size());
+		assertEquals(2, list.tail().size());
+		assertEquals(4, list.cons(0).size());
+		assertEquals(3, list.reverse().endoMap((Integer x) -> x + 1).size());
+		assertEquals(5, list.concat(of(4, 5)).size());
+		assertEquals(3, list.size());
+		assertEquals(6, list.concat(list).size());
+	}
+
+	@Test
+	public void testGet() {
+		list = of(1, 2, 3, 4, 5);
+		for (int i = 0 ; i < 5 ; ++i)
+			assertEquals(i + 1, (int)list.get(i));
+		assertEquals(4, (int)list.reverse().get(1));
+		assertEquals(40, (int)list.endoMap((Integer x) -> x * 10).get(3));
+		assertEquals(5, (int)list.last());
+		assertEquals(1, (int)list.reverse().last());
+	}
+
+	@Test
+	public void testGetStale() {
+		list = of(1, 2, 3, 4, 5);
+		DoubleLinkedListProxy<Integer> tail = list.tail();
+		list.concat(of(6));
+		assertEquals(5, (int)list.get(4));
+		assertEquals(5, (int)tail.get(3));
+	}
+
+	@Test(expected=IndexOutOfBoundsException.class)
+	public void testGetException() {
+		of(1, 2).get(2);
+	}
+
+	@Test
+	public void testIterator() {
+		list = of(1, 2, 3);
+		Iterator<Integer> it = list.reverse().endoMap((Integer x) -> x * 2).iterator();
+		assertTrue(it.hasNext()); assertEquals(6, (int)it.next());
+		assertTrue(it.hasNext()); assertEquals(4, (int)it.next());
+		assertTrue(it.hasNext()); assertEquals(2, (int)it.next());
+		assertFalse(it.hasNext());
+	}
+
+	@Test(expected=NoSuchElementException.class)
+	public void testIteratorException() {
+		nil.iterator().next();
+	}
+
+	@Test
+	public void testIteratorStale() {
+		// Several chunks, some read after the list is modified
+		Integer[] elems = new Integer[200];
+		for (int i = 0 ; i < elems.length ; ++i)
+			elems[i] = i;
+		list = nil.create(elems);
+
+		int i = 0;
+		for (Integer elem : list) {
+			if (i == 100)
+				list.endoMap((Integer x) -> -1).cons(0);
+			assertEquals(i++, (int)elem);
+		}
+		assertEquals(elems.length, i);
+	}
+
+	@Test
+	public void testStream() {
+		list = of(1, 2, 3, 4);
+		assertEquals(Arrays.asList(2, 4), list.stream().filter((Integer x) -> x % 2 == 0).collect(Collectors.toList()));
+		assertEquals(10, list.stream().mapToInt((Integer x) -> x).sum());
+		assertEquals(4, list.stream().count());
+	}
+
+	@Test
+	public void testSubList() {
+		list = of(1, 2, 3, 4);
+		assertEquals(of(2, 3), list.subList(1, 3));
+		assertEquals(of(3, 4), list.subList(2, 4));
+		assertEquals(of(3, 2), list.reverse().subList(1, 3));
+		assertEquals(nil, list.subList(4, 4));
+	}
+
+	@Test(expected=IllegalArgumentException.class)
+	public void testSubListException() {
+		of(1, 2).subList(2, 1);
+	}
+
+	@Test
+	public void testRemove() {
+		list = of(1, 2, 3);
+		assertEquals(of(2, 3), list.remove(0));
+		assertEquals(of(1, 3), list.remove(1));
+		assertEquals(of(1, 2, 3), list);
+	}
+
+	@Test(expected=ArrayIndexOutOfBoundsException.class)
+	public void testRemoveException() {
+		of(1, 2).remove(2);
+	}
+
+	@Test
+	public void testOtherLists() {
+		list = of(1, 2, 3);
+		assertEquals(new ImmutableArrayList<Integer>(1, 2, 3), list);
+		assertEquals(list, new ImmutableLinkedList<Integer>(1, 2, 3));
+		assertEquals(new ImmutableArrayList<Integer>(1, 2, 3).hashCode(), list.hashCode());
+		assertEquals(of(1, 2, 3, 4, 5), list.concat(new ImmutableLinkedList<Integer>(4, 5)));
+		assertEquals(of(1, 2, 3, 4), list.concat(4));
+		assertEquals(of(2), list.filter((Integer x) -> x % 2 == 0));
+		assertEquals(of(1, 2, 3), list);
+	}
+
+	@Test
+	public void testConsAll() {
+		assertEquals(nil, nil.consAll());
+		assertEquals(of(1, 2, 3), nil.consAll(1, 2, 3));
+		list = of(3, 4);
+		assertEquals(of(1, 2, 3, 4), list.consAll(1, 2));
+		assertEquals(of(3, 4), list.tail().consAll(3));
+		assertEquals(of(0, 1, 3, 4), list.consAll(0, 1));
+		assertEquals(of(3, 4), list);
+	}
+
+	@Test
+	public void testConsAllReusesCells() {
+		list = of(1, 2, 3, 4);
+		DoubleLinkedListProxy<Integer> tail = list.tail().tail();
+		DoubleLinkedListProxy<Integer> result = tail.consAll(5, 6, 7);
+
+		assertEquals(of(5, 6, 7, 3, 4), result);
+		assertEquals(5, result.size());
+		assertEquals(of(1, 2, 3, 4), list);
+		assertEquals(of(3, 4), tail);
+		assertEquals(of(8, 5, 6, 7, 3, 4), result.cons(8));
+	}
+
+	@Test
+	public void testConsAllOtherLists() {
+		list = of(4);
+		assertEquals(of(1, 2, 3, 4), list.consAll(new ImmutableArrayList<Integer>(1, 2, 3)));
+		assertEquals(of(2, 3, 4), list.consAll(new ImmutableLinkedList<Integer>(2, 3)));
+		assertEquals(of(5, 6, 4), list.consAll(Arrays.asList(5, 6)));
+		assertEquals(of(4), list);
+	}
+
+	@Test
+	public void testFromArray() {
+		assertEquals(of(1, 2, 3), DoubleLinkedListProxy.fromArray(new Integer[] { 1, 2, 3 }));
+		assertEquals(of(1, 2), DoubleLinkedListProxy.fromArray(new Integer[] { 1, 2 }, true));
+		assertEquals(nil, DoubleLinkedListProxy.fromArray(new Integer[0]));
+	}
+
+	@Test
+	public void testStaleProxiesAcrossCheckpoints() {
+		list = of(0, 1, 2, 3, 4, 5, 6, 7, 8, 9);
+		DoubleLinkedListProxy<Integer> first = list;
+		DoubleLinkedListProxy<Integer> middle = null;
+		for (int i = 1 ; i <= 2000 ; ++i) {
+			list = list.tail().cons(-i);
+			if (i == 1000)
+				middle = list;
+		}
+		assertEquals(of(0, 1, 2, 3, 4, 5, 6, 7, 8, 9), first);
+		assertEquals(of(-1000, 1, 2, 3, 4, 5, 6, 7, 8, 9), middle);
+		assertEquals(of(-2000, 1, 2, 3, 4, 5, 6, 7, 8, 9), list);
+		assertEquals(of(-1000, 1, 2, 3, 4, 5, 6, 7, 8, 9), middle.reverse().reverse());
+	}
+
+	@Test
+	public void testStaleProxyRetainsBoundedChain() {
+		list = of(0, 1, 2, 3, 4, 5, 6, 7, 8, 9);
+		DoubleLinkedListProxy<Integer> stale = list;
+		long retained = stale.explain().getRetainedBytes();
+		for (int i = 0 ; i < 100000 ; ++i)
+			list = list.tail().cons(i);
+		// At most the versions between two checkpoints, and the values they saved
+		assertTrue(stale.explain().getRetainedBytes() - retained < 50000);
+		assertEquals(of(0, 1, 2, 3, 4, 5, 6, 7, 8, 9), stale);
+	}
+
+	@Test
+	public void testStaleProxyAfterInPlaceMaps() {
+		list = of(1, 2, 3, 4, 5);
+		DoubleLinkedListProxy<Integer> stale = list;
+		for (int i = 0 ; i < 300 ; ++i)
+			list = list.endoMap((Integer x) -> x + 1).reverse().cons(0).tail();
+		assertEquals(of(1, 2, 3, 4, 5), stale);
+		assertEquals(of(301, 302, 303, 304, 305), list);
+	}
+
+	@Test
+	public void testLazyReadsDoNotWrite() {
+		VersionedDoubleLinkedList<Integer> cells = new VersionedDoubleLinkedList<Integer>();
+		list = new DoubleLinkedListProxy<Integer>(cells).consAll(1, 2, 3);
+		Version<Integer> version = cells.getVersion();
+		DoubleLinkedListProxy<Integer> lazy = list.reverse().endoMap((Integer x) -> x * 10);
+
+		assertEquals("[30, 20, 10]", lazy.toString());
+		assertEquals(of(30, 20, 10), lazy);
+		assertEquals(lazy, of(30, 20, 10));
+		assertFalse(lazy.equals(of(10, 20, 30)));
+		assertEquals(Arrays.asList(30, 20, 10), lazy.stream().collect(Collectors.toList()));
+		assertEquals(of(30, 20, 10).hashCode(), lazy.hashCode());
+		assertSame(version, cells.getVersion());
+	}
 }
@@ -0,0 +1,113 @@
+package test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import collections.implementations.ImmutableArrayList;
+import collections.implementations.ImmutableReversedArrayList;
+import collections.instrumentation.Events;
+import collections.interfaces.ImmutableList;
+
+public class EventsTest {
+
+	private Recording recording;
+
+	@Before
+	public void setUp() {
+		recording = new Recording();
+	}
+
+	@After
+	public void tearDown() {
+		recording.close();
+	}
+
+	private List<RecordedEvent> record(Runnable operations) throws IOException {
+		recording.start();
+		operations.run();
+		recording.stop();
+		Path file = Files.createTempFile("events", ".jfr");
+		try {
+			recording.dump(file);
+			return RecordingFile.readAllEvents(file);
+		} finally {
+			Files.delete(file);
+		}
+	}
+
+	@Test
+	public void testEvent() throws IOException {
+		recording.enable("collections.Copy").withThreshold(Duration.ZERO);
+		List<RecordedEvent> events = record(() -> new ImmutableArrayList<Integer>(1, 2, 3).cons(0));
+
+		assertEquals(1, events.size());
+		RecordedEvent event = events.get(0);
+		assertEquals(ImmutableArrayList.class.getName(), event.getClass("implementation").getName());
+		assertEquals("cons", event.getString("operation"));
+		assertEquals(3, event.getInt("size"));
+		assertEquals(4, event.getLong("copied"));
+		assertTrue(!event.getDuration().isNegative());
+		assertTrue(event.getStackTrace() != null);
+	}
+
+	@Test
+	public void testDefaultOperation() throws IOException {
+		recording.enable("collections.Copy").withThreshold(Duration.ZERO);
+		ImmutableList<Integer> list = new ImmutableArrayList<Integer>(1, 2, 3, 4, 5).reverse();
+		List<RecordedEvent> events = record(() -> list.concat(6));
+
+		assertEquals(1, events.size());
+		RecordedEvent event = events.get(0);
+		assertEquals(ImmutableReversedArrayList.class.getName(), event.getClass("implementation").getName());
+		assertEquals("concat", event.getString("operation"));
+		assertEquals(5, event.getInt("size"));
+		assertEquals(6, event.getLong("copied"));
+	}
+
+	@Test
+	public void testThreshold() throws IOException {
+		recording.enable("collections.Copy").withThreshold(Duration.ofHours(1));
+		List<RecordedEvent> events = record(() -> new ImmutableArrayList<Integer>(1, 2, 3).cons(0));
+
+		assertTrue(events.isEmpty());
+	}
+
+	@Test
+	public void testSampling() throws IOException {
+		recording.enable("collections.Copy").withThreshold(Duration.ZERO);
+		System.setProperty("collections.events.sampling", "3");
+		List<RecordedEvent> events;
+		try {
+			events = record(() -> {
+					// Large enough to stay an ImmutableArrayList
+					ImmutableList<Integer> list = new ImmutableArrayList<Integer>(1, 2, 3, 4, 5);
+					for (int i = 0 ; i < 9 ; ++i)
+						list = list.cons(i);
+				});
+		} finally {
+			System.clearProperty("collections.events.sampling");
+		}
+
+		assertEquals(3, events.size());
+	}
+
+	@Test
+	public void testDisabled() {
+		assertNull(Events.begin());
+	}
+}
@@ -1,6 +1,11 @@
 package test;
 
+import static org.junit.Assert.assertTrue;
+
+import java.util.RandomAccess;
+
 import org.junit.Before;
+import org.junit.Test;
 
 
 public class ImmutableArrayListTest extends InductiveIterativeListTest {
@@ -10,4 +15,8 @@ public class ImmutableArrayListTest extends InductiveIterativeListTest {
 		super.setUp(new ImmutableArrayListFactory<Integer>());
 	}
 
+	@Test
+	public void asListViewRandomAccessTest() {
+		assertTrue(list.asListView() instanceof RandomAccess);
+	}
 }
@@ -0,0 +1,111 @@
+package test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Collector;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import org.junit.Test;
+
+import collections.implementations.ImmutableArrayList;
+import collections.implementations.ImmutableCollectors;
+import collections.implementations.ImmutableLinkedList;
+import collections.interfaces.ImmutableList;
+
+public class ImmutableCollectorsTest {
+
+	/** Sizes around the ones of the chunks */
+	private static final int[] SIZES = {0, 1, 15, 16, 17, 100, 16384, 40000};
+
+	private static Stream<Integer> stream(int size, boolean parallel) {
+		// Filtered, so that the stream does not know its size
+		Stream<Integer> stream = IntStream.range(0, size).boxed().filter(x -> x >= 0);
+		return parallel ? stream.parallel() : stream;
+	}
+
+	private static void check(Function<Integer, Collector<Integer, ?, ? extends ImmutableList<Integer>>> collector) {
+		for (boolean parallel : new boolean[] {false, true})
+			for (int size : SIZES) {
+				List<Integer> expected = stream(size, false).collect(Collectors.toList());
+				ImmutableList<Integer> list = stream(size, parallel).collect(collector.apply(size));
+				assertEquals(size, list.size());
+				assertEquals(expected, list.asList());
+				if (size > 0)
+					assertEquals(size - 1, (int) list.last());
+			}
+	}
+
+	@Test
+	public void testArrayList() {
+		check(size -> ImmutableCollectors.toImmutableArrayList());
+	}
+
+	@Test
+	public void testSizedArrayList() {
+		check(size -> ImmutableCollectors.toImmutableArrayList(size));
+		// Wrong guesses only cost copies
+		check(size -> ImmutableCollectors.toImmutableArrayList(size / 2));
+		check(size -> ImmutableCollectors.toImmutableArrayList(size * 2 + 1));
+	}
+
+	@Test
+	public void testLinkedList() {
+		check(size -> ImmutableCollectors.toImmutableLinkedList());
+
+		ImmutableLinkedList<Integer> list = stream(3, false).collect(ImmutableCollectors.toImmutableLinkedList());
+		assertEquals(ImmutableLinkedList.of(-1, 0, 1, 2), list.cons(-1));
+		assertEquals(ImmutableLinkedList.of(0, 1, 2, 3), list.concat(3));
+		assertEquals(ImmutableLinkedList.of(2, 1, 0), list.reverse());
+	}
+
+	@Test
+	public void testEmpty() {
+		assertSame(ImmutableArrayList.empty(), Stream.empty().collect(ImmutableCollectors.toImmutableArrayList()));
+		assertSame(ImmutableArrayList.empty(), Stream.empty().collect(ImmutableCollectors.toImmutableArrayList(10)));
+		assertSame(ImmutableLinkedList.empty(), Stream.empty().collect(ImmutableCollectors.toImmutableLinkedList()));
+	}
+
+	@Test
+	public void testNulls() {
+		ImmutableArrayList<Integer> list = Stream.of(1, null, 3).collect(ImmutableCollectors.toImmutableArrayList());
+		assertEquals(null, list.get(1));
+		assertEquals(1, list.indexOf(null));
+	}
+
+	/**
+	 * The collector may be used again once a stream is collected, or by two
+	 * streams at a time.
+	 */
+	@Test
+	public void testReuse() {
+		Collector<Integer, ?, ImmutableArrayList<Integer>> collector = ImmutableCollectors.toImmutableArrayList(100);
+		for (int i = 0 ; i < 3 ; ++i)
+			assertEquals(100, stream(100, i % 2 == 0).collect(collector).size());
+
+		List<Integer> sizes = IntStream.range(0, 8).parallel()
+			.mapToObj(i -> stream(1000, false).collect(collector).size())
+			.collect(Collectors.toList());
+		for (int size : sizes)
+			assertEquals(1000, size);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testNegativeSize() {
+		ImmutableCollectors.toImmutableArrayList(-1);
+	}
+
+	@Test
+	public void testImmutable() {
+		ImmutableArrayList<Integer> list = stream(20, true).collect(ImmutableCollectors.toImmutableArrayList(20));
+		ImmutableList<Integer> consed = list.cons(-1);
+		assertEquals(20, list.size());
+		assertEquals(21, consed.size());
+		assertTrue(list.equals(stream(20, false).collect(ImmutableCollectors.toImmutableArrayList())));
+	}
+}
@@ -0,0 +1,175 @@
+package test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+
+import org.junit.Test;
+
+import collections.implementations.ImmutableArrayList;
+import collections.implementations.ImmutableCompressedList;
+import collections.implementations.ImmutableCompressedList.Encoding;
+
+public class ImmutableCompressedListTest {
+
+	private static final String[] STATUSES = {"NEW", "OPEN", "CLOSED", null, "REJECTED"};
+
+	/** Statuses drawn at random, among the given number of them */
+	private static List<String> random(int size, int values, long seed) {
+		Random random = new Random(seed);
+		List<String> elems = new ArrayList<String>(size);
+		for (int i = 0 ; i < size ; ++i)
+			elems.add(values <= STATUSES.length ? STATUSES[random.nextInt(values)] : "v" + random.nextInt(values));
+		return elems;
+	}
+
+	/** Runs of random lengths */
+	private static List<String> runs(int size, long seed) {
+		Random random = new Random(seed);
+		List<String> elems = new ArrayList<String>(size);
+		while (elems.size() < size) {
+			String status = STATUSES[random.nextInt(STATUSES.length)];
+			for (int length = 1 + random.nextInt(500) ; length > 0 && elems.size() < size ; --length)
+				elems.add(status);
+		}
+		return elems;
+	}
+
+	private static void check(List<String> expected, ImmutableCompressedList<String> list) {
+		assertEquals(expected.size(), list.size());
+		for (int i = 0 ; i < expected.size() ; ++i)
+			assertEquals(expected.get(i), list.get(i));
+		assertEquals(expected, list.asList());
+		List<String> iterated = new ArrayList<String>();
+		list.forEach(iterated::add);
+		assertEquals(expected, iterated);
+		assertEquals(new ImmutableArrayList<String>(expected), list);
+		assertEquals(new ImmutableArrayList<String>(expected).hashCode(), list.hashCode());
+	}
+
+	private static void checkSearches(List<String> expected, ImmutableCompressedList<String> list) {
+		for (String elem : Arrays.asList("NEW", "OPEN", "CLOSED", null, "REJECTED", "v7", "missing")) {
+			assertEquals(expected.indexOf(elem), list.indexOf(elem));
+			assertEquals(expected.contains(elem), list.contains(elem));
+		}
+		Predicate<String> open = status -> status != null && !status.equals("CLOSED");
+		List<String> filtered = new ArrayList<String>();
+		for (String elem : expected)
+			if (open.test(elem))
+				filtered.add(elem);
+		ImmutableCompressedList<String> kept = list.filter(open);
+		assertEquals(list.encoding(), kept.encoding());
+		check(filtered, kept);
+	}
+
+	@Test
+	public void testEncodings() {
+		for (int values : new int[] {1, 2, 5, 300}) {
+			List<String> elems = random(10000, values, values);
+			for (Encoding encoding : Encoding.values()) {
+				ImmutableCompressedList<String> list = ImmutableCompressedList.copyOf(elems, encoding);
+				assertEquals(encoding, list.encoding());
+				check(elems, list);
+				checkSearches(elems, list);
+			}
+		}
+		List<String> elems = runs(10000, 3);
+		for (Encoding encoding : Encoding.values()) {
+			check(elems, ImmutableCompressedList.copyOf(elems, encoding));
+			checkSearches(elems, ImmutableCompressedList.copyOf(elems, encoding));
+		}
+	}
+
+	@Test
+	public void testChoice() {
+		// Few distinct elements in no order: codes of 3 bits
+		ImmutableCompressedList<String> random = ImmutableCompressedList.copyOf(random(100000, 5, 1));
+		assertEquals(Encoding.DICTIONARY, random.encoding());
+
+		// Long runs: a few hundred of them
+		ImmutableCompressedList<String> runs = ImmutableCompressedList.copyOf(runs(100000, 2));
+		assertEquals(Encoding.RUN_LENGTH, runs.encoding());
+
+		ImmutableArrayList<String> array = new ImmutableArrayList<String>(random(100000, 5, 1));
+		long arrayBytes = array.explain().getRetainedBytes();
+		assertTrue(random.explain().getRetainedBytes() * 8 < arrayBytes);
+		assertTrue(runs.explain().getRetainedBytes() * 20 < arrayBytes);
+	}
+
+	@Test
+	public void testPacking() {
+		// Codes of 7 bits, some of them across two longs
+		List<String> elems = random(1000, 100, 5);
+		for (int i = 0 ; i < 100 ; ++i)
+			elems.set(i, "v" + i);
+		check(elems, ImmutableCompressedList.copyOf(elems, Encoding.DICTIONARY));
+	}
+
+	@Test
+	public void testFilterCallsPredicateOncePerValue() {
+		List<String> elems = random(10000, 5, 3);
+		AtomicInteger calls = new AtomicInteger();
+		ImmutableCompressedList<String> list = ImmutableCompressedList.copyOf(elems, Encoding.DICTIONARY);
+		list.filter(status -> calls.incrementAndGet() > 0 && "NEW".equals(status));
+		assertEquals(5, calls.get());
+
+		assertSame(list, list.filter(status -> true));
+		assertTrue(list.filter(status -> false).isEmpty());
+		assertEquals(2000, list.filter("NEW"::equals).size(), 200);
+	}
+
+	@Test
+	public void testFilterMergesRuns() {
+		ImmutableCompressedList<String> list = ImmutableCompressedList.copyOf(
+			Arrays.asList("a", "a", "b", "a", "c", "c", "a"), Encoding.RUN_LENGTH);
+		ImmutableCompressedList<String> filtered = list.filter(s -> !s.equals("b"));
+		assertEquals(Arrays.asList("a", "a", "a", "c", "c", "a"), filtered.asList());
+		assertEquals(3, filtered.indexOf("c"));
+		assertEquals(0, list.indexOf("a"));
+		assertEquals(2, list.indexOf("b"));
+		assertEquals(4, list.indexOf("c"));
+		assertEquals(-1, filtered.indexOf("b"));
+	}
+
+	@Test
+	public void testEmptyAndSingle() {
+		for (Encoding encoding : Encoding.values()) {
+			ImmutableCompressedList<String> empty = ImmutableCompressedList.copyOf(new ArrayList<String>(), encoding);
+			assertTrue(empty.isEmpty());
+			assertFalse(empty.contains(null));
+			assertFalse(empty.iterator().hasNext());
+			check(Arrays.asList("x"), ImmutableCompressedList.copyOf(Arrays.asList("x"), encoding));
+		}
+		assertEquals(Encoding.DICTIONARY, ImmutableCompressedList.copyOf(Arrays.asList()).encoding());
+	}
+
+	@Test(expected = IndexOutOfBoundsException.class)
+	public void testDictionaryOutOfBounds() {
+		ImmutableCompressedList.copyOf(Arrays.asList("a", "b"), Encoding.DICTIONARY).get(2);
+	}
+
+	@Test(expected = IndexOutOfBoundsException.class)
+	public void testRunLengthOutOfBounds() {
+		ImmutableCompressedList.copyOf(Arrays.asList("a", "b"), Encoding.RUN_LENGTH).get(-1);
+	}
+
+	@Test
+	public void testOperations() {
+		List<String> elems = runs(2000, 4);
+		ImmutableCompressedList<String> list = ImmutableCompressedList.copyOf(elems);
+		assertEquals(elems.stream().filter(s -> s == null).count(), list.stream().filter(s -> s == null).count());
+		assertEquals(elems.get(elems.size() - 1), list.get(list.size() - 1));
+		assertEquals(new ImmutableArrayList<String>(elems).map(s -> s == null ? 0 : s.length()),
+			     list.map(s -> s == null ? 0 : s.length()));
+		assertEquals(Arrays.asList("a", "a", "b"), ImmutableCompressedList.copyOf(Arrays.asList("a", "a", "b"))
+			     .asList());
+	}
+}
@@ -1,6 +1,11 @@
 package test;
 
+import static org.junit.Assert.assertFalse;
+
+import java.util.RandomAccess;
+
 import org.junit.Before;
+import org.junit.Test;
 
 public class ImmutableLinkedListTest extends InductiveIterativeListTest {
 
@@ -9,4 +14,8 @@ public class ImmutableLinkedListTest extends InductiveIterativeListTest {
 		super.setUp(new ImmutableLinkedListFactory<Integer>());
 	}
 
+	@Test
+	public void asListViewRandomAccessTest() {
+		assertFalse(list.asListView() instanceof RandomAccess);
+	}
 }
@@ -0,0 +1,153 @@
+package test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import collections.implementations.ImmutableArrayList;
+import collections.implementations.ImmutableLists;
+
+public class ImmutableListsTest {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private static final String[] TERMINATORS = {"\n", "\r\n", "\r"};
+
+	/** Random lines of ASCII, accented and CJK letters, with mixed terminators */
+	private static String text(int size, long seed) {
+		Random random = new Random(seed);
+		String letters = "abcdefghij\u00e9\u00e8\u00fc\u4e2d\u6587";
+		StringBuilder text = new StringBuilder();
+		while (text.length() < size) {
+			int length = random.nextInt(10) == 0 ? random.nextInt(2000) : random.nextInt(80);
+			for (int i = 0 ; i < length ; ++i)
+				text.append(letters.charAt(random.nextInt(letters.length())));
+			text.append(TERMINATORS[random.nextInt(TERMINATORS.length)]);
+		}
+		return text.toString();
+	}
+
+	private Path file(String text, Charset charset) throws IOException {
+		Path path = folder.newFile().toPath();
+		Files.write(path, text.getBytes(charset));
+		return path;
+	}
+
+	/** The lines of the file, as read by BufferedReader */
+	private static List<String> expected(Path path, Charset charset) throws IOException {
+		List<String> lines = new ArrayList<String>();
+		try (BufferedReader reader = Files.newBufferedReader(path, charset)) {
+			for (String line = reader.readLine() ; line != null ; line = reader.readLine())
+				lines.add(line);
+		}
+		return lines;
+	}
+
+	private static List<String> chunked(Path path, Charset charset, int parallelism) throws IOException {
+		try (Stream<ImmutableArrayList<String>> chunks = ImmutableLists.lineChunks(path, charset, parallelism)) {
+			List<String> lines = new ArrayList<String>();
+			chunks.forEach(chunk -> lines.addAll(chunk.asList()));
+			return lines;
+		}
+	}
+
+	private void check(String text, Charset charset) throws IOException {
+		Path path = file(text, charset);
+		List<String> expected = expected(path, charset);
+		for (int parallelism : new int[] {1, 3, 8}) {
+			assertEquals(expected, ImmutableLists.readLines(path, charset, parallelism).asList());
+			assertEquals(expected, chunked(path, charset, parallelism));
+		}
+	}
+
+	@Test
+	public void testLargeFile() throws IOException {
+		// Several chunks, whose bounds fall anywhere in the lines
+		for (long seed = 0 ; seed < 3 ; ++seed)
+			check(text(1 << 21, seed), StandardCharsets.UTF_8);
+	}
+
+	@Test
+	public void testChunks() throws IOException {
+		Path path = file(text(1 << 21, 42), StandardCharsets.UTF_8);
+		try (Stream<ImmutableArrayList<String>> chunks = ImmutableLists.lineChunks(path, StandardCharsets.UTF_8, 4)) {
+			List<ImmutableArrayList<String>> lists = chunks.collect(Collectors.toList());
+			assertTrue(lists.size() > 4);
+			for (ImmutableArrayList<String> list : lists)
+				assertTrue(!list.isEmpty());
+		}
+	}
+
+	@Test
+	public void testSmallFiles() throws IOException {
+		for (String text : new String[] {"", "a", "a\n", "a\r", "a\r\n", "\n", "\n\n", "\r\n\r", "a\nb", "a\r\rb\n\nc\r\n"}) {
+			check(text, StandardCharsets.UTF_8);
+			check(text, StandardCharsets.UTF_16);
+		}
+	}
+
+	@Test
+	public void testCharsets() throws IOException {
+		check(text(1 << 20, 7).replaceAll("[^a-j\r\n]", "x"), StandardCharsets.US_ASCII);
+		check(text(1 << 20, 8).replaceAll("[^a-j\u00e9\u00e8\u00fc\r\n]", "x"), StandardCharsets.ISO_8859_1);
+		// Decoded by a single thread: \n is two bytes
+		check(text(1 << 18, 9), StandardCharsets.UTF_16LE);
+	}
+
+	@Test
+	public void testLongLine() throws IOException {
+		char[] line = new char[1 << 20];
+		Arrays.fill(line, 'a');
+		check("b\n" + new String(line) + "\nc\n" + new String(line), StandardCharsets.UTF_8);
+	}
+
+	@Test
+	public void testMalformed() throws IOException {
+		Path path = folder.newFile().toPath();
+		byte[] bytes = text(1 << 20, 3).replaceAll("[^a-j\n]", "x").getBytes(StandardCharsets.US_ASCII);
+		bytes[bytes.length / 2] = (byte) 0xff;
+		Files.write(path, bytes);
+
+		try {
+			ImmutableLists.readLines(path, StandardCharsets.UTF_8, 4);
+			fail();
+		} catch (CharacterCodingException e) {
+		}
+		try {
+			chunked(path, StandardCharsets.UTF_8, 4);
+			fail();
+		} catch (UncheckedIOException e) {
+			assertTrue(e.getCause() instanceof CharacterCodingException);
+		}
+	}
+
+	@Test(expected = IOException.class)
+	public void testMissingFile() throws IOException {
+		ImmutableLists.readLines(folder.getRoot().toPath().resolve("missing"), StandardCharsets.UTF_8, 2);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testParallelism() throws IOException {
+		ImmutableLists.readLines(file("a", StandardCharsets.UTF_8), StandardCharsets.UTF_8, 0);
+	}
+}
@@ -1,6 +1,18 @@
 package test;
 
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
 import org.junit.Before;
+import org.junit.Test;
+
+import collections.implementations.ImmutableArrayList;
+import collections.implementations.ImmutableReversedArrayList;
 
 
 public class ImmutableReversedArrayListTest extends InductiveIterativeListTest {
@@ -10,4 +22,25 @@ public class ImmutableReversedArrayListTest extends InductiveIterativeListTest {
 		super.setUp(new ReversedArrayListFactory<Integer>());
 	}
 
+	@Test
+	public void ReversedOfReversedTest() {
+		ImmutableArrayList<Integer> array = new ImmutableArrayList<Integer>(1, 2, 3, 4, 5);
+		ImmutableArrayList<Integer> twice = new ImmutableReversedArrayList<Integer>(array.reverse());
+
+		assertEquals(array, twice);
+		assertEquals(0, twice.indexOf(1));
+		assertEquals(4, twice.indexOf(5));
+		assertTrue(twice.contains(3));
+		assertTrue(twice.any(x -> x == 2));
+		assertFalse(twice.all(x -> x < 5));
+		assertEquals(Integer.valueOf(12345), twice.reduce((a, b) -> a * 10 + b).get());
+		assertArrayEquals(new Integer[] {1, 2, 3, 4, 5}, twice.toArray());
+		assertArrayEquals(new Integer[] {1, 2, 3, 4, 5}, twice.toArray(new Integer[0]));
+		assertEquals(new ImmutableArrayList<Integer>(2, 4, 6, 8, 10), twice.map(x -> x * 2));
+		assertEquals(new ImmutableArrayList<Integer>(1, 3, 5), twice.filter(x -> x % 2 == 1));
+
+		List<Integer> seen = new ArrayList<Integer>();
+		twice.forEach(seen::add);
+		assertEquals(array.asList(), seen);
+	}
 }
@@ -0,0 +1,172 @@
+package test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.junit.Test;
+
+import collections.implementations.ImmutableArrayList;
+import collections.implementations.ImmutableTextList;
+import collections.interfaces.IterativeList;
+
+public class ImmutableTextListTest {
+
+	private static final String TEXT = "alpha,beta,,gamma,beta";
+
+	private static List<String> strings(Iterable<? extends CharSequence> tokens) {
+		List<String> strings = new java.util.ArrayList<String>();
+		for (CharSequence token : tokens)
+			strings.add(token.toString());
+		return strings;
+	}
+
+	@Test
+	public void testSplit() {
+		List<String> expected = Arrays.asList("alpha", "beta", "", "gamma", "beta");
+		assertEquals(expected, strings(ImmutableTextList.split(TEXT, ',')));
+		assertEquals(expected, strings(ImmutableTextList.split(TEXT.toCharArray(), ',')));
+		assertEquals(expected, strings(ImmutableTextList.split(TEXT.getBytes(StandardCharsets.ISO_8859_1), ',')));
+
+		assertEquals(Arrays.asList(""), strings(ImmutableTextList.split("", ',')));
+		assertEquals(Arrays.asList("", ""), strings(ImmutableTextList.split(",", ',')));
+		assertEquals(Arrays.asList("abc"), strings(ImmutableTextList.split("abc", ',')));
+	}
+
+	@Test
+	public void testLatin1() {
+		byte[] text = "caf\u00e9;na\u00efve".getBytes(StandardCharsets.ISO_8859_1);
+		ImmutableTextList list = ImmutableTextList.split(text, ';');
+		assertEquals("caf\u00e9", list.get(0).toString());
+		assertEquals('\u00ef', list.get(1).charAt(2));
+		assertEquals(ImmutableTextList.split("caf\u00e9;na\u00efve", ';'), list);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testLatin1Delimiter() {
+		ImmutableTextList.split(new byte[0], '\u20ac');
+	}
+
+	@Test
+	public void testViews() {
+		char[] text = TEXT.toCharArray();
+		ImmutableTextList list = ImmutableTextList.split(text, ',');
+		CharSequence gamma = list.get(3);
+		assertEquals(5, gamma.length());
+		assertEquals('g', gamma.charAt(0));
+		assertEquals("amm", gamma.subSequence(1, 4).toString());
+		assertEquals(0, list.get(2).length());
+
+		// The tokens read the text
+		text[12] = 'G';
+		assertEquals("Gamma", gamma.toString());
+	}
+
+	@Test(expected = IndexOutOfBoundsException.class)
+	public void testCharAtOutOfToken() {
+		// The next character of the text is not in the token
+		ImmutableTextList.split(TEXT, ',').get(0).charAt(5);
+	}
+
+	@Test(expected = IndexOutOfBoundsException.class)
+	public void testGetOutOfBounds() {
+		ImmutableTextList.split(TEXT, ',').get(5);
+	}
+
+	@Test
+	public void testEqualsAndHashCode() {
+		ImmutableTextList list = ImmutableTextList.split(TEXT, ',');
+		assertEquals(list.get(1), list.get(4));
+		assertEquals(list.get(1).hashCode(), list.get(4).hashCode());
+		assertEquals("beta".hashCode(), list.get(1).hashCode());
+		assertEquals("".hashCode(), list.get(2).hashCode());
+		assertNotEquals(list.get(0), list.get(1));
+		assertEquals(list.get(0), list.get(0).subSequence(0, 5));
+		assertEquals(list.get(1), ImmutableTextList.split("beta".getBytes(StandardCharsets.ISO_8859_1), ',').get(0));
+
+		// Not equal to Strings, which would not be equal to them
+		assertFalse(list.get(1).equals("beta"));
+
+		Set<CharSequence> set = new HashSet<CharSequence>();
+		for (CharSequence token : list)
+			set.add(token);
+		assertEquals(4, set.size());
+
+		assertEquals(ImmutableTextList.split(TEXT.toCharArray(), ','), list);
+		assertEquals(ImmutableTextList.split(TEXT.toCharArray(), ',').hashCode(), list.hashCode());
+		assertEquals(ImmutableArrayList.of("alpha", "beta", "", "gamma", "beta").hashCode(), list.hashCode());
+	}
+
+	@Test
+	public void testIndexOf() {
+		ImmutableTextList list = ImmutableTextList.split(TEXT, ',');
+		assertEquals(1, list.indexOf("beta"));
+		assertEquals(2, list.indexOf(""));
+		assertEquals(3, list.indexOf(new StringBuilder("gamma")));
+		assertEquals(-1, list.indexOf("delta"));
+		assertEquals(-1, list.indexOf(null));
+		assertTrue(list.contains("alpha"));
+		assertFalse(list.contains("alph"));
+	}
+
+	@Test
+	public void testAsStrings() {
+		ImmutableTextList list = ImmutableTextList.split(TEXT, ',');
+		IterativeList<String> strings = list.asStrings();
+		assertEquals(ImmutableArrayList.of("alpha", "beta", "", "gamma", "beta"), strings);
+		assertEquals(strings, ImmutableArrayList.of("alpha", "beta", "", "gamma", "beta"));
+
+		// Created once, and shared by the views of the list
+		assertSame(strings.get(3), strings.get(3));
+		assertSame(strings.get(3), list.asStrings().get(3));
+		assertEquals(3, strings.indexOf("gamma"));
+		assertEquals("[alpha, beta, , gamma, beta]", strings.toString());
+	}
+
+	@Test
+	public void testFilterAndSubList() {
+		ImmutableTextList list = ImmutableTextList.split(TEXT, ',');
+		ImmutableTextList filtered = list.filter(token -> token.length() > 0 && token.charAt(0) != 'a');
+		assertEquals(Arrays.asList("beta", "gamma", "beta"), strings(filtered));
+		assertEquals(Arrays.asList("beta", ""), strings(list.subList(1, 3)));
+		assertTrue(list.subList(2, 2).isEmpty());
+	}
+
+	@Test
+	public void testMapAndStreams() {
+		ImmutableTextList list = ImmutableTextList.split(TEXT, ',');
+		assertEquals(ImmutableArrayList.of(5, 4, 0, 5, 4), list.map(CharSequence::length));
+		assertEquals(Arrays.asList("alpha", "gamma"),
+			     list.stream().filter(token -> token.length() == 5).map(CharSequence::toString)
+			     .collect(Collectors.toList()));
+		assertEquals(18, list.parallelStream().mapToInt(CharSequence::length).sum());
+	}
+
+	@Test
+	public void testFromOffsets() {
+		char[] text = "key=value".toCharArray();
+		ImmutableTextList list = ImmutableTextList.fromOffsets(text, new int[] {0, 3, 4, 9});
+		assertEquals(Arrays.asList("key", "value"), strings(list));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testBadOffsets() {
+		ImmutableTextList.fromOffsets("key".toCharArray(), new int[] {0, 4});
+	}
+
+	@Test
+	public void testEmpty() {
+		assertTrue(ImmutableTextList.empty().isEmpty());
+		assertEquals(0, ImmutableTextList.empty().asStrings().size());
+		assertEquals(ImmutableArrayList.empty(), ImmutableTextList.empty());
+	}
+}
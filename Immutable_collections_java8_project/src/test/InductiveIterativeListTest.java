@@ -2,6 +2,7 @@ package test;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
 import java.util.ArrayList;
@@ -10,12 +11,14 @@ import java.util.Collections;
 import java.util.Comparator;
 import java.util.Iterator;
 import java.util.List;
+import java.util.ListIterator;
 import java.util.NoSuchElementException;
 import java.util.Optional;
 import java.util.stream.Stream;
 
 import org.junit.Test;
 
+import collections.implementations.DoubleLinkedListProxy;
 import collections.implementations.ImmutableArrayList;
 import collections.implementations.ImmutableLinkedList;
 import collections.interfaces.ImmutableList;
@@ -35,6 +38,16 @@ class ImmutableLinkedListFactory<E> implements ImmutableListFactory<E> {
 	}
 }
 
+class InternedLinkedListFactory<E> implements ImmutableListFactory<E> {
+	@SuppressWarnings({"unchecked"})
+	public ImmutableList<E> create(E... elems) {
+		return ImmutableLinkedList.interned(elems);
+	}
+	public ImmutableList<E> create() {
+		return ImmutableLinkedList.interned();
+	}
+}
+
 class ImmutableArrayListFactory<E> implements ImmutableListFactory<E> {
 	@SuppressWarnings({"unchecked"})
 	public ImmutableList<E> create(E... elems) {
@@ -45,6 +58,16 @@ class ImmutableArrayListFactory<E> implements ImmutableListFactory<E> {
 	}
 }
 
+class SmallImmutableListFactory<E> implements ImmutableListFactory<E> {
+	@SuppressWarnings({"unchecked"})
+	public ImmutableList<E> create(E... elems) {
+		return ImmutableList.of(elems);
+	}
+	public ImmutableList<E> create() {
+		return ImmutableList.of();
+	}
+}
+
 class ReversedArrayListFactory<E> implements ImmutableListFactory<E> {
 	@SuppressWarnings("unchecked")
 	public ImmutableList<E> create(E... _elems) {
@@ -59,6 +82,16 @@ class ReversedArrayListFactory<E> implements ImmutableListFactory<E> {
 	}
 }
 
+class DoubleLinkedListProxyFactory<E> implements ImmutableListFactory<E> {
+	@SuppressWarnings({"unchecked"})
+	public ImmutableList<E> create(E... elems) {
+		return DoubleLinkedListProxy.fromArray(elems);
+	}
+	public ImmutableList<E> create() {
+		return new DoubleLinkedListProxy<E>();
+	}
+}
+
 public abstract class InductiveIterativeListTest {
 
 	protected ImmutableList<Integer> list;
@@ -364,7 +397,23 @@ public abstract class InductiveIterativeListTest {
 	@Test
 	public void cloneTest(){
 		assertEquals(list.clone(),list);
-		assertFalse(list==list.clone());
+		assertTrue(list==list.clone());
+	}
+
+	@Test
+	public void copyOfTest() {
+		assertSame(list, ImmutableList.copyOf(list));
+		assertEquals(list, ImmutableArrayList.copyOf(list));
+		assertEquals(list, ImmutableLinkedList.copyOf(list));
+		assertEquals(list, ImmutableList.copyOf(list.asList()));
+		assertEquals(list, ImmutableLinkedList.copyOf(list.asList()));
+		assertEquals(emptyList, ImmutableArrayList.copyOf(emptyList));
+		assertEquals(emptyList, ImmutableLinkedList.copyOf(emptyList));
+
+		ImmutableLinkedList<Integer> linked = ImmutableLinkedList.copyOf(list);
+		assertSame(linked, ImmutableLinkedList.copyOf(linked));
+		ImmutableArrayList<Integer> array = ImmutableArrayList.copyOf(list);
+		assertSame(array, ImmutableArrayList.copyOf(array));
 	}
 
 	@Test
@@ -397,6 +446,33 @@ public abstract class InductiveIterativeListTest {
 		assertEquals(myList,myList2);
 	}
 
+	@Test
+	public void asListViewTest() {
+		List<Integer> view = list.asListView();
+		assertEquals(list.asList(), view);
+		assertEquals(3, view.size());
+		assertEquals(2, (int)view.get(1));
+		assertEquals(2, view.indexOf(3));
+		assertTrue(view.contains(1));
+		assertEquals(Arrays.asList(2, 3), view.subList(1, 3));
+		assertEquals(Arrays.asList(3, 2, 1), reversed(view));
+		assertEquals(list.hashCode(), view.hashCode());
+		assertTrue(emptyList.asListView().isEmpty());
+	}
+
+	private static <E> List<E> reversed(List<E> list) {
+		List<E> result = new ArrayList<E>();
+		ListIterator<E> it = list.listIterator(list.size());
+		while (it.hasPrevious())
+			result.add(it.previous());
+		return result;
+	}
+
+	@Test(expected=UnsupportedOperationException.class)
+	public void asListViewExceptionTest() {
+		list.asListView().add(4);
+	}
+
 	@Test
 	public void sortTest() {
 		Comparator<Integer> comp = (Integer x, Integer y) -> x.compareTo(y);
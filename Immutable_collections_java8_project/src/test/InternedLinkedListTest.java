@@ -0,0 +1,68 @@
+package test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import collections.implementations.ImmutableLinkedList;
+import collections.implementations.NodeInterner;
+
+public class InternedLinkedListTest extends InductiveIterativeListTest {
+
+	@Before
+	public void setUp() {
+		super.setUp(new InternedLinkedListFactory<Integer>());
+	}
+
+	@Test
+	public void SharedSuffixTest() {
+		ImmutableLinkedList<Integer> one = ImmutableLinkedList.interned(0, 1, 2, 3);
+		ImmutableLinkedList<Integer> two = ImmutableLinkedList.interned(5, 1, 2, 3);
+
+		assertEquals(one.tail(), two.tail());
+		assertFalse(one.equals(two));
+	}
+
+	@Test
+	public void InternTest() {
+		ImmutableLinkedList<Integer> plain = new ImmutableLinkedList<Integer>(1, 2, 3);
+		ImmutableLinkedList<Integer> interned = plain.intern();
+
+		assertEquals(plain, interned);
+		assertSame(interned, interned.intern());
+		assertEquals(interned, ImmutableLinkedList.interned(1, 2, 3));
+		assertFalse(interned.equals(ImmutableLinkedList.interned(1, 2, 3, 4)));
+	}
+
+	@Test
+	public void StatisticsTest() {
+		long shared = NodeInterner.statistics().nodesShared();
+		ImmutableLinkedList<Integer> one = ImmutableLinkedList.interned(7, 8, 9);
+		ImmutableLinkedList<Integer> two = ImmutableLinkedList.interned(6, 8, 9);
+
+		assertTrue(NodeInterner.statistics().nodesShared() >= shared + 2);
+		assertEquals(one.tail(), two.tail());
+	}
+
+	@Test
+	public void CollectedChainTest() throws InterruptedException {
+		Integer[] elems = new Integer[10000];
+		for (int i = 0 ; i < elems.length ; ++i)
+			elems[i] = -1000000 - i;
+		ImmutableLinkedList<Integer> list = ImmutableLinkedList.interned(elems);
+		long live = NodeInterner.statistics().liveNodes();
+		assertEquals(elems.length, list.size());
+
+		// The whole chain goes in a few cycles, not in one cycle per node
+		list = null;
+		for (int cycle = 0 ; cycle < 10 && NodeInterner.statistics().liveNodes() > live - elems.length ; ++cycle) {
+			System.gc();
+			Thread.sleep(50);
+		}
+		assertTrue(NodeInterner.statistics().liveNodes() <= live - elems.length);
+	}
+}
@@ -0,0 +1,301 @@
+package test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import org.junit.Test;
+
+import collections.implementations.ImmutableArrayList;
+import collections.implementations.ImmutableLinkedList;
+import collections.implementations.LazyLinkedList;
+
+public class LazyLinkedListTest {
+
+	private static <E> List<E> list(Iterable<E> elems) {
+		List<E> list = new ArrayList<E>();
+		for (E elem : elems)
+			list.add(elem);
+		return list;
+	}
+
+	private static LazyLinkedList<Integer> naturals() {
+		return LazyLinkedList.iterate(0, x -> x + 1);
+	}
+
+	@Test
+	public void testIterate() {
+		assertEquals(Arrays.asList(0, 1, 2, 3, 4), list(naturals().take(5)));
+		assertEquals(Arrays.asList(1, 2, 4, 8), list(LazyLinkedList.iterate(1, x -> 2 * x).take(4)));
+	}
+
+	@Test
+	public void testGenerate() {
+		AtomicInteger calls = new AtomicInteger();
+		LazyLinkedList<Integer> list = LazyLinkedList.generate(calls::incrementAndGet);
+		assertEquals(0, calls.get());
+		assertEquals(Arrays.asList(1, 2, 3), list(list.take(3)));
+		assertEquals(3, calls.get());
+		// Remembered
+		assertEquals(Arrays.asList(1, 2, 3), list(list.take(3)));
+		assertEquals(3, calls.get());
+	}
+
+	@Test
+	public void testUnfold() {
+		// Pages of 3 elements, from a page token
+		LazyLinkedList<List<Integer>> pages = LazyLinkedList.unfold(0, token -> token >= 9
+				? Optional.empty()
+				: Optional.of(LazyLinkedList.entry(Arrays.asList(token, token + 1, token + 2), token + 3)));
+		assertEquals(Arrays.asList(Arrays.asList(0, 1, 2), Arrays.asList(3, 4, 5), Arrays.asList(6, 7, 8)),
+			     list(pages));
+		assertEquals(Arrays.asList(6, 7, 8), pages.last());
+	}
+
+	@Test
+	public void testFromIterator() {
+		Iterator<Integer> iterator = Arrays.asList(1, 2, 3).iterator();
+		LazyLinkedList<Integer> list = LazyLinkedList.from(iterator);
+		assertTrue(iterator.hasNext());
+		assertEquals(1, (int) list.head());
+		assertEquals(2, (int) iterator.next());
+		assertEquals(Arrays.asList(1, 3), list(list));
+		assertFalse(iterator.hasNext());
+	}
+
+	@Test
+	public void testEmpty() {
+		LazyLinkedList<Integer> empty = LazyLinkedList.empty();
+		assertTrue(empty.isEmpty());
+		assertTrue(LazyLinkedList.from(Collections.emptyIterator()).isEmpty());
+		assertFalse(empty.iterator().hasNext());
+		assertEquals("[]", empty.toString());
+		try {
+			empty.head();
+			fail();
+		} catch (NoSuchElementException e) {
+		}
+		try {
+			empty.tail();
+			fail();
+		} catch (UnsupportedOperationException e) {
+		}
+		try {
+			empty.last();
+			fail();
+		} catch (NoSuchElementException e) {
+		}
+		try {
+			empty.iterator().next();
+			fail();
+		} catch (NoSuchElementException e) {
+		}
+	}
+
+	@Test
+	public void testInductive() {
+		LazyLinkedList<Integer> list = naturals().take(3);
+		assertEquals(0, (int) list.head());
+		assertEquals(Arrays.asList(1, 2), list(list.tail()));
+		assertEquals(2, (int) list.last());
+		assertEquals(Arrays.asList(-1, 0, 1, 2), list(list.cons(-1)));
+		assertEquals(Arrays.asList(-1, 0), list(naturals().cons(-1).take(2)));
+	}
+
+	@Test
+	public void testLazyOperations() {
+		AtomicInteger calls = new AtomicInteger();
+		LazyLinkedList<Integer> list = LazyLinkedList.generate(calls::incrementAndGet);
+		AtomicInteger mapped = new AtomicInteger();
+
+		LazyLinkedList<Integer> result = list
+			.map(x -> { mapped.incrementAndGet(); return x * 10; })
+			.filter(x -> x % 20 == 0)
+			.take(3)
+			.concat(naturals().take(2));
+		assertEquals(0, calls.get());
+		assertEquals(0, mapped.get());
+
+		assertEquals(20, (int) result.head());
+		assertEquals(2, calls.get());
+		assertEquals(2, mapped.get());
+
+		assertEquals(Arrays.asList(20, 40, 60, 0, 1), list(result));
+		assertEquals(6, calls.get());
+		assertEquals(6, mapped.get());
+	}
+
+	@Test
+	public void testConcat() {
+		assertEquals(Arrays.asList(0, 1, 5, 6), list(naturals().take(2).concat(Arrays.asList(5, 6))));
+		assertEquals(Arrays.asList(5, 6), list(LazyLinkedList.<Integer>empty().concat(ImmutableArrayList.of(5, 6))));
+
+		// The iterable is only read when it is reached
+		List<Integer> appended = new ArrayList<Integer>();
+		LazyLinkedList<Integer> list = naturals().take(2).concat(appended);
+		appended.add(2);
+		assertEquals(Arrays.asList(0, 1, 2), list(list));
+
+		// An infinite list never reaches what follows it
+		assertEquals(Arrays.asList(0, 1, 2), list(naturals().concat(Arrays.asList(-1)).take(3)));
+	}
+
+	@Test
+	public void testTake() {
+		assertTrue(naturals().take(0).isEmpty());
+		assertEquals(Arrays.asList(0, 1), list(naturals().take(5).filter(x -> x < 2).take(10)));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testNegativeTake() {
+		naturals().take(-1);
+	}
+
+	@Test
+	public void testFilterLongRun() {
+		// Rejected elements are skipped in a loop, without a deep recursion
+		assertEquals(1000000, (int) naturals().filter(x -> x >= 1000000).head());
+	}
+
+	@Test
+	public void testEquals() {
+		assertEquals(ImmutableLinkedList.of(0, 1, 2), naturals().take(3));
+		assertEquals(naturals().take(3), ImmutableArrayList.of(0, 1, 2));
+		assertEquals(ImmutableArrayList.of(0, 1, 2).hashCode(), naturals().take(3).hashCode());
+		assertFalse(naturals().take(3).equals(naturals().take(4)));
+	}
+
+	@Test
+	public void testStream() {
+		assertEquals(Arrays.asList(0, 2, 4), naturals().stream().filter(x -> x % 2 == 0).limit(3)
+			     .collect(Collectors.toList()));
+		assertEquals(Arrays.asList(1, 2), list(naturals().take(3).create(Arrays.asList(1, 2))));
+	}
+
+	@Test
+	public void testToString() {
+		LazyLinkedList<Integer> list = naturals();
+		assertEquals("[0, ...]", list.toString());
+		list.tail().tail().head();
+		assertEquals("[0, 1, 2, ...]", list.toString());
+		LazyLinkedList<Integer> finite = naturals().take(2);
+		list(finite);
+		assertEquals("[0, 1]", finite.toString());
+	}
+
+	@Test
+	public void testFailingThunk() {
+		AtomicInteger calls = new AtomicInteger();
+		LazyLinkedList<Integer> list = LazyLinkedList.generate(() -> {
+			if (calls.incrementAndGet() == 1)
+				throw new IllegalStateException();
+			return calls.get();
+		});
+		try {
+			list.head();
+			fail();
+		} catch (IllegalStateException e) {
+		}
+		assertFalse(list.isEvaluated());
+		assertEquals(2, (int) list.head());
+		assertTrue(list.isEvaluated());
+	}
+
+	/** Threads reading a list at the same time compute each element once */
+	@Test
+	public void testConcurrentEvaluation() throws InterruptedException {
+		int threads = 4;
+		int size = 10000;
+		AtomicInteger calls = new AtomicInteger();
+		LazyLinkedList<Integer> list = LazyLinkedList.generate(calls::getAndIncrement).take(size);
+		CountDownLatch start = new CountDownLatch(1);
+		List<List<Integer>> results = Collections.synchronizedList(new ArrayList<List<Integer>>());
+
+		List<Thread> workers = new ArrayList<Thread>();
+		for (int i = 0 ; i < threads ; ++i) {
+			Thread worker = new Thread(() -> {
+				try {
+					start.await();
+				} catch (InterruptedException e) {
+					return;
+				}
+				results.add(list(list));
+			});
+			worker.start();
+			workers.add(worker);
+		}
+		start.countDown();
+		for (Thread worker : workers)
+			worker.join();
+
+		assertEquals(size, calls.get());
+		assertEquals(threads, results.size());
+		List<Integer> expected = list(naturals().take(size));
+		for (List<Integer> result : results)
+			assertEquals(expected, result);
+	}
+
+	/**
+	 * Iterating a list nobody refers to leaves the elements behind it to
+	 * the garbage collector.
+	 */
+	@Test
+	public void testConstantMemory() {
+		Iterator<Object> it = LazyLinkedList.generate(Object::new).map(x -> new Object[] {x}).filter(x -> true)
+			.<Object>map(x -> x).iterator();
+		WeakReference<Object> first = new WeakReference<Object>(it.next());
+		for (int i = 0 ; i < 1000 ; ++i)
+			it.next();
+		for (int i = 0 ; i < 4 && first.get() != null ; ++i)
+			System.gc();
+		assertNull(first.get());
+		assertTrue(it.hasNext());
+	}
+
+	/**
+	 * Looking for the next match does not keep the run of rejected
+	 * elements before it.
+	 */
+	@Test
+	public void testFilterForgetsRejectedRun() {
+		List<WeakReference<Object>> first = new ArrayList<WeakReference<Object>>();
+		AtomicInteger tested = new AtomicInteger();
+		boolean[] collected = new boolean[1];
+		LazyLinkedList<Object> kept = LazyLinkedList.generate(() -> {
+			Object elem = new Object();
+			if (first.isEmpty())
+				first.add(new WeakReference<Object>(elem));
+			return elem;
+		}).filter(x -> {
+			if (tested.incrementAndGet() < 100000)
+				return false;
+			for (int i = 0 ; i < 4 && first.get(0).get() != null ; ++i)
+				System.gc();
+			collected[0] = first.get(0).get() == null;
+			return true;
+		});
+		assertTrue(kept.head() != null);
+		assertTrue(collected[0]);
+	}
+
+	@Test
+	public void testClone() {
+		LazyLinkedList<Integer> list = naturals();
+		assertSame(list, list.clone());
+	}
+}
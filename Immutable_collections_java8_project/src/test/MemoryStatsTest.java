@@ -0,0 +1,268 @@
+package test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.util.Arrays;
+import java.util.function.Supplier;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import collections.implementations.DoubleLinkedListProxy;
+import collections.implementations.ImmutableArrayList;
+import collections.implementations.ImmutableLinkedList;
+import collections.implementations.ImmutableReversedArrayList;
+import collections.implementations.VersionedDoubleLinkedList;
+import collections.instrumentation.MemoryStats;
+import collections.instrumentation.MemoryStats.Representation;
+import collections.interfaces.ImmutableCoreList;
+import collections.interfaces.ImmutableList;
+
+/**
+ * Checks the estimates of explain() against the bytes the JVM allocates
+ * to build the lists, and against the heap they keep alive after a full
+ * collection when they retain more than they allocate.
+ */
+public class MemoryStatsTest {
+
+	private static final int SIZE = 1000;
+
+	/** Size of the lists whose retained heap is measured */
+	private static final int LARGE = 100000;
+
+	/** Keeps the results reachable, so that they are really allocated */
+	private static volatile Object sink;
+
+	private com.sun.management.ThreadMXBean threads;
+	private long overhead;
+	private Integer[] array;
+
+	@Before
+	public void setUp() {
+		java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+		assumeTrue("Allocated bytes are not counted by this JVM",
+			   bean instanceof com.sun.management.ThreadMXBean);
+		threads = (com.sun.management.ThreadMXBean) bean;
+		assumeTrue("Allocated bytes are not counted by this JVM",
+			   threads.isThreadAllocatedMemorySupported());
+		threads.setThreadAllocatedMemoryEnabled(true);
+
+		overhead = Long.MAX_VALUE;
+		for (int i = 0 ; i < 10 ; ++i)
+			overhead = Math.min(overhead, allocated(() -> null));
+
+		// A single cached element: only the lists are allocated
+		array = new Integer[SIZE];
+		Arrays.fill(array, 0);
+	}
+
+	private long allocated(Supplier<Object> operation) {
+		long id = Thread.currentThread().getId();
+		long before = threads.getThreadAllocatedBytes(id);
+		Object result = operation.get();
+		long after = threads.getThreadAllocatedBytes(id);
+		sink = result;
+		return after - before;
+	}
+
+	/** The bytes allocated by the operation, the least of several runs */
+	private long measure(Supplier<Object> operation) {
+		long bytes = Long.MAX_VALUE;
+		for (int run = 0 ; run < 5 ; ++run)
+			bytes = Math.min(bytes, allocated(operation) - overhead);
+		return bytes;
+	}
+
+	/**
+	 * The heap in use after a full collection. The serial collector
+	 * leaves some dead objects in place, and compacts them away every
+	 * fourth full collection only.
+	 */
+	private static long usedHeap() {
+		for (int i = 0 ; i < 4 ; ++i)
+			System.gc();
+		long used = 0;
+		for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans())
+			if (pool.getType() == MemoryType.HEAP && pool.getCollectionUsage() != null)
+				used += pool.getCollectionUsage().getUsed();
+		return used;
+	}
+
+	/**
+	 * The heap kept alive by the list built, once the garbage of building
+	 * it is collected: the median of three runs. The last list built is
+	 * left in sink.
+	 */
+	private static long retainedHeap(Supplier<ImmutableCoreList<Integer>> build) {
+		long[] runs = new long[3];
+		for (int run = 0 ; run < runs.length ; ++run) {
+			sink = null;
+			long before = usedHeap();
+			sink = build.get();
+			runs[run] = usedHeap() - before;
+		}
+		Arrays.sort(runs);
+		return runs[1];
+	}
+
+	private static void assertClose(long expected, long actual) {
+		assertTrue("expected about " + expected + " bytes, measured " + actual,
+			   Math.abs(expected - actual) <= expected / 20);
+	}
+
+	private static Integer[] large() {
+		Integer[] array = new Integer[LARGE];
+		Arrays.fill(array, 0);
+		return array;
+	}
+
+	@Test
+	public void testArrayList() {
+		ImmutableArrayList<Integer> list = new ImmutableArrayList<Integer>(array);
+		MemoryStats stats = list.explain();
+
+		assertEquals(Representation.ARRAY, stats.getRepresentation());
+		assertEquals(measure(() -> new ImmutableArrayList<Integer>(array)), stats.getShallowBytes());
+		assertEquals(measure(() -> new ImmutableArrayList<Integer>(array.clone())), stats.getRetainedBytes());
+		assertEquals(0, stats.getSharedElements());
+		assertEquals(0, stats.getViewDepth());
+	}
+
+	@Test
+	public void testReversedArrayList() {
+		ImmutableArrayList<Integer> list = new ImmutableArrayList<Integer>(array);
+		ImmutableReversedArrayList<Integer> reversed = new ImmutableReversedArrayList<Integer>(list);
+		MemoryStats stats = reversed.explain();
+
+		assertEquals(Representation.REVERSED, stats.getRepresentation());
+		assertEquals(measure(() -> new ImmutableReversedArrayList<Integer>(list)), stats.getShallowBytes());
+		assertEquals(stats.getShallowBytes() + list.explain().getRetainedBytes(), stats.getRetainedBytes());
+		assertEquals(SIZE, stats.getSharedElements());
+		assertEquals(1, stats.getViewDepth());
+
+		// A reversed view of a reversed view reads a copy of its elements
+		MemoryStats nested = new ImmutableReversedArrayList<Integer>(reversed).explain();
+		assertEquals(1, nested.getViewDepth());
+		assertEquals(stats.getRetainedBytes(), nested.getRetainedBytes());
+	}
+
+	@Test
+	public void testSmallList() {
+		MemoryStats stats = ImmutableArrayList.of(1, 2, 3).explain();
+
+		assertEquals(Representation.FIELDS, stats.getRepresentation());
+		assertEquals(measure(() -> ImmutableArrayList.of(1, 2, 3)), stats.getRetainedBytes());
+		assertEquals(stats.getShallowBytes(), stats.getRetainedBytes());
+	}
+
+	@Test
+	public void testLinkedList() {
+		ImmutableLinkedList<Integer> list = new ImmutableLinkedList<Integer>(array);
+		MemoryStats stats = list.explain();
+
+		assertEquals(Representation.NODES, stats.getRepresentation());
+		assertEquals(measure(() -> new ImmutableLinkedList<Integer>(array)), stats.getRetainedBytes());
+		assertEquals(0, stats.getSharedElements());
+		assertEquals(0, stats.getViewDepth());
+
+		// The tail shares its nodes with the list, which it cannot detect
+		MemoryStats tail = list.tail().explain();
+		long node = (stats.getRetainedBytes() - stats.getShallowBytes()) / SIZE;
+		assertEquals(stats.getRetainedBytes() - node, tail.getRetainedBytes());
+		assertEquals(0, tail.getSharedElements());
+	}
+
+	@Test
+	public void testLinkedSubList() {
+		ImmutableLinkedList<Integer> list = new ImmutableLinkedList<Integer>(array);
+		MemoryStats stats = list.subList(0, 10).explain();
+
+		// A prefix keeps the nodes after it
+		assertEquals(list.explain().getRetainedBytes(), stats.getRetainedBytes());
+		assertEquals(10, stats.getSharedElements());
+
+		Integer[] large = large();
+		long measured = retainedHeap(() -> new ImmutableLinkedList<Integer>(large).subList(0, 10));
+		assertClose(((ImmutableCoreList<?>) sink).explain().getRetainedBytes(), measured);
+	}
+
+	@Test
+	public void testInternedList() {
+		MemoryStats stats = ImmutableLinkedList.interned(1, 2, 3, 4, 5).explain();
+
+		assertEquals(Representation.NODES, stats.getRepresentation());
+		assertEquals(5, stats.getSharedElements());
+	}
+
+	@Test
+	public void testProxy() {
+		DoubleLinkedListProxy<Integer> empty = new DoubleLinkedListProxy<Integer>();
+		DoubleLinkedListProxy<Integer> list = empty.create(array);
+		MemoryStats stats = list.explain();
+
+		assertEquals(Representation.CELLS, stats.getRepresentation());
+		assertEquals(measure(() -> empty.create(array)), stats.getRetainedBytes());
+		assertEquals(0, stats.getSharedElements());
+		assertEquals(0, stats.getViewDepth());
+	}
+
+	@Test
+	public void testLazyProxy() {
+		DoubleLinkedListProxy<Integer> list = new DoubleLinkedListProxy<Integer>().create(array);
+		long retained = list.explain().getRetainedBytes();
+
+		MemoryStats reversed = list.reverse().explain();
+		assertEquals(Representation.REVERSED, reversed.getRepresentation());
+		assertEquals(1, reversed.getViewDepth());
+		assertEquals(SIZE, reversed.getSharedElements());
+		assertEquals(retained, reversed.getRetainedBytes());
+
+		MemoryStats mapped = list.endoMap(x -> x + 1).endoMap(x -> x * 2).explain();
+		assertEquals(Representation.VIEW, mapped.getRepresentation());
+		assertEquals(2, mapped.getViewDepth());
+	}
+
+	@Test
+	public void testProxySuffix() {
+		DoubleLinkedListProxy<Integer> list = DoubleLinkedListProxy.fromArray(array);
+		MemoryStats stats = list.subList(SIZE - 10, SIZE).explain();
+
+		// A suffix keeps all the cells of the list
+		assertEquals(Representation.CELLS, stats.getRepresentation());
+		assertEquals(10, stats.getSharedElements());
+		assertTrue(stats.getRetainedBytes() >= list.explain().getRetainedBytes() - stats.getShallowBytes());
+
+		Integer[] large = large();
+		long measured = retainedHeap(() -> DoubleLinkedListProxy.fromArray(large).subList(LARGE - 10, LARGE));
+		assertClose(((ImmutableCoreList<?>) sink).explain().getRetainedBytes(), measured);
+	}
+
+	@Test
+	public void testPackedProxy() {
+		Integer[] large = large();
+		long measured = retainedHeap(() -> new DoubleLinkedListProxy<Integer>(VersionedDoubleLinkedList.packed(large)));
+		MemoryStats stats = ((ImmutableCoreList<?>) sink).explain();
+
+		assertEquals(Representation.CELLS, stats.getRepresentation());
+		assertClose(stats.getRetainedBytes(), measured);
+	}
+
+	@Test
+	public void testOlderVersion() {
+		DoubleLinkedListProxy<Integer> list = DoubleLinkedListProxy.fromArray(array);
+		ImmutableList<Integer> consed = list.tail().cons(1);
+		MemoryStats older = list.explain();
+		MemoryStats newer = consed.explain();
+
+		// The cons overwrote the first cell: the older version retains its
+		// saved value, and shares the other cells
+		assertEquals(SIZE, older.getSharedElements());
+		assertEquals(0, newer.getSharedElements());
+		assertTrue(older.getRetainedBytes() > newer.getRetainedBytes());
+	}
+}
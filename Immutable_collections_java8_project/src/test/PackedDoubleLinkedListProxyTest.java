@@ -0,0 +1,57 @@
+package test;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import collections.implementations.DoubleLinkedListProxy;
+import collections.implementations.ListCell;
+import collections.implementations.VersionedDoubleLinkedList;
+
+public class PackedDoubleLinkedListProxyTest extends DoubleLinkedListProxyTest {
+
+	@Before
+	@Override
+	public void setUp() {
+		list = new DoubleLinkedListProxy<Integer>(VersionedDoubleLinkedList.packed(new Integer[0]));
+		nil  = list.nil();
+	}
+
+	@Test
+	public void testPackedGrows() {
+		Integer[] elems = new Integer[100];
+		for (int i = 99 ; i >= 0 ; --i) {
+			list = list.cons(i);
+			elems[i] = i;
+		}
+		assertEquals(nil.create(elems), list);
+		assertEquals(100, list.size());
+		assertEquals(99, (int)list.last());
+	}
+
+	@Test
+	public void testPackedMapCopy() {
+		list = nil.create(new Integer[] { 1, 2, 3 }).cons(0);
+		DoubleLinkedListProxy<Integer> doubled = list.map((Integer x) -> x * 2);
+		assertEquals(nil.create(new Integer[] { 0, 2, 4, 6 }), doubled);
+		assertEquals(nil.create(new Integer[] { 6, 4, 2, 0, 0 }), doubled.cons(0).reverse());
+		assertEquals(nil.create(new Integer[] { 0, 1, 2, 3 }), list);
+		assertEquals(nil.create(new Integer[] { 1, 2, 3 }), list.tail().copy());
+	}
+
+	@Test
+	public void testPackedConcatObjects() {
+		DoubleLinkedListProxy<Integer> objects = new DoubleLinkedListProxy<Integer>().cons(4).cons(3);
+		list = nil.create(new Integer[] { 1, 2 });
+		assertEquals(nil.create(new Integer[] { 1, 2, 3, 4 }), list.splice(objects));
+		assertEquals(nil.create(new Integer[] { 3, 4 }), objects);
+		assertEquals(nil.create(new Integer[] { 3, 4, 1, 2 }), objects.concat(list.subList(0, 2)));
+	}
+
+	@Test(expected=IllegalArgumentException.class)
+	public void testPackedConcurrentException() {
+		ListCell<Integer> cell = VersionedDoubleLinkedList.packed(new Integer[] { 1 }).getFirstCell();
+		new VersionedDoubleLinkedList<Integer>(cell, 0, true);
+	}
+}
@@ -0,0 +1,80 @@
+package test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.RandomAccess;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import collections.implementations.ImmutableArrayList;
+import collections.implementations.ImmutableLinkedList;
+import collections.interfaces.ImmutableList;
+
+public class SmallImmutableListTest extends InductiveIterativeListTest {
+
+	@Before
+	public void setUp() {
+		super.setUp(new SmallImmutableListFactory<Integer>());
+	}
+
+	@Test
+	public void EmptySingletonTest() {
+		assertSame(ImmutableArrayList.empty(), ImmutableList.of());
+		assertSame(ImmutableArrayList.empty(), list.filter((Integer x) -> false));
+		assertSame(ImmutableLinkedList.empty(), ImmutableLinkedList.of(1).tail());
+		assertSame(ImmutableLinkedList.empty(), new ImmutableLinkedList<Integer>(1).tail());
+	}
+
+	@Test
+	public void PromotionTest() {
+		ImmutableList<Integer> four = ImmutableList.of(1, 2, 3, 4);
+		assertTrue(four.cons(0) instanceof ImmutableArrayList);
+		assertTrue(four.concat(5) instanceof ImmutableArrayList);
+		assertEquals(ImmutableList.of(0, 1, 2, 3, 4), four.cons(0));
+
+		ImmutableList<Integer> linked = ImmutableLinkedList.of(1, 2, 3, 4);
+		assertTrue(linked.cons(0) instanceof ImmutableLinkedList);
+		assertEquals(new ImmutableLinkedList<Integer>(0, 1, 2, 3, 4), linked.cons(0));
+		assertTrue(linked.cons(0).tail().cons(0) instanceof ImmutableLinkedList);
+	}
+
+	@Test
+	public void CreateTest() {
+		assertEquals(3, new ImmutableArrayList<Integer>(1, 2).cons(0).size());
+		assertTrue(new ImmutableArrayList<Integer>(1, 2, 3, 4, 5).map((Integer x) -> x * 2)
+			   instanceof ImmutableArrayList);
+		assertEquals(ImmutableList.of(2, 4), new ImmutableLinkedList<Integer>(1, 2).map((Integer x) -> x * 2));
+	}
+
+	@Test
+	public void SizeChangingOperationsTest() {
+		// Whatever the operation, the result has the representation of() gives
+		ImmutableArrayList<Integer> array = new ImmutableArrayList<Integer>(1, 2, 3, 4, 5);
+		Class<?> small = ImmutableList.of(1, 2, 3, 4).getClass();
+		assertSame(small, array.remove(0).getClass());
+		assertSame(small, array.subList(1, 5).getClass());
+		assertSame(small, new ImmutableArrayList<Integer>(2, 3, 4).cons(1).getClass());
+		assertTrue(array.subList(0, 5) instanceof ImmutableArrayList);
+		assertSame(ImmutableArrayList.empty(), ImmutableArrayList.of(1).remove(0));
+		assertSame(ImmutableArrayList.empty(), new ImmutableArrayList<Integer>(1).remove(0));
+		assertEquals(ImmutableList.of(2, 3, 4, 5), array.remove(0));
+
+		ImmutableLinkedList<Integer> linked = new ImmutableLinkedList<Integer>(1, 2, 3, 4, 5);
+		assertSame(small, linked.remove(0).getClass());
+		assertSame(small, linked.subList(1, 5).getClass());
+		assertTrue(linked.subList(0, 5) instanceof ImmutableLinkedList);
+		assertTrue(linked.remove(0).cons(0) instanceof ImmutableLinkedList);
+		assertSame(ImmutableLinkedList.empty(), new ImmutableLinkedList<Integer>(1).remove(0));
+		assertEquals(ImmutableList.of(2, 3), linked.subList(1, 3));
+	}
+
+	@Test
+	public void RandomAccessTest() {
+		assertTrue(ImmutableList.of(1, 2, 3).asListView() instanceof RandomAccess);
+		assertTrue(ImmutableLinkedList.of(1, 2).asListView() instanceof RandomAccess);
+		assertEquals(3, (int) ImmutableList.of(1, 2, 3).asListView().get(2));
+	}
+}
@@ -0,0 +1,158 @@
+package test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.io.UnsupportedEncodingException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+import main.LatencyHistogram;
+import main.Main;
+
+public class WorkloadReplayTest {
+
+	/** Runs main.Main, and returns the lines of its report */
+	private static List<String> run(String... args) throws InterruptedException, UnsupportedEncodingException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		assertEquals(0, Main.run(args, new PrintStream(bytes, true, "UTF-8")));
+		return Arrays.asList(bytes.toString("UTF-8").split("\\R"));
+	}
+
+	@Test
+	public void testCsv() throws Exception {
+		List<String> lines = run("--implementations=ImmutableArrayList,DoubleLinkedListProxy", "--sizes=100",
+					 "--mix=get:50,cons:30,subList:20", "--rate=2000", "--warmup=0.1", "--duration=0.5");
+		assertEquals("implementation,size,threads,rate,achieved_rate,operation,latency,count,mean_us,"
+			     + "p50_us,p90_us,p99_us,p99.9_us,p99.99_us,max_us", lines.get(0));
+		// Two latencies for each operation and "all", on each list
+		assertEquals(1 + 2 * 2 * 4, lines.size());
+
+		for (String line : lines.subList(1, lines.size())) {
+			String[] columns = line.split(",");
+			assertEquals(15, columns.length);
+			double previous = 0;
+			for (int i = 9 ; i < columns.length ; ++i) {
+				double value = Double.parseDouble(columns[i]);
+				assertTrue(line, value >= previous);
+				previous = value;
+			}
+			if (columns[5].equals("all") && columns[6].equals("response")) {
+				// The schedule is fixed: 1000 operations are due, and
+				// counted whether they ran or not
+				long count = Long.parseLong(columns[7]);
+				assertTrue(line, Math.abs(count - 1000) <= 1);
+				// A stall leaves some of them without a service time, but
+				// most of them ran
+				double rate = Double.parseDouble(columns[4]);
+				assertTrue(line, rate >= 0.9 * 2000 && rate <= 2000 + 10);
+			}
+			if (columns[5].equals("all") && columns[6].equals("service"))
+				assertTrue(line, Long.parseLong(columns[7]) >= 0.9 * 1000);
+		}
+	}
+
+	@Test
+	public void testThreads() throws Exception {
+		List<String> lines = run("--implementations=DoubleLinkedListProxy", "--sizes=10", "--threads=3",
+					 "--mix=cons,head", "--rate=3000", "--warmup=0", "--duration=0.3");
+		for (String line : lines.subList(1, lines.size())) {
+			String[] columns = line.split(",");
+			assertEquals("3", columns[2]);
+			if (columns[5].equals("all") && columns[6].equals("response"))
+				assertTrue(line, Math.abs(Long.parseLong(columns[7]) - 900) <= 3);
+		}
+	}
+
+	@Test
+	public void testJson() throws Exception {
+		String json = String.join("\n", run("--implementations=ImmutableLinkedList", "--sizes=10,20",
+						    "--mix=head:1,reverse:1", "--rate=1000", "--warmup=0",
+						    "--duration=0.1", "--format=json"));
+		assertTrue(json.startsWith("{") && json.endsWith("}"));
+		for (String key : new String[] {"\"runs\"", "\"achievedRate\"", "\"head\"", "\"reverse\"", "\"all\"",
+						"\"response\"", "\"service\"", "\"p99.99_us\""})
+			assertTrue(key, json.contains(key));
+		assertEquals(2, json.split("\"implementation\"").length - 1);
+	}
+
+	@Test
+	public void testBadArguments() throws Exception {
+		PrintStream err = System.err;
+		System.setErr(new PrintStream(new ByteArrayOutputStream()));
+		try {
+			PrintStream out = new PrintStream(new ByteArrayOutputStream());
+			assertEquals(2, Main.run(new String[] {"--mix=push:10"}, out));
+			assertEquals(2, Main.run(new String[] {"--mix=get:-1"}, out));
+			assertEquals(2, Main.run(new String[] {"--mix=get:0"}, out));
+			assertEquals(2, Main.run(new String[] {"--sizes=0"}, out));
+			assertEquals(2, Main.run(new String[] {"--rate=fast"}, out));
+			assertEquals(2, Main.run(new String[] {"--implementations=ArrayList"}, out));
+			assertEquals(2, Main.run(new String[] {"--format=xml"}, out));
+			assertEquals(2, Main.run(new String[] {"--verbose"}, out));
+		} finally {
+			System.setErr(err);
+		}
+	}
+
+	/**
+	 * At a rate the lists cannot keep up with, the operations wait more
+	 * and more for their turn: the response times, which count the wait,
+	 * grow far above the service times.
+	 */
+	@Test
+	public void testCoordinatedOmission() throws Exception {
+		List<String> lines = run("--implementations=ImmutableLinkedList", "--sizes=100000", "--mix=reverse",
+					 "--rate=100000", "--warmup=0", "--duration=0.2");
+		double response = 0, service = 0;
+		for (String line : lines.subList(1, lines.size())) {
+			String[] columns = line.split(",");
+			if (columns[5].equals("all"))
+				if (columns[6].equals("response")) {
+					response = Double.parseDouble(columns[9]);
+					// The operations not run are counted nonetheless
+					assertEquals(20000, Long.parseLong(columns[7]));
+				} else {
+					service = Double.parseDouble(columns[9]);
+					assertTrue(line, Double.parseDouble(columns[4]) < 10000);
+				}
+		}
+		assertTrue(response + " against " + service, response > 10 * service);
+	}
+
+	@Test
+	public void testHistogram() {
+		LatencyHistogram histogram = new LatencyHistogram();
+		LatencyHistogram other = new LatencyHistogram();
+		List<Long> values = new ArrayList<Long>();
+		Random random = new Random(42);
+		for (int i = 0 ; i < 100000 ; ++i) {
+			long value = (long) Math.exp(random.nextDouble() * 25);
+			values.add(value);
+			(i % 2 == 0 ? histogram : other).record(value);
+		}
+		histogram.add(other);
+		values.sort(null);
+
+		assertEquals(values.size(), histogram.getCount());
+		assertEquals((long) values.get(values.size() - 1), histogram.getMax());
+		for (double percentile : new double[] {0, 10, 50, 90, 99, 99.9, 99.99, 100}) {
+			long expected = values.get(Math.max(0, (int) Math.ceil(percentile / 100 * values.size()) - 1));
+			long actual = histogram.getValueAtPercentile(percentile);
+			assertTrue(percentile + ": " + expected + " against " + actual,
+				   actual >= expected && actual <= expected + expected / 128);
+		}
+
+		LatencyHistogram exact = new LatencyHistogram();
+		for (long value = 0 ; value < 256 ; ++value)
+			exact.record(value);
+		assertEquals(127, exact.getValueAtPercentile(50));
+		assertEquals(0, new LatencyHistogram().getValueAtPercentile(50));
+	}
+}
@@ -0,0 +1,90 @@
+package benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import collections.implementations.ImmutableArrayList;
+import collections.implementations.ImmutableCollectors;
+import collections.implementations.ImmutableLinkedList;
+
+/**
+ * Collecting a stream into an immutable list: with the collectors of
+ * ImmutableCollectors, against collecting into a List and copying it, the
+ * way it was done before them. Parallel streams combine the results of
+ * their parts, which the collectors do without copying them.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CollectorBenchmark {
+
+	@Param({"1000", "1000000"})
+	public int size;
+
+	@Param({"false", "true"})
+	public boolean parallel;
+
+	private List<Integer> source;
+
+	@Setup
+	public void setUp() {
+		source = new ArrayList<Integer>(size);
+		for (int i = 0 ; i < size ; ++i)
+			source.add(i);
+	}
+
+	private Stream<Integer> stream() {
+		// The stream does not know its size, like most streams with a filter
+		Stream<Integer> stream = source.stream().filter(x -> x >= 0);
+		return parallel ? stream.parallel() : stream;
+	}
+
+	@Benchmark
+	public ImmutableArrayList<Integer> arrayList() {
+		return stream().collect(ImmutableCollectors.toImmutableArrayList());
+	}
+
+	@Benchmark
+	public ImmutableArrayList<Integer> sizedArrayList() {
+		return stream().collect(ImmutableCollectors.toImmutableArrayList(size));
+	}
+
+	@Benchmark
+	public ImmutableArrayList<Integer> arrayListFromList() {
+		return new ImmutableArrayList<Integer>(stream().collect(Collectors.toList()));
+	}
+
+	@Benchmark
+	public ImmutableLinkedList<Integer> linkedList() {
+		return stream().collect(ImmutableCollectors.toImmutableLinkedList());
+	}
+
+	@Benchmark
+	public ImmutableLinkedList<Integer> linkedListFromList() {
+		return new ImmutableLinkedList<Integer>(stream().collect(Collectors.toList()));
+	}
+
+	/** The stream alone, to tell its cost from the one of collecting */
+	@Benchmark
+	public long count() {
+		return stream().count();
+	}
+}
@@ -0,0 +1,85 @@
+package benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import collections.implementations.ImmutableArrayList;
+import collections.implementations.ImmutableCompressedList;
+import collections.interfaces.IterativeList;
+
+/**
+ * Reading and searching a list of a few distinct statuses: compressed in
+ * the encoding copyOf picks, against an ImmutableArrayList. Random
+ * statuses are dictionary encoded, runs of them run-length encoded.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CompressedListBenchmark {
+
+	private static final String[] STATUSES = {"NEW", "OPEN", "PENDING", "CLOSED", "REJECTED", "ARCHIVED"};
+
+	@Param({"1000000"})
+	public int size;
+
+	@Param({"1", "1000"})
+	public int runLength;
+
+	@Param({"array", "compressed"})
+	public String implementation;
+
+	private IterativeList<String> list;
+	private int[] indices;
+	private int next;
+
+	@Setup
+	public void setUp() {
+		Random random = new Random(42);
+		List<String> elems = new ArrayList<String>(size);
+		while (elems.size() < size) {
+			// The last status is rare, for indexOf to go far
+			String status = STATUSES[random.nextInt(STATUSES.length - 1)];
+			for (int i = 0 ; i < runLength && elems.size() < size ; ++i)
+				elems.add(status);
+		}
+		elems.set(size - 1, STATUSES[STATUSES.length - 1]);
+		list = implementation.equals("array") ? new ImmutableArrayList<String>(elems) : ImmutableCompressedList.copyOf(elems);
+
+		indices = new int[1024];
+		for (int i = 0 ; i < indices.length ; ++i)
+			indices[i] = random.nextInt(size);
+	}
+
+	@Benchmark
+	public String get() {
+		next = (next + 1) & (indices.length - 1);
+		return list.get(indices[next]);
+	}
+
+	@Benchmark
+	public int indexOf() {
+		return list.indexOf("ARCHIVED");
+	}
+
+	@Benchmark
+	public IterativeList<String> filter() {
+		return list.filter("OPEN"::equals);
+	}
+}
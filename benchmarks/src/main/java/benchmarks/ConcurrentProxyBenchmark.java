@@ -0,0 +1,83 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import collections.implementations.DoubleLinkedListProxy;
+
+/**
+ * Threads racing to modify the current version of a shared concurrent
+ * DoubleLinkedListProxy. The latest proxy is published in an
+ * AtomicReference: each invocation reads it, replaces its head with
+ * tail().cons(), which keeps the size constant, and tries to install the
+ * result. The thread whose cons claims the current version modifies the
+ * cells in place; the others lose the claim and copy the view. The
+ * installed and lost counters report how many invocations did each.
+ *
+ * Runs 16 threads by default, for the contention of a many-core machine:
+ * change their number with -t, e.g. -t 4 on a smaller one.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(16)
+public class ConcurrentProxyBenchmark {
+
+	@Param({"100"})
+	public int size;
+
+	/** The latest proxy installed, which the threads modify */
+	private final AtomicReference<DoubleLinkedListProxy<Integer>> current =
+		new AtomicReference<DoubleLinkedListProxy<Integer>>();
+
+	/** Invocations per thread which installed their result, or lost the race */
+	@State(Scope.Thread)
+	@AuxCounters(AuxCounters.Type.EVENTS)
+	public static class Claims {
+		public long installed;
+		public long lost;
+
+		@Setup(Level.Iteration)
+		public void reset() {
+			installed = 0;
+			lost      = 0;
+		}
+	}
+
+	@Setup(Level.Iteration)
+	public void setUp() {
+		Integer[] elems = new Integer[size];
+		for (int i = 0 ; i < size ; ++i)
+			elems[i] = i;
+		current.set(DoubleLinkedListProxy.fromArray(elems, true));
+	}
+
+	@Benchmark
+	public Integer cons(Claims claims) {
+		DoubleLinkedListProxy<Integer> list = current.get();
+		DoubleLinkedListProxy<Integer> out  = list.tail().cons(-1);
+		if (current.compareAndSet(list, out))
+			claims.installed++;
+		else
+			claims.lost++;
+		return out.head();
+	}
+}
@@ -0,0 +1,216 @@
+package benchmarks;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import collections.implementations.DoubleLinkedListProxy;
+import collections.implementations.ImmutableArrayList;
+import collections.implementations.ImmutableLinkedList;
+import collections.implementations.ImmutableReversedArrayList;
+import collections.interfaces.ImmutableList;
+
+/**
+ * The operations the benchmarks run, over an immutable list or a JDK list.
+ * JDK lists are never modified: the operations which return a new list
+ * copy them first, as an immutable list would have to.
+ */
+abstract class ListAdapter {
+
+	/**
+	 * Returns an adapter over a list of the given implementation holding
+	 * the given elements.
+	 *
+	 * @param implementation the simple name of the class of the list
+	 * @return an adapter over a new list
+	 * @throws IllegalArgumentException if the implementation is unknown
+	 */
+	static ListAdapter of(String implementation, Integer[] elems) {
+		switch (implementation) {
+		case "ImmutableArrayList":
+			return new ImmutableListAdapter(new ImmutableArrayList<Integer>(elems.clone()));
+		case "ImmutableLinkedList":
+			return new ImmutableListAdapter(new ImmutableLinkedList<Integer>(elems.clone()));
+		case "ImmutableReversedArrayList":
+			Integer[] reversed = elems.clone();
+			Collections.reverse(Arrays.asList(reversed));
+			return new ImmutableListAdapter(new ImmutableReversedArrayList<Integer>(new ImmutableArrayList<Integer>(reversed)));
+		case "DoubleLinkedListProxy":
+			return new ImmutableListAdapter(DoubleLinkedListProxy.fromArray(elems));
+		case "ArrayList":
+			return new JdkListAdapter(ArrayList::new, elems);
+		case "LinkedList":
+			return new JdkListAdapter(LinkedList::new, elems);
+		default:
+			throw new IllegalArgumentException("Unknown implementation " + implementation);
+		}
+	}
+
+	abstract Object list();
+
+	abstract Integer get(int index);
+	abstract int size();
+	abstract int indexOf(Integer elem);
+	abstract Object concat();
+	abstract Object cons(Integer elem);
+	abstract Object tail();
+	abstract Object subList(int fromIndex, int toIndex);
+	abstract Object reverse();
+	abstract Object map(Function<Integer, Integer> mapper);
+	abstract Object filter(Predicate<Integer> predicate);
+	abstract Integer reduce();
+	abstract long stream();
+	abstract long parallelStream();
+}
+
+final class ImmutableListAdapter extends ListAdapter {
+
+	private final ImmutableList<Integer> list;
+
+	ImmutableListAdapter(ImmutableList<Integer> list) {
+		this.list = list;
+	}
+
+	Object list() {
+		return list;
+	}
+
+	Integer get(int index) {
+		return list.get(index);
+	}
+
+	int size() {
+		return list.size();
+	}
+
+	int indexOf(Integer elem) {
+		return list.indexOf(elem);
+	}
+
+	Object concat() {
+		return list.concat(list);
+	}
+
+	Object cons(Integer elem) {
+		return list.cons(elem);
+	}
+
+	Object tail() {
+		return list.tail();
+	}
+
+	Object subList(int fromIndex, int toIndex) {
+		return list.subList(fromIndex, toIndex);
+	}
+
+	Object reverse() {
+		return list.reverse();
+	}
+
+	Object map(Function<Integer, Integer> mapper) {
+		return list.map(mapper);
+	}
+
+	Object filter(Predicate<Integer> predicate) {
+		return list.filter(predicate);
+	}
+
+	Integer reduce() {
+		return list.reduce(Integer::sum).orElse(0);
+	}
+
+	long stream() {
+		return list.stream().mapToLong(Integer::longValue).sum();
+	}
+
+	long parallelStream() {
+		return list.parallelStream().mapToLong(Integer::longValue).sum();
+	}
+}
+
+final class JdkListAdapter extends ListAdapter {
+
+	private final Supplier<List<Integer>> factory;
+	private final List<Integer> list;
+
+	JdkListAdapter(Supplier<List<Integer>> factory, Integer[] elems) {
+		this.factory = factory;
+		this.list    = factory.get();
+		Collections.addAll(list, elems);
+	}
+
+	private List<Integer> copy() {
+		List<Integer> copy = factory.get();
+		copy.addAll(list);
+		return copy;
+	}
+
+	Object list() {
+		return list;
+	}
+
+	Integer get(int index) {
+		return list.get(index);
+	}
+
+	int size() {
+		return list.size();
+	}
+
+	int indexOf(Integer elem) {
+		return list.indexOf(elem);
+	}
+
+	Object concat() {
+		List<Integer> copy = copy();
+		copy.addAll(list);
+		return copy;
+	}
+
+	Object cons(Integer elem) {
+		List<Integer> copy = factory.get();
+		copy.add(elem);
+		copy.addAll(list);
+		return copy;
+	}
+
+	Object tail() {
+		return list.subList(1, list.size());
+	}
+
+	Object subList(int fromIndex, int toIndex) {
+		return list.subList(fromIndex, toIndex);
+	}
+
+	Object reverse() {
+		List<Integer> copy = copy();
+		Collections.reverse(copy);
+		return copy;
+	}
+
+	Object map(Function<Integer, Integer> mapper) {
+		return list.stream().map(mapper).collect(Collectors.toCollection(factory));
+	}
+
+	Object filter(Predicate<Integer> predicate) {
+		return list.stream().filter(predicate).collect(Collectors.toCollection(factory));
+	}
+
+	Integer reduce() {
+		return list.stream().reduce(Integer::sum).orElse(0);
+	}
+
+	long stream() {
+		return list.stream().mapToLong(Integer::longValue).sum();
+	}
+
+	long parallelStream() {
+		return list.parallelStream().mapToLong(Integer::longValue).sum();
+	}
+}
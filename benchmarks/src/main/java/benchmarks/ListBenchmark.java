@@ -0,0 +1,145 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Cost of the list operations, per implementation and size. JMH consumes
+ * the results in a Blackhole, so that the JIT cannot drop the work.
+ *
+ * Every invocation runs on the same list. A DoubleLinkedListProxy modified
+ * in place by an invocation (cons, concat) is thus an older version for the
+ * next ones, which work on a copy: this measures what sharing a proxy
+ * costs, not the in-place fast path.
+ *
+ * Run with java -jar benchmarks/target/benchmarks.jar ListBenchmark, and
+ * for instance -p size=1000 -p implementation=ImmutableArrayList to narrow
+ * the parameters. The 10^7 lists need a few GB of heap.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class ListBenchmark {
+
+	@Param({"ImmutableArrayList",
+		"ImmutableLinkedList",
+		"ImmutableReversedArrayList",
+		"DoubleLinkedListProxy",
+		"ArrayList",
+		"LinkedList"})
+	public String implementation;
+
+	@Param({"10", "1000", "100000", "10000000"})
+	public int size;
+
+	private ListAdapter list;
+
+	/** A list equal to list, but not the same one */
+	private ListAdapter other;
+
+	private Integer last;
+
+	private static final Function<Integer, Integer> increment = (Integer x) -> x + 1;
+	private static final Predicate<Integer> even = (Integer x) -> x % 2 == 0;
+
+	@Setup
+	public void setUp() {
+		Integer[] elems = new Integer[size];
+		for (int i = 0 ; i < size ; ++i)
+			elems[i] = i;
+		list  = ListAdapter.of(implementation, elems);
+		other = ListAdapter.of(implementation, elems);
+		last  = elems[size - 1];
+	}
+
+	@Benchmark
+	public Integer get() {
+		return list.get(size / 2);
+	}
+
+	@Benchmark
+	public int size() {
+		return list.size();
+	}
+
+	@Benchmark
+	public int indexOf() {
+		return list.indexOf(last);
+	}
+
+	@Benchmark
+	public Object concat() {
+		return list.concat();
+	}
+
+	@Benchmark
+	public Object cons() {
+		return list.cons(-1);
+	}
+
+	@Benchmark
+	public Object tail() {
+		return list.tail();
+	}
+
+	@Benchmark
+	public Object subList() {
+		return list.subList(size / 4, size - size / 4);
+	}
+
+	@Benchmark
+	public Object reverse() {
+		return list.reverse();
+	}
+
+	@Benchmark
+	public Object map() {
+		return list.map(increment);
+	}
+
+	@Benchmark
+	public Object filter() {
+		return list.filter(even);
+	}
+
+	@Benchmark
+	public Integer reduce() {
+		return list.reduce();
+	}
+
+	@Benchmark
+	public boolean equalList() {
+		return list.list().equals(other.list());
+	}
+
+	@Benchmark
+	public int hashList() {
+		return list.list().hashCode();
+	}
+
+	@Benchmark
+	public long stream() {
+		return list.stream();
+	}
+
+	@Benchmark
+	public long parallelStream() {
+		return list.parallelStream();
+	}
+}
@@ -0,0 +1,72 @@
+package benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs ReadScalingBenchmark with 1, 2, 4... up to N threads, and prints
+ * for each read and implementation its throughput, its speedup over one
+ * thread and its efficiency, the speedup divided by the number of
+ * threads. Efficiencies below the target are flagged, and make the exit
+ * status 1.
+ *
+ * Run with java -cp benchmarks/target/benchmarks.jar
+ * -Dscaling.threads=N -Dscaling.target=0.75 benchmarks.ReadScaling,
+ * followed by JMH options (-p size=100000, -wi 1...). N defaults to the
+ * number of processors: beyond the number of physical cores, the
+ * efficiencies drop whatever the list does.
+ */
+public class ReadScaling {
+
+	public static void main(String[] args) throws CommandLineOptionException, RunnerException {
+		int maxThreads = Integer.getInteger("scaling.threads", Runtime.getRuntime().availableProcessors());
+		double target  = Double.parseDouble(System.getProperty("scaling.target", "0.75"));
+		CommandLineOptions options = new CommandLineOptions(args);
+
+		List<Integer> threads = new ArrayList<>();
+		for (int n = 1 ; n < maxThreads ; n *= 2)
+			threads.add(n);
+		threads.add(maxThreads);
+
+		// Throughputs per benchmark, then per number of threads
+		Map<String, Map<Integer, Double>> scores = new TreeMap<>();
+		for (int n : threads) {
+			OptionsBuilder builder = new OptionsBuilder();
+			builder.parent(options);
+			builder.include(ReadScalingBenchmark.class.getSimpleName()).threads(n);
+			for (RunResult result : new Runner(builder.build()).run()) {
+				String benchmark = result.getParams().getBenchmark();
+				String name = benchmark.substring(benchmark.lastIndexOf('.') + 1)
+					+ " " + result.getParams().getParam("implementation")
+					+ " " + result.getParams().getParam("size");
+				scores.computeIfAbsent(name, k -> new TreeMap<>())
+					.put(n, result.getPrimaryResult().getScore());
+			}
+		}
+
+		boolean flagged = false;
+		System.out.printf("%n%-48s %8s %14s %8s %10s%n", "Benchmark", "Threads", "ops/us", "Speedup", "Efficiency");
+		for (Map.Entry<String, Map<Integer, Double>> benchmark : scores.entrySet()) {
+			double single = benchmark.getValue().get(1);
+			for (Map.Entry<Integer, Double> score : benchmark.getValue().entrySet()) {
+				double speedup    = score.getValue() / single;
+				double efficiency = speedup / score.getKey();
+				boolean below = efficiency < target;
+				flagged |= below;
+				System.out.printf("%-48s %8d %14.3f %8.2f %10.2f%s%n",
+						  benchmark.getKey(), score.getKey(), score.getValue(),
+						  speedup, efficiency, below ? "  BELOW " + target : "");
+			}
+		}
+		System.exit(flagged ? 1 : 0);
+	}
+}
@@ -0,0 +1,136 @@
+package benchmarks;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import collections.implementations.DoubleLinkedListProxy;
+import collections.implementations.ImmutableArrayList;
+import collections.implementations.ImmutableLinkedList;
+import collections.implementations.ImmutableReversedArrayList;
+import collections.interfaces.ImmutableList;
+
+/**
+ * Threads reading a shared list. Reads do not write to the list, so their
+ * throughput should grow with the number of threads, up to the number of
+ * cores; contention on a field of the list or false sharing would show as
+ * a flat curve.
+ *
+ * Run ReadScaling to measure it from 1 to N threads and get the
+ * efficiencies, or this benchmark alone with -t.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ReadScalingBenchmark {
+
+	@Param({"ImmutableArrayList",
+		"ImmutableLinkedList",
+		"ImmutableReversedArrayList",
+		"DoubleLinkedListProxy"})
+	public String implementation;
+
+	@Param({"1000"})
+	public int size;
+
+	private ImmutableList<Integer> list;
+
+	@Setup
+	public void setUp() {
+		Integer[] elems = new Integer[size];
+		for (int i = 0 ; i < size ; ++i)
+			elems[i] = i;
+		switch (implementation) {
+		case "ImmutableArrayList":
+			list = new ImmutableArrayList<Integer>(elems);
+			break;
+		case "ImmutableLinkedList":
+			list = new ImmutableLinkedList<Integer>(elems);
+			break;
+		case "ImmutableReversedArrayList":
+			Integer[] reversed = elems.clone();
+			Collections.reverse(Arrays.asList(reversed));
+			list = new ImmutableReversedArrayList<Integer>(new ImmutableArrayList<Integer>(reversed));
+			break;
+		case "DoubleLinkedListProxy":
+			list = DoubleLinkedListProxy.fromArray(elems, true);
+			break;
+		default:
+			throw new IllegalArgumentException("Unknown implementation " + implementation);
+		}
+	}
+
+	/** Per thread cursor, so that threads do not share a random generator */
+	@State(Scope.Thread)
+	public static class Cursor {
+		private int next;
+
+		/** The read mixed() does next: kept apart from next, so that it runs all five in turn */
+		private int operation;
+
+		int next(int bound) {
+			next = (next + 7919) % bound;
+			return next;
+		}
+
+		int nextOperation() {
+			operation = (operation + 1) % 5;
+			return operation;
+		}
+	}
+
+	@Benchmark
+	public Integer get(Cursor cursor) {
+		return list.get(cursor.next(size));
+	}
+
+	@Benchmark
+	public long iterator() {
+		long sum = 0;
+		for (Integer elem : list)
+			sum += elem;
+		return sum;
+	}
+
+	@Benchmark
+	public long stream() {
+		return list.stream().mapToLong(Integer::longValue).sum();
+	}
+
+	@Benchmark
+	public boolean contains(Cursor cursor) {
+		return list.contains(cursor.next(size));
+	}
+
+	@Benchmark
+	public int hashList() {
+		return list.hashCode();
+	}
+
+	/** The reads above in turn */
+	@Benchmark
+	public long mixed(Cursor cursor) {
+		switch (cursor.nextOperation()) {
+		case 0:  return get(cursor);
+		case 1:  return iterator();
+		case 2:  return stream();
+		case 3:  return contains(cursor) ? 1 : 0;
+		default: return hashList();
+		}
+	}
+}